@@ -0,0 +1,36 @@
+package com.jdbctd2.benchmarks;
+
+import com.jdbctd2.config.ConnectionPool;
+import com.jdbctd2.config.DBConnection;
+import com.jdbctd2.config.PoolConfig;
+
+/**
+ * Connection settings of the benchmark database, overridable with {@code -Dbench.db.url=...},
+ * {@code -Dbench.db.user} and {@code -Dbench.db.password}. The default matches the
+ * {@code docker-compose.yml} of this module.
+ */
+public final class BenchmarkDatabase {
+    public static final String URL = System.getProperty("bench.db.url",
+            "jdbc:postgresql://localhost:5433/prog3_bench?reWriteBatchedInserts=true");
+    public static final String USER = System.getProperty("bench.db.user", "postgres");
+    public static final String PASSWORD = System.getProperty("bench.db.password", "postgres");
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * A dedicated pool sized so that contended runs measure the database, not the pool
+     */
+    public static DBConnection open(int maxPoolSize) {
+        PoolConfig config = new PoolConfig(URL, USER, PASSWORD);
+        config.setMaxPoolSize(maxPoolSize);
+        config.setMinIdle(Math.min(2, maxPoolSize));
+        return new DBConnection(new ConnectionPool(config));
+    }
+
+    public static void close(DBConnection dbConnection) {
+        if (dbConnection != null) {
+            dbConnection.getPool().close();
+        }
+    }
+}
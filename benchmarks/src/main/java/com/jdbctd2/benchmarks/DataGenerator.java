@@ -0,0 +1,231 @@
+package com.jdbctd2.benchmarks;
+
+import com.jdbctd2.config.DBConnection;
+import com.jdbctd2.model.Table;
+import com.jdbctd2.repository.DataRetriever;
+import com.jdbctd2.repository.bulk.BulkImporter;
+import com.jdbctd2.repository.bulk.ImportTarget;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Rebuilds the benchmark schema from the project's {@code sql/} scripts and seeds it with a
+ * deterministic set of tables and orders. Orders are laid out in 3-hour slots per table so that
+ * they never overlap, with random offsets and durations inside the slot.
+ * <p>
+ * Seeding is skipped when the database already holds the requested data set, so the forks of
+ * one parameter combination share it. Run standalone with
+ * {@code java -cp target/benchmarks.jar com.jdbctd2.benchmarks.DataGenerator <tables> <orders>}.
+ */
+public final class DataGenerator {
+    public static final LocalDateTime BASE_DATETIME = LocalDateTime.of(2024, 1, 1, 11, 0);
+    public static final int SLOT_HOURS = 3;
+    public static final long DEFAULT_SEED = 42;
+
+    private static final Path SQL_DIR = Paths.get(System.getProperty("bench.sql.dir", "../sql"));
+    // The base "order" table predates the scripts of this project, which only alter it
+    private static final String CREATE_ORDER_TABLE = "create table if not exists \"order\" (" +
+            "id serial primary key, reference varchar(255) not null, " +
+            "creation_datetime timestamp without time zone default current_timestamp)";
+    private static final String[] SCRIPTS = {
+            "restaurant_table_schema.sql",
+            "alter_order_schema.sql",
+            "additional_tables.sql",
+            "availability_indexes.sql",
+            "pagination_indexes.sql",
+            "revenue_rollups.sql"
+    };
+    private static final DateTimeFormatter CSV_DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private DataGenerator() {
+    }
+
+    public static void main(String[] args) {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int orders = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        DBConnection dbConnection = BenchmarkDatabase.open(2);
+        try {
+            Dataset dataset = seed(dbConnection, tables, orders, DEFAULT_SEED);
+            System.out.println("Seeded " + dataset.getTableIds().size() + " tables and " + orders + " orders, up to "
+                    + dataset.getHorizon());
+        } finally {
+            BenchmarkDatabase.close(dbConnection);
+        }
+    }
+
+    public static Dataset seed(DBConnection dbConnection, int tables, int orders, long seed) {
+        try {
+            if (!isSeeded(dbConnection, tables, orders, seed)) {
+                resetSchema(dbConnection);
+                seedTables(dbConnection, tables, seed);
+                seedOrders(dbConnection, tables, orders, seed);
+                markSeeded(dbConnection, tables, orders, seed);
+            }
+            return new Dataset(loadTableIds(dbConnection), BASE_DATETIME, horizon(tables, orders));
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Failed to seed benchmark database: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * First instant after every seeded slot; new bookings made from here on never conflict
+     */
+    public static LocalDateTime horizon(int tables, int orders) {
+        long slots = (orders + tables - 1) / tables;
+        return BASE_DATETIME.plusHours((slots + 1) * SLOT_HOURS);
+    }
+
+    // ============= Helper Methods =============
+
+    private static boolean isSeeded(DBConnection dbConnection, int tables, int orders, long seed) throws SQLException {
+        Connection con = dbConnection.getDBConnection();
+        try (PreparedStatement stmt = con.prepareStatement(
+                "SELECT 1 FROM bench_dataset WHERE tables = ? and orders = ? and seed = ?")) {
+            stmt.setInt(1, tables);
+            stmt.setInt(2, orders);
+            stmt.setLong(3, seed);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            // No marker table: the database has never been seeded
+            return false;
+        } finally {
+            dbConnection.attemptCloseDBConnection(con);
+        }
+    }
+
+    private static void resetSchema(DBConnection dbConnection) throws SQLException, IOException {
+        Connection con = dbConnection.getDBConnection();
+        try (Statement stmt = con.createStatement()) {
+            stmt.execute("DROP SCHEMA public CASCADE");
+            stmt.execute("CREATE SCHEMA public");
+            stmt.execute(CREATE_ORDER_TABLE);
+            for (String script : SCRIPTS) {
+                stmt.execute(Files.readString(SQL_DIR.resolve(script), StandardCharsets.UTF_8));
+            }
+            stmt.execute("create table bench_dataset (tables integer not null, orders integer not null, seed bigint not null)");
+        } finally {
+            dbConnection.attemptCloseDBConnection(con);
+        }
+    }
+
+    private static void seedTables(DBConnection dbConnection, int tables, long seed) {
+        Random random = new Random(seed);
+        int[] capacities = {2, 2, 4, 4, 4, 6, 8};
+        List<Table> rows = new ArrayList<>(tables);
+        for (int number = 1; number <= tables; number++) {
+            rows.add(new Table(null, number, capacities[random.nextInt(capacities.length)]));
+        }
+        new DataRetriever(dbConnection).saveAllTables(rows);
+    }
+
+    private static void seedOrders(DBConnection dbConnection, int tables, int orders, long seed) throws SQLException, IOException {
+        List<Integer> tableIds = loadTableIds(dbConnection);
+        Random random = new Random(seed + 1);
+        Path csv = Files.createTempFile("bench-orders", ".csv");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+                out.write("reference,creation_datetime,id_table,installation_datetime,departure_datetime\n");
+                for (int i = 0; i < orders; i++) {
+                    LocalDateTime slot = BASE_DATETIME.plusHours((long) (i / tables) * SLOT_HOURS);
+                    LocalDateTime installation = slot.plusMinutes(random.nextInt(30));
+                    LocalDateTime departure = installation.plusMinutes(45 + random.nextInt(105));
+                    out.write("BENCH-" + i + "," + CSV_DATETIME.format(installation) + "," + tableIds.get(i % tables) + ","
+                            + CSV_DATETIME.format(installation) + "," + CSV_DATETIME.format(departure) + "\n");
+                }
+            }
+            new BulkImporter(dbConnection).importCsv(ImportTarget.ORDER, csv);
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+
+        Connection con = dbConnection.getDBConnection();
+        try (Statement stmt = con.createStatement()) {
+            stmt.execute("VACUUM ANALYZE");
+        } finally {
+            dbConnection.attemptCloseDBConnection(con);
+        }
+    }
+
+    private static void markSeeded(DBConnection dbConnection, int tables, int orders, long seed) throws SQLException {
+        Connection con = dbConnection.getDBConnection();
+        try (PreparedStatement stmt = con.prepareStatement("INSERT INTO bench_dataset (tables, orders, seed) VALUES (?, ?, ?)")) {
+            stmt.setInt(1, tables);
+            stmt.setInt(2, orders);
+            stmt.setLong(3, seed);
+            stmt.executeUpdate();
+        } finally {
+            dbConnection.attemptCloseDBConnection(con);
+        }
+    }
+
+    private static List<Integer> loadTableIds(DBConnection dbConnection) throws SQLException {
+        Connection con = dbConnection.getDBConnection();
+        try (Statement stmt = con.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM restaurant_table ORDER BY number")) {
+            List<Integer> ids = new ArrayList<>();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+            return ids;
+        } finally {
+            dbConnection.attemptCloseDBConnection(con);
+        }
+    }
+
+    /**
+     * What a benchmark needs to know about the seeded data
+     */
+    public static final class Dataset {
+        private final List<Integer> tableIds;
+        private final LocalDateTime start;
+        private final LocalDateTime horizon;
+
+        Dataset(List<Integer> tableIds, LocalDateTime start, LocalDateTime horizon) {
+            this.tableIds = List.copyOf(tableIds);
+            this.start = start;
+            this.horizon = horizon;
+        }
+
+        public List<Integer> getTableIds() {
+            return tableIds;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public LocalDateTime getHorizon() {
+            return horizon;
+        }
+
+        /**
+         * Instants spread over the seeded period, in a fixed pseudo-random order
+         */
+        public LocalDateTime[] sampleInstants(int count, long seed) {
+            Random random = new Random(seed);
+            long minutes = java.time.Duration.between(start, horizon).toMinutes();
+            LocalDateTime[] instants = new LocalDateTime[count];
+            for (int i = 0; i < count; i++) {
+                instants[i] = start.plusMinutes((long) (random.nextDouble() * minutes));
+            }
+            return instants;
+        }
+    }
+}
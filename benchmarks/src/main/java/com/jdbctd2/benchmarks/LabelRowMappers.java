@@ -0,0 +1,38 @@
+package com.jdbctd2.benchmarks;
+
+import com.jdbctd2.model.Order;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Baseline for {@link RowMapperBenchmark}: mapping by column label on every row, as the
+ * repository did before its row mappers were generated
+ */
+final class LabelRowMappers {
+
+    private LabelRowMappers() {
+    }
+
+    static Order mapOrderFromResultSet(ResultSet rs) throws SQLException {
+        Order order = new Order();
+        order.setId(rs.getInt("id"));
+        order.setReference(rs.getString("reference"));
+        Timestamp creationDatetime = rs.getTimestamp("creation_datetime");
+        if (creationDatetime != null) {
+            order.setCreationDatetime(creationDatetime.toInstant());
+        }
+        int tableId = rs.getInt("id_table");
+        order.setTableId(rs.wasNull() ? null : tableId);
+        Timestamp installationDatetime = rs.getTimestamp("installation_datetime");
+        if (installationDatetime != null) {
+            order.setInstallationDatetime(installationDatetime.toLocalDateTime());
+        }
+        Timestamp departureDatetime = rs.getTimestamp("departure_datetime");
+        if (departureDatetime != null) {
+            order.setDepartureDatetime(departureDatetime.toLocalDateTime());
+        }
+        return order;
+    }
+}
@@ -0,0 +1,110 @@
+package com.jdbctd2.benchmarks;
+
+import com.jdbctd2.config.DBConnection;
+import com.jdbctd2.mapping.RowMapper;
+import com.jdbctd2.model.Order;
+import com.jdbctd2.model.OrderRowMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated {@link OrderRowMapper} against the label-based mapping it replaced. The in-memory
+ * variants replay a {@link CachedRowSet} to isolate the mapping cost; the JDBC variants run the
+ * real query through the driver, which is what callers pay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMapperBenchmark {
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private DBConnection dbConnection;
+    private String sql;
+    private CachedRowSet cachedRows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dbConnection = BenchmarkDatabase.open(1);
+        // Same data set as the smallest availability run, so switching suites does not reseed
+        DataGenerator.seed(dbConnection, 20, 10_000, DataGenerator.DEFAULT_SEED);
+        sql = "SELECT " + OrderRowMapper.COLUMNS + " FROM \"order\" ORDER BY id LIMIT " + rows;
+
+        cachedRows = RowSetProvider.newFactory().createCachedRowSet();
+        try (Connection con = dbConnection.getDBConnection();
+             PreparedStatement stmt = con.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            cachedRows.populate(rs);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        cachedRows.close();
+        BenchmarkDatabase.close(dbConnection);
+    }
+
+    @Benchmark
+    public void generatedInMemory(Blackhole blackhole) throws SQLException {
+        cachedRows.beforeFirst();
+        RowMapper.Bound<Order> mapper = OrderRowMapper.INSTANCE.bind(cachedRows);
+        while (cachedRows.next()) {
+            blackhole.consume(mapper.map(cachedRows));
+        }
+    }
+
+    @Benchmark
+    public void labelsInMemory(Blackhole blackhole) throws SQLException {
+        cachedRows.beforeFirst();
+        while (cachedRows.next()) {
+            blackhole.consume(LabelRowMappers.mapOrderFromResultSet(cachedRows));
+        }
+    }
+
+    @Benchmark
+    public void generatedJdbc(Blackhole blackhole) throws SQLException {
+        try (Connection con = dbConnection.getDBConnection();
+             PreparedStatement stmt = con.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            RowMapper.Bound<Order> mapper = OrderRowMapper.INSTANCE.bind(rs);
+            while (rs.next()) {
+                blackhole.consume(mapper.map(rs));
+            }
+        }
+    }
+
+    @Benchmark
+    public void labelsJdbc(Blackhole blackhole) throws SQLException {
+        try (Connection con = dbConnection.getDBConnection();
+             PreparedStatement stmt = con.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(LabelRowMappers.mapOrderFromResultSet(rs));
+            }
+        }
+    }
+}
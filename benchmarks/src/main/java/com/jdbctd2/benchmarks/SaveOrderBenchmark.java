@@ -0,0 +1,108 @@
+package com.jdbctd2.benchmarks;
+
+import com.jdbctd2.config.DBConnection;
+import com.jdbctd2.model.Order;
+import com.jdbctd2.repository.DataRetriever;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code saveOrder} on free slots (the insert path) and on an already booked slot (the
+ * conflict path, which also lists the free tables), alone and contended. Orders booked during a
+ * trial are deleted in the tear-down so the seeded data set stays reusable.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaveOrderBenchmark {
+    private static final String REFERENCE_PREFIX = "JMH-";
+
+    @Param({"20", "200"})
+    public int tables;
+
+    @Param({"10000", "1000000"})
+    public int orders;
+
+    private DBConnection dbConnection;
+    private DataRetriever dataRetriever;
+    private List<Integer> tableIds;
+    private LocalDateTime horizon;
+    private LocalDateTime bookedSlot;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dbConnection = BenchmarkDatabase.open(TableAvailabilityBenchmark.CONTENDED_THREADS);
+        DataGenerator.Dataset dataset = DataGenerator.seed(dbConnection, tables, orders, DataGenerator.DEFAULT_SEED);
+        dataRetriever = new DataRetriever(dbConnection);
+        tableIds = dataset.getTableIds();
+        horizon = dataset.getHorizon();
+        // Inside the first seeded order of the first table
+        bookedSlot = dataset.getStart().plusMinutes(40);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Connection con = dbConnection.getDBConnection(); Statement stmt = con.createStatement()) {
+            stmt.executeUpdate("DELETE FROM \"order\" WHERE reference LIKE '" + REFERENCE_PREFIX + "%'");
+        } finally {
+            BenchmarkDatabase.close(dbConnection);
+        }
+    }
+
+    @Benchmark
+    public Order saveOrder() {
+        long n = sequence.getAndIncrement();
+        int table = (int) (n % tableIds.size());
+        LocalDateTime installation = horizon.plusHours(n / tableIds.size() * DataGenerator.SLOT_HOURS);
+        Order order = new Order(REFERENCE_PREFIX + n, tableIds.get(table), installation);
+        order.setDepartureDatetime(installation.plusHours(2));
+        return dataRetriever.saveOrder(order);
+    }
+
+    @Benchmark
+    @Threads(TableAvailabilityBenchmark.CONTENDED_THREADS)
+    public Order saveOrderContended() {
+        return saveOrder();
+    }
+
+    @Benchmark
+    public String saveOrderConflict() {
+        Order order = new Order(REFERENCE_PREFIX + "conflict", tableIds.get(0), bookedSlot);
+        try {
+            dataRetriever.saveOrder(order);
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+        throw new IllegalStateException("Slot " + bookedSlot + " was expected to be booked");
+    }
+
+    @Benchmark
+    @Threads(TableAvailabilityBenchmark.CONTENDED_THREADS)
+    public String saveOrderConflictContended() {
+        return saveOrderConflict();
+    }
+}
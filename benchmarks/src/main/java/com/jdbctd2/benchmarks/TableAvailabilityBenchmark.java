@@ -0,0 +1,110 @@
+package com.jdbctd2.benchmarks;
+
+import com.jdbctd2.config.DBConnection;
+import com.jdbctd2.model.Table;
+import com.jdbctd2.repository.DataRetriever;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code isTableAvailableAtDateTime} and {@code findAvailableTablesAtDateTime}, answered by SQL or
+ * by the in-memory occupancy index, alone and with {@value #CONTENDED_THREADS} threads
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TableAvailabilityBenchmark {
+    static final int CONTENDED_THREADS = 8;
+    private static final int SAMPLES = 4096;
+
+    @Param({"20", "200"})
+    public int tables;
+
+    @Param({"10000", "1000000"})
+    public int orders;
+
+    @Param({"false", "true"})
+    public boolean occupancyIndex;
+
+    private DBConnection dbConnection;
+    private DataRetriever dataRetriever;
+    private LocalDateTime[] instants;
+    private Integer[] tableIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dbConnection = BenchmarkDatabase.open(CONTENDED_THREADS);
+        DataGenerator.Dataset dataset = DataGenerator.seed(dbConnection, tables, orders, DataGenerator.DEFAULT_SEED);
+        dataRetriever = new DataRetriever(dbConnection);
+        if (occupancyIndex) {
+            dataRetriever.enableOccupancyIndex(false);
+        }
+        instants = dataset.sampleInstants(SAMPLES, 7);
+        tableIds = dataset.getTableIds().toArray(new Integer[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.close(dbConnection);
+    }
+
+    @Benchmark
+    public boolean isTableAvailable(Cursor cursor) {
+        int i = cursor.next();
+        return dataRetriever.isTableAvailableAtDateTime(tableIds[i % tableIds.length], instants[i]);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public boolean isTableAvailableContended(Cursor cursor) {
+        return isTableAvailable(cursor);
+    }
+
+    @Benchmark
+    public List<Table> findAvailableTables(Cursor cursor) {
+        return dataRetriever.findAvailableTablesAtDateTime(instants[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public List<Table> findAvailableTablesContended(Cursor cursor) {
+        return findAvailableTables(cursor);
+    }
+
+    /**
+     * Walks the samples from a per-thread offset so that threads do not query the same instants in lockstep
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            position = (int) (Thread.currentThread().threadId() * 613 % SAMPLES);
+        }
+
+        int next() {
+            position = (position + 1) % SAMPLES;
+            return position;
+        }
+    }
+}
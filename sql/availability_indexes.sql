@@ -0,0 +1,5 @@
+-- Index couvrant la recherche de conflits par table et par période
+create index if not exists idx_order_table_period on "order"(id_table, installation_datetime, departure_datetime);
+
+-- Tri "plus petite table suffisante d'abord" pour findAvailableTables
+create index if not exists idx_table_capacity_number on restaurant_table(capacity, number);
@@ -0,0 +1,2 @@
+-- Plats rendus indisponibles par le suivi des portions (et non retirés à la main) : eux seuls sont réactivés au réassort
+alter table dish add column if not exists auto_unavailable boolean not null default false;
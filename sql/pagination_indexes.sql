@@ -0,0 +1,5 @@
+-- Index de pagination par clé (keyset) : même ordre que les requêtes, id en dernier pour l'unicité
+create index if not exists idx_customer_name_keyset on customer(last_name, first_name, id);
+create index if not exists idx_staff_active_name_keyset on staff(last_name, first_name, id) where is_active = true;
+create index if not exists idx_dish_name_keyset on dish(name, id);
+create index if not exists idx_payment_date_keyset on payment((coalesce(payment_date, '-infinity'::timestamp)) desc, id desc);
@@ -0,0 +1,50 @@
+-- Agrégats de chiffre d'affaires par heure, moyen de paiement et statut, tenus à jour de façon incrémentale
+alter table payment add column if not exists rolled_up boolean not null default false;
+
+-- Paiements pas encore intégrés aux agrégats (repris par le rattrapage)
+create index if not exists idx_payment_pending_rollup on payment(id) where not rolled_up;
+
+create table if not exists payment_rollup_hourly (
+    bucket_hour timestamp without time zone not null,
+    payment_method varchar(50) not null,
+    status varchar(50) not null,
+    amount_total decimal(18, 2) not null,
+    payment_count bigint not null,
+    primary key (bucket_hour, payment_method, status)
+);
+
+-- Retire des agrégats un paiement déjà intégré quand il est modifié (montant, moyen, statut ou date,
+-- par exemple lors d'un réimport) ou supprimé (y compris en cascade depuis sa commande).
+-- Un paiement modifié repasse en attente et le rattrapage l'intègre avec ses nouvelles valeurs.
+create or replace function payment_rollup_retract() returns trigger as $$
+declare
+    old_bucket timestamp := date_trunc('hour', coalesce(old.payment_date, '-infinity'::timestamp));
+    old_method varchar(50) := coalesce(old.payment_method, 'unknown');
+    old_status varchar(50) := coalesce(old.status, 'unknown');
+begin
+    if tg_op = 'UPDATE' and (new.amount, new.payment_method, new.status, new.payment_date)
+            is not distinct from (old.amount, old.payment_method, old.status, old.payment_date) then
+        return new;
+    end if;
+
+    if old.rolled_up then
+        update payment_rollup_hourly
+        set amount_total = amount_total - coalesce(old.amount, 0), payment_count = payment_count - 1
+        where bucket_hour = old_bucket and payment_method = old_method and status = old_status;
+        delete from payment_rollup_hourly
+        where bucket_hour = old_bucket and payment_method = old_method and status = old_status
+          and payment_count = 0;
+    end if;
+
+    if tg_op = 'DELETE' then
+        return old;
+    end if;
+    new.rolled_up := false;
+    return new;
+end;
+$$ language plpgsql;
+
+drop trigger if exists trg_payment_rollup_retract on payment;
+create trigger trg_payment_rollup_retract
+    before update or delete on payment
+    for each row execute procedure payment_rollup_retract();
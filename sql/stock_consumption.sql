@@ -0,0 +1,2 @@
+-- Lignes de commande dont le stock d'ingrédients a déjà été décompté (rend la consommation idempotente)
+alter table order_item add column if not exists stock_consumed boolean not null default false;
@@ -0,0 +1,359 @@
+package com.jdbctd2.analytics;
+
+import com.jdbctd2.config.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Computes table occupancy per time bucket, average seating duration and turns per service in a
+ * single pass over the orders, read through a server-side cursor sorted by installation time.
+ * <p>
+ * The pass is a sweep line: each table keeps only its current occupied interval (overlapping
+ * orders are merged, so a double booking is not counted twice) and the bucket under the sweep
+ * is closed as soon as an order starts after it. Memory therefore depends on the number of
+ * tables and of concurrently seated orders, not on the length of the history.
+ * <p>
+ * Seat utilization needs the number of guests per order. It is computed when {@code "order"}
+ * has a {@code party_size} column and left {@code null} otherwise.
+ */
+public class OccupancyAnalytics {
+    private static final int FETCH_SIZE = 1000;
+    private static final String PARTY_SIZE_COLUMN = "party_size";
+
+    private final DBConnection dbConnection;
+
+    public OccupancyAnalytics() {
+        this(new DBConnection());
+    }
+
+    public OccupancyAnalytics(DBConnection dbConnection) {
+        this.dbConnection = dbConnection;
+    }
+
+    /**
+     * Analyzes {@code [from, to)} and keeps every bucket in the report
+     */
+    public OccupancyReport analyze(LocalDateTime from, LocalDateTime to, Duration bucketSize, List<ServicePeriod> services) {
+        List<OccupancyBucket> buckets = new ArrayList<>();
+        OccupancyReport report = analyze(from, to, bucketSize, services, buckets::add);
+        return new OccupancyReport(from, to, bucketSize, buckets, report.getTables(), report.isPartySizeAvailable(),
+                report.getOrdersScanned(), report.getOpenOrders());
+    }
+
+    /**
+     * Analyzes {@code [from, to)} and hands each bucket to {@code bucketConsumer} as soon as it is
+     * closed, in time order, without keeping it. The last bucket is shorter when the range is not
+     * a multiple of {@code bucketSize}.
+     */
+    public OccupancyReport analyze(LocalDateTime from, LocalDateTime to, Duration bucketSize, List<ServicePeriod> services,
+                                   Consumer<OccupancyBucket> bucketConsumer) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Range start must be before its end");
+        }
+        if (bucketSize.isZero() || bucketSize.isNegative()) {
+            throw new IllegalArgumentException("Bucket size must be positive");
+        }
+
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            con = dbConnection.getDBConnection();
+            boolean partySizeAvailable = hasPartySizeColumn(con);
+            Sweep sweep = new Sweep(from, to, bucketSize, services, loadTables(con), partySizeAvailable, bucketConsumer);
+
+            String sql = "SELECT id_table, installation_datetime, departure_datetime" +
+                    (partySizeAvailable ? ", " + PARTY_SIZE_COLUMN : "") + " FROM \"order\" " +
+                    "WHERE id_table IS NOT NULL and installation_datetime < ? " +
+                    "and (departure_datetime IS NULL or departure_datetime > ?) " +
+                    "ORDER BY installation_datetime";
+            con.setAutoCommit(false);
+            stmt = con.prepareStatement(sql);
+            stmt.setFetchSize(FETCH_SIZE);
+            stmt.setTimestamp(1, Timestamp.valueOf(to));
+            stmt.setTimestamp(2, Timestamp.valueOf(from));
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                Timestamp departure = rs.getTimestamp("departure_datetime");
+                Integer partySize = null;
+                if (partySizeAvailable) {
+                    int size = rs.getInt(PARTY_SIZE_COLUMN);
+                    partySize = rs.wasNull() ? null : size;
+                }
+                sweep.accept(rs.getInt("id_table"), rs.getTimestamp("installation_datetime").toLocalDateTime(),
+                        departure != null ? departure.toLocalDateTime() : null, partySize);
+            }
+            con.commit();
+
+            return sweep.finish();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to analyze table occupancy: " + e.getMessage(), e);
+        } finally {
+            restoreAutoCommit(con);
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
+        }
+    }
+
+    // ============= Helper Methods =============
+
+    private boolean hasPartySizeColumn(Connection con) throws SQLException {
+        try (ResultSet columns = con.getMetaData().getColumns(null, null, "order", PARTY_SIZE_COLUMN)) {
+            return columns.next();
+        }
+    }
+
+    private List<TableState> loadTables(Connection con) throws SQLException {
+        List<TableState> tables = new ArrayList<>();
+        try (PreparedStatement stmt = con.prepareStatement("SELECT id, number, capacity FROM restaurant_table ORDER BY number");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                tables.add(new TableState(rs.getInt("id"), rs.getInt("number"), rs.getInt("capacity")));
+            }
+        }
+        return tables;
+    }
+
+    private void restoreAutoCommit(Connection con) {
+        try {
+            if (con != null && !con.isClosed()) {
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: AutoCommit restore failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Times are kept as nanoseconds since {@code from}
+     */
+    static class Sweep {
+        private final LocalDateTime from;
+        private final long rangeEnd;
+        private final long bucketNanos;
+        private final List<ServicePeriod> services;
+        private final List<TableState> tables;
+        private final Map<Integer, TableState> tablesById = new HashMap<>();
+        private final boolean partySizeAvailable;
+        private final Consumer<OccupancyBucket> bucketConsumer;
+        // Orders with a party size that may still credit seats to the current or a later bucket
+        private final List<SeatedParty> seatedParties = new ArrayList<>();
+
+        private long bucketStart;
+        private long bucketEnd;
+        private long ordersScanned;
+        private long openOrders;
+
+        Sweep(LocalDateTime from, LocalDateTime to, Duration bucketSize, List<ServicePeriod> services,
+              List<TableState> tables, boolean partySizeAvailable, Consumer<OccupancyBucket> bucketConsumer) {
+            this.from = from;
+            this.rangeEnd = Duration.between(from, to).toNanos();
+            this.bucketNanos = bucketSize.toNanos();
+            this.services = services;
+            this.tables = tables;
+            this.partySizeAvailable = partySizeAvailable;
+            this.bucketConsumer = bucketConsumer;
+            this.bucketEnd = Math.min(bucketNanos, rangeEnd);
+            for (TableState table : tables) {
+                table.turnsByService = new long[services.size()];
+                tablesById.put(table.id, table);
+            }
+        }
+
+        void accept(int tableId, LocalDateTime installation, LocalDateTime departure, Integer partySize) {
+            TableState table = tablesById.get(tableId);
+            if (table == null) {
+                return;
+            }
+            ordersScanned++;
+
+            if (!installation.isBefore(from)) {
+                table.orderCount++;
+                for (int i = 0; i < services.size(); i++) {
+                    if (services.get(i).contains(installation.toLocalTime())) {
+                        table.turnsByService[i]++;
+                        break;
+                    }
+                }
+                if (departure != null) {
+                    table.seatedNanos += Duration.between(installation, departure).toNanos();
+                    table.seatedOrders++;
+                }
+            }
+            if (departure == null) {
+                openOrders++;
+                return;
+            }
+
+            long start = clamp(Duration.between(from, installation).toNanos());
+            long end = clamp(Duration.between(from, departure).toNanos());
+            while (start >= bucketEnd && bucketStart < rangeEnd) {
+                closeBucket();
+            }
+
+            if (table.mergedEnd >= start) {
+                table.mergedEnd = Math.max(table.mergedEnd, end);
+            } else {
+                // The previous interval ended before this order, hence inside the current bucket
+                table.credit(bucketEnd);
+                table.mergedEnd = end;
+                table.creditedUntil = start;
+            }
+            if (partySize != null && end > start) {
+                seatedParties.add(new SeatedParty(table, partySize, start, end));
+            }
+        }
+
+        OccupancyReport finish() {
+            while (bucketStart < rangeEnd) {
+                closeBucket();
+            }
+
+            long[] occurrences = countServiceOccurrences();
+            List<TableTurnover> turnovers = new ArrayList<>();
+            for (TableState table : tables) {
+                Map<String, Double> turnsPerService = new LinkedHashMap<>();
+                for (int i = 0; i < services.size(); i++) {
+                    turnsPerService.put(services.get(i).getName(),
+                            occurrences[i] == 0 ? 0 : (double) table.turnsByService[i] / occurrences[i]);
+                }
+                Duration averageSeating = table.seatedOrders == 0
+                        ? Duration.ZERO : Duration.ofNanos(table.seatedNanos / table.seatedOrders);
+                turnovers.add(new TableTurnover(table.id, table.number, table.capacity, table.orderCount,
+                        averageSeating, ratio(table.occupiedTotal, rangeEnd),
+                        partySizeAvailable ? seatRatio(table.seatNanosTotal, table.capacity, rangeEnd) : null,
+                        turnsPerService));
+            }
+            return new OccupancyReport(from, from.plusNanos(rangeEnd), Duration.ofNanos(bucketNanos), List.of(),
+                    turnovers, partySizeAvailable, ordersScanned, openOrders);
+        }
+
+        private void closeBucket() {
+            long length = bucketEnd - bucketStart;
+
+            Iterator<SeatedParty> parties = seatedParties.iterator();
+            while (parties.hasNext()) {
+                SeatedParty party = parties.next();
+                long creditEnd = Math.min(party.end, bucketEnd);
+                if (creditEnd > party.creditedUntil) {
+                    party.table.seatNanosInBucket += (creditEnd - party.creditedUntil) * party.partySize;
+                    party.creditedUntil = creditEnd;
+                }
+                if (party.end <= bucketEnd) {
+                    parties.remove();
+                }
+            }
+
+            LocalDateTime start = from.plusNanos(bucketStart);
+            LocalDateTime end = from.plusNanos(bucketEnd);
+            for (TableState table : tables) {
+                table.credit(bucketEnd);
+                bucketConsumer.accept(new OccupancyBucket(table.id, table.number, start, end,
+                        ratio(table.occupiedInBucket, length),
+                        partySizeAvailable ? seatRatio(table.seatNanosInBucket, table.capacity, length) : null));
+                table.occupiedTotal += table.occupiedInBucket;
+                table.seatNanosTotal += table.seatNanosInBucket;
+                table.occupiedInBucket = 0;
+                table.seatNanosInBucket = 0;
+            }
+
+            bucketStart = bucketEnd;
+            bucketEnd = Math.min(bucketStart + bucketNanos, rangeEnd);
+        }
+
+        /**
+         * Occurrences of each service overlapping the range
+         */
+        private long[] countServiceOccurrences() {
+            long[] occurrences = new long[services.size()];
+            LocalDateTime to = from.plusNanos(rangeEnd);
+            for (LocalDate day = from.toLocalDate(); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+                for (int i = 0; i < services.size(); i++) {
+                    ServicePeriod service = services.get(i);
+                    if (day.atTime(service.getStart()).isBefore(to) && day.atTime(service.getEnd()).isAfter(from)) {
+                        occurrences[i]++;
+                    }
+                }
+            }
+            return occurrences;
+        }
+
+        private long clamp(long nanos) {
+            return Math.max(0, Math.min(nanos, rangeEnd));
+        }
+
+        private static double ratio(long occupied, long length) {
+            return length == 0 ? 0 : Math.min(1.0, (double) occupied / length);
+        }
+
+        private static double seatRatio(long seatNanos, int capacity, long length) {
+            return length == 0 || capacity == 0 ? 0 : (double) seatNanos / ((double) capacity * length);
+        }
+    }
+
+    static class TableState {
+        private final int id;
+        private final int number;
+        private final int capacity;
+
+        // Current occupied interval; it starts at or before creditedUntil, which is all that matters
+        private long mergedEnd = -1;
+        private long creditedUntil;
+        private long occupiedInBucket;
+        private long seatNanosInBucket;
+        private long occupiedTotal;
+        private long seatNanosTotal;
+
+        private long orderCount;
+        private long seatedOrders;
+        private long seatedNanos;
+        private long[] turnsByService;
+
+        TableState(int id, int number, int capacity) {
+            this.id = id;
+            this.number = number;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Adds the part of the occupied interval not credited yet and ending before {@code until}
+         * to the current bucket
+         */
+        void credit(long until) {
+            long creditEnd = Math.min(mergedEnd, until);
+            if (creditEnd > creditedUntil) {
+                occupiedInBucket += creditEnd - creditedUntil;
+                creditedUntil = creditEnd;
+            }
+        }
+    }
+
+    private static class SeatedParty {
+        private final TableState table;
+        private final int partySize;
+        private final long end;
+        private long creditedUntil;
+
+        SeatedParty(TableState table, int partySize, long start, long end) {
+            this.table = table;
+            this.partySize = partySize;
+            this.creditedUntil = start;
+            this.end = end;
+        }
+    }
+}
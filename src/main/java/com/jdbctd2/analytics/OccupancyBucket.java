@@ -0,0 +1,65 @@
+package com.jdbctd2.analytics;
+
+import java.time.LocalDateTime;
+
+/**
+ * Occupancy of one table during one time bucket
+ */
+public class OccupancyBucket {
+    private final int tableId;
+    private final int tableNumber;
+    private final LocalDateTime bucketStart;
+    private final LocalDateTime bucketEnd;
+    private final double occupancyRatio;
+    private final Double seatUtilization;
+
+    public OccupancyBucket(int tableId, int tableNumber, LocalDateTime bucketStart, LocalDateTime bucketEnd,
+                           double occupancyRatio, Double seatUtilization) {
+        this.tableId = tableId;
+        this.tableNumber = tableNumber;
+        this.bucketStart = bucketStart;
+        this.bucketEnd = bucketEnd;
+        this.occupancyRatio = occupancyRatio;
+        this.seatUtilization = seatUtilization;
+    }
+
+    public int getTableId() {
+        return tableId;
+    }
+
+    public int getTableNumber() {
+        return tableNumber;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public LocalDateTime getBucketEnd() {
+        return bucketEnd;
+    }
+
+    /**
+     * Share of the bucket during which the table was occupied, between 0 and 1
+     */
+    public double getOccupancyRatio() {
+        return occupancyRatio;
+    }
+
+    /**
+     * Seated guests over seats offered during the bucket, or {@code null} when orders carry no party size
+     */
+    public Double getSeatUtilization() {
+        return seatUtilization;
+    }
+
+    @Override
+    public String toString() {
+        return "OccupancyBucket{" +
+                "table=" + tableNumber +
+                ", bucketStart=" + bucketStart +
+                ", occupancy=" + String.format("%.1f%%", occupancyRatio * 100) +
+                (seatUtilization != null ? ", seatUtilization=" + String.format("%.1f%%", seatUtilization * 100) : "") +
+                '}';
+    }
+}
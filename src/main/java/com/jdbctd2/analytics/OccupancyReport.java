@@ -0,0 +1,86 @@
+package com.jdbctd2.analytics;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Result of one {@link OccupancyAnalytics} pass
+ */
+public class OccupancyReport {
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Duration bucketSize;
+    private final List<OccupancyBucket> buckets;
+    private final List<TableTurnover> tables;
+    private final boolean partySizeAvailable;
+    private final long ordersScanned;
+    private final long openOrders;
+
+    public OccupancyReport(LocalDateTime from, LocalDateTime to, Duration bucketSize, List<OccupancyBucket> buckets,
+                           List<TableTurnover> tables, boolean partySizeAvailable, long ordersScanned, long openOrders) {
+        this.from = from;
+        this.to = to;
+        this.bucketSize = bucketSize;
+        this.buckets = buckets;
+        this.tables = tables;
+        this.partySizeAvailable = partySizeAvailable;
+        this.ordersScanned = ordersScanned;
+        this.openOrders = openOrders;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public Duration getBucketSize() {
+        return bucketSize;
+    }
+
+    /**
+     * Every bucket of every table in time order; empty when the buckets were handed to a consumer instead
+     */
+    public List<OccupancyBucket> getBuckets() {
+        return buckets;
+    }
+
+    public List<TableTurnover> getTables() {
+        return tables;
+    }
+
+    /**
+     * Whether orders carry a party size, i.e. whether seat utilization could be computed
+     */
+    public boolean isPartySizeAvailable() {
+        return partySizeAvailable;
+    }
+
+    public long getOrdersScanned() {
+        return ordersScanned;
+    }
+
+    /**
+     * Orders without a departure time: counted as turns but not as occupied time
+     */
+    public long getOpenOrders() {
+        return openOrders;
+    }
+
+    @Override
+    public String toString() {
+        return "OccupancyReport{" +
+                "from=" + from +
+                ", to=" + to +
+                ", bucketSize=" + bucketSize +
+                ", buckets=" + buckets.size() +
+                ", tables=" + tables.size() +
+                ", partySizeAvailable=" + partySizeAvailable +
+                ", ordersScanned=" + ordersScanned +
+                ", openOrders=" + openOrders +
+                '}';
+    }
+}
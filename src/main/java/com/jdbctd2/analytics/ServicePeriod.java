@@ -0,0 +1,43 @@
+package com.jdbctd2.analytics;
+
+import java.time.LocalTime;
+
+/**
+ * A daily service, e.g. lunch from 11:30 to 15:00. An order belongs to the service during which
+ * its table was installed.
+ */
+public class ServicePeriod {
+    private final String name;
+    private final LocalTime start;
+    private final LocalTime end;
+
+    public ServicePeriod(String name, LocalTime start, LocalTime end) {
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Service " + name + " must start before it ends");
+        }
+        this.name = name;
+        this.start = start;
+        this.end = end;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalTime getStart() {
+        return start;
+    }
+
+    public LocalTime getEnd() {
+        return end;
+    }
+
+    public boolean contains(LocalTime time) {
+        return !time.isBefore(start) && time.isBefore(end);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + start + "-" + end + ")";
+    }
+}
@@ -0,0 +1,84 @@
+package com.jdbctd2.analytics;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Whole-range figures for one table
+ */
+public class TableTurnover {
+    private final int tableId;
+    private final int tableNumber;
+    private final int capacity;
+    private final long orderCount;
+    private final Duration averageSeatingDuration;
+    private final double occupancyRatio;
+    private final Double seatUtilization;
+    private final Map<String, Double> turnsPerService;
+
+    public TableTurnover(int tableId, int tableNumber, int capacity, long orderCount, Duration averageSeatingDuration,
+                         double occupancyRatio, Double seatUtilization, Map<String, Double> turnsPerService) {
+        this.tableId = tableId;
+        this.tableNumber = tableNumber;
+        this.capacity = capacity;
+        this.orderCount = orderCount;
+        this.averageSeatingDuration = averageSeatingDuration;
+        this.occupancyRatio = occupancyRatio;
+        this.seatUtilization = seatUtilization;
+        this.turnsPerService = Map.copyOf(turnsPerService);
+    }
+
+    public int getTableId() {
+        return tableId;
+    }
+
+    public int getTableNumber() {
+        return tableNumber;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Orders installed at this table within the range
+     */
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * Over the orders with a departure time; {@link Duration#ZERO} when there are none
+     */
+    public Duration getAverageSeatingDuration() {
+        return averageSeatingDuration;
+    }
+
+    public double getOccupancyRatio() {
+        return occupancyRatio;
+    }
+
+    public Double getSeatUtilization() {
+        return seatUtilization;
+    }
+
+    /**
+     * Average number of orders installed per occurrence of each service, by service name
+     */
+    public Map<String, Double> getTurnsPerService() {
+        return turnsPerService;
+    }
+
+    @Override
+    public String toString() {
+        return "TableTurnover{" +
+                "table=" + tableNumber +
+                ", capacity=" + capacity +
+                ", orders=" + orderCount +
+                ", averageSeatingMinutes=" + averageSeatingDuration.toMinutes() +
+                ", occupancy=" + String.format("%.1f%%", occupancyRatio * 100) +
+                (seatUtilization != null ? ", seatUtilization=" + String.format("%.1f%%", seatUtilization * 100) : "") +
+                ", turnsPerService=" + turnsPerService +
+                '}';
+    }
+}
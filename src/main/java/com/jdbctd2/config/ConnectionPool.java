@@ -0,0 +1,326 @@
+package com.jdbctd2.config;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of PostgreSQL connections.
+ * Idle connections are kept in LIFO order so the warmest one is reused first; a background
+ * housekeeper evicts connections idle past {@code idleTimeout} or older than {@code maxLifetime}
+ * and tops the pool back up to {@code minIdle}.
+ */
+public final class ConnectionPool implements AutoCloseable {
+    private final PoolConfig config;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition slotAvailable = lock.newCondition();
+    private final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+    private final ScheduledExecutorService housekeeper;
+
+    // Guarded by lock; totalConnections includes connections currently being opened
+    private int totalConnections;
+    private int activeConnections;
+    private int waitingThreads;
+    private boolean closed;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowWaitNanos = new LongAdder();
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder closedCount = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    public ConnectionPool(PoolConfig config) {
+        config.validate();
+        this.config = config;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = config.getHousekeepingPeriod().toMillis();
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Borrows a connection, waiting at most {@code connectionTimeout} for one to become free.
+     * Closing the returned connection gives it back to the pool.
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + config.getConnectionTimeout().toNanos();
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean mustCreate = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed");
+                    }
+                    candidate = idleConnections.pollFirst();
+                    if (candidate != null) {
+                        activeConnections++;
+                        break;
+                    }
+                    if (totalConnections < config.getMaxPoolSize()) {
+                        totalConnections++;
+                        activeConnections++;
+                        mustCreate = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount.increment();
+                        throw new SQLTimeoutException("Timed out after " + config.getConnectionTimeout().toMillis()
+                                + " ms waiting for a connection (active: " + activeConnections + ")");
+                    }
+                    waitingThreads++;
+                    try {
+                        slotAvailable.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a connection", e);
+                    } finally {
+                        waitingThreads--;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (mustCreate) {
+                try {
+                    candidate = new PooledConnection(this, openPhysicalConnection());
+                } catch (SQLException e) {
+                    discardSlot(true);
+                    throw e;
+                }
+            } else if (!isUsable(candidate)) {
+                candidate.closePhysical();
+                closedCount.increment();
+                discardSlot(true);
+                continue;
+            }
+
+            recordBorrow(System.nanoTime() - start);
+            return candidate.borrow();
+        }
+    }
+
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            return new PoolStats(totalConnections, activeConnections, idleConnections.size(), waitingThreads,
+                    borrowCount.sum(), borrowWaitNanos.sum(), maxBorrowWaitNanos.get(),
+                    timeoutCount.sum(), createdCount.sum(), closedCount.sum(),
+                    statementCacheHits.sum(), statementCacheMisses.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void recordStatementCacheHit() {
+        statementCacheHits.increment();
+    }
+
+    void recordStatementCacheMiss() {
+        statementCacheMisses.increment();
+    }
+
+    /**
+     * Called by the logical connection proxy on {@code close()}.
+     */
+    void release(PooledConnection pooled, boolean broken) {
+        boolean keep = !broken && !isExpired(pooled) && resetState(pooled.getPhysical());
+
+        if (keep) {
+            pooled.markReturned();
+            lock.lock();
+            try {
+                if (!closed) {
+                    activeConnections--;
+                    idleConnections.offerFirst(pooled);
+                    slotAvailable.signal();
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        pooled.closePhysical();
+        closedCount.increment();
+        discardSlot(true);
+    }
+
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idleConnections);
+            totalConnections -= idleConnections.size();
+            idleConnections.clear();
+            slotAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        for (PooledConnection pooled : toClose) {
+            pooled.closePhysical();
+            closedCount.increment();
+        }
+    }
+
+    // ============= Helper Methods =============
+
+    private Connection openPhysicalConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
+        createdCount.increment();
+        return connection;
+    }
+
+    private void discardSlot(boolean wasActive) {
+        lock.lock();
+        try {
+            totalConnections--;
+            if (wasActive) {
+                activeConnections--;
+            }
+            slotAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled) {
+        return System.nanoTime() - pooled.getCreatedAtNanos() > config.getMaxLifetime().toNanos();
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (isExpired(pooled)) {
+            return false;
+        }
+        if (System.nanoTime() - pooled.getLastReturnedNanos() < config.getValidationBypassWindow().toNanos()) {
+            return true;
+        }
+        try {
+            return pooled.getPhysical().isValid((int) Math.max(1, config.getValidationTimeout().toSeconds()));
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean resetState(Connection physical) {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (physical.isReadOnly()) {
+                physical.setReadOnly(false);
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not reset pooled connection: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void recordBorrow(long waitNanos) {
+        borrowCount.increment();
+        borrowWaitNanos.add(waitNanos);
+        maxBorrowWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private void housekeep() {
+        List<PooledConnection> evicted = new ArrayList<>();
+        int missing;
+
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            long now = System.nanoTime();
+            long idleTimeout = config.getIdleTimeout().toNanos();
+            // Oldest returned connections sit at the tail of the deque
+            Iterator<PooledConnection> iterator = idleConnections.descendingIterator();
+            while (iterator.hasNext()) {
+                PooledConnection pooled = iterator.next();
+                boolean idleTooLong = now - pooled.getLastReturnedNanos() > idleTimeout
+                        && totalConnections > config.getMinIdle();
+                if (idleTooLong || isExpired(pooled)) {
+                    iterator.remove();
+                    totalConnections--;
+                    evicted.add(pooled);
+                }
+            }
+            missing = Math.max(0, config.getMinIdle() - idleConnections.size() - activeConnections);
+            missing = Math.min(missing, config.getMaxPoolSize() - totalConnections);
+            totalConnections += missing;
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection pooled : evicted) {
+            pooled.closePhysical();
+            closedCount.increment();
+        }
+
+        for (int i = 0; i < missing; i++) {
+            try {
+                PooledConnection pooled = new PooledConnection(this, openPhysicalConnection());
+                lock.lock();
+                try {
+                    if (closed) {
+                        totalConnections--;
+                        pooled.closePhysical();
+                        closedCount.increment();
+                    } else {
+                        idleConnections.offerLast(pooled);
+                        slotAvailable.signal();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException e) {
+                System.err.println("Warning: Could not open idle connection: " + e.getMessage());
+                for (int j = i; j < missing; j++) {
+                    discardSlot(false);
+                }
+                return;
+            }
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package com.jdbctd2.config;
 
+import com.jdbctd2.tracing.SqlTracer;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 public class DBConnection {
-    private static final String DB_URL = "jdbc:postgresql://localhost:5432/prog3_exam";
+    private static final String DB_URL = "jdbc:postgresql://localhost:5432/prog3_exam?reWriteBatchedInserts=true";
     private static final String DB_USER = "postgres";
     private static final String DB_PASSWORD = "postgres";
 
+    private static ConnectionPool defaultPool;
+
+    private final ConnectionPool pool;
+    private volatile SqlTracer tracer;
+
     static {
         try {
             Class.forName("org.postgresql.Driver");
@@ -19,8 +25,54 @@ public class DBConnection {
         }
     }
 
+    public DBConnection() {
+        this.pool = getDefaultPool();
+    }
+
+    public DBConnection(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Shared pool used by every {@code new DBConnection()}, created on first use.
+     */
+    public static synchronized ConnectionPool getDefaultPool() {
+        if (defaultPool == null) {
+            defaultPool = new ConnectionPool(new PoolConfig(DB_URL, DB_USER, DB_PASSWORD));
+        }
+        return defaultPool;
+    }
+
+    /**
+     * Borrows a pooled connection. Closing it (directly or through
+     * {@code attemptCloseDBConnection}) returns it to the pool.
+     */
     public Connection getDBConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        Connection connection = pool.getConnection();
+        SqlTracer current = tracer;
+        if (current != null && current.isEnabled()) {
+            return current.trace(connection);
+        }
+        return connection;
+    }
+
+    public SqlTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Traces the statements run on connections borrowed from now on, or stops tracing when null
+     */
+    public void setTracer(SqlTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    public PoolStats getPoolStats() {
+        return pool.getStats();
     }
 
     public void attemptCloseDBConnection(ResultSet rs, Statement stmt, Connection con) {
@@ -53,6 +105,10 @@ public class DBConnection {
         attemptCloseDBConnection(null, stmt, con);
     }
 
+    public void attemptCloseDBConnection(Connection con) {
+        attemptCloseDBConnection(null, null, con);
+    }
+
     public void attemptCloseDBConnection(Statement stmt) {
         try {
             if (stmt != null && !stmt.isClosed()) {
@@ -0,0 +1,177 @@
+package com.jdbctd2.config;
+
+import java.time.Duration;
+
+/**
+ * Settings of a {@link ConnectionPool}. Defaults are tuned for a single restaurant
+ * service talking to a local PostgreSQL instance.
+ */
+public class PoolConfig {
+    private String url;
+    private String user;
+    private String password;
+    private int minIdle = 2;
+    private int maxPoolSize = 10;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private Duration maxLifetime = Duration.ofMinutes(30);
+    private Duration connectionTimeout = Duration.ofSeconds(30);
+    private Duration validationTimeout = Duration.ofSeconds(5);
+    private Duration validationBypassWindow = Duration.ofMillis(500);
+    private Duration housekeepingPeriod = Duration.ofSeconds(30);
+    private int statementCacheSize = 64;
+    private int prepareThreshold = 1;
+
+    public PoolConfig() {
+    }
+
+    public PoolConfig(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public void setUser(String user) {
+        this.user = user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Duration getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    public void setMaxLifetime(Duration maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    public Duration getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public void setConnectionTimeout(Duration connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public Duration getValidationTimeout() {
+        return validationTimeout;
+    }
+
+    public void setValidationTimeout(Duration validationTimeout) {
+        this.validationTimeout = validationTimeout;
+    }
+
+    /**
+     * Connections returned to the pool more recently than this window are handed out
+     * again without the {@code isValid} round trip.
+     */
+    public Duration getValidationBypassWindow() {
+        return validationBypassWindow;
+    }
+
+    public void setValidationBypassWindow(Duration validationBypassWindow) {
+        this.validationBypassWindow = validationBypassWindow;
+    }
+
+    public Duration getHousekeepingPeriod() {
+        return housekeepingPeriod;
+    }
+
+    public void setHousekeepingPeriod(Duration housekeepingPeriod) {
+        this.housekeepingPeriod = housekeepingPeriod;
+    }
+
+    /**
+     * Prepared statements cached per physical connection; 0 disables the cache
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Executions after which a cached statement switches to a named server-side prepared
+     * statement (pgjdbc {@code prepareThreshold}); 0 keeps the driver default
+     */
+    public int getPrepareThreshold() {
+        return prepareThreshold;
+    }
+
+    public void setPrepareThreshold(int prepareThreshold) {
+        this.prepareThreshold = prepareThreshold;
+    }
+
+    void validate() {
+        if (url == null) {
+            throw new IllegalArgumentException("Pool URL cannot be null");
+        }
+        if (maxPoolSize < 1) {
+            throw new IllegalArgumentException("Max pool size must be at least 1");
+        }
+        if (minIdle < 0 || minIdle > maxPoolSize) {
+            throw new IllegalArgumentException("Min idle must be between 0 and max pool size");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PoolConfig{" +
+                "url='" + url + '\'' +
+                ", user='" + user + '\'' +
+                ", minIdle=" + minIdle +
+                ", maxPoolSize=" + maxPoolSize +
+                ", idleTimeout=" + idleTimeout +
+                ", maxLifetime=" + maxLifetime +
+                ", connectionTimeout=" + connectionTimeout +
+                ", validationTimeout=" + validationTimeout +
+                ", statementCacheSize=" + statementCacheSize +
+                '}';
+    }
+}
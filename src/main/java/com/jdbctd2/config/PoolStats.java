@@ -0,0 +1,115 @@
+package com.jdbctd2.config;
+
+/**
+ * Point-in-time snapshot of a {@link ConnectionPool}.
+ */
+public class PoolStats {
+    private final int totalConnections;
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int waitingThreads;
+    private final long borrowCount;
+    private final long borrowWaitNanos;
+    private final long maxBorrowWaitNanos;
+    private final long timeoutCount;
+    private final long createdCount;
+    private final long closedCount;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+
+    public PoolStats(int totalConnections, int activeConnections, int idleConnections, int waitingThreads,
+                     long borrowCount, long borrowWaitNanos, long maxBorrowWaitNanos,
+                     long timeoutCount, long createdCount, long closedCount,
+                     long statementCacheHits, long statementCacheMisses) {
+        this.totalConnections = totalConnections;
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.waitingThreads = waitingThreads;
+        this.borrowCount = borrowCount;
+        this.borrowWaitNanos = borrowWaitNanos;
+        this.maxBorrowWaitNanos = maxBorrowWaitNanos;
+        this.timeoutCount = timeoutCount;
+        this.createdCount = createdCount;
+        this.closedCount = closedCount;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getWaitingThreads() {
+        return waitingThreads;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    /**
+     * Total time callers spent inside {@code getConnection}, including validation and creation.
+     */
+    public long getBorrowWaitNanos() {
+        return borrowWaitNanos;
+    }
+
+    public long getAverageBorrowWaitNanos() {
+        return borrowCount == 0 ? 0 : borrowWaitNanos / borrowCount;
+    }
+
+    public long getMaxBorrowWaitNanos() {
+        return maxBorrowWaitNanos;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getClosedCount() {
+        return closedCount;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    public double getStatementCacheHitRatio() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "total=" + totalConnections +
+                ", active=" + activeConnections +
+                ", idle=" + idleConnections +
+                ", waiting=" + waitingThreads +
+                ", borrows=" + borrowCount +
+                ", avgBorrowWaitNanos=" + getAverageBorrowWaitNanos() +
+                ", maxBorrowWaitNanos=" + maxBorrowWaitNanos +
+                ", timeouts=" + timeoutCount +
+                ", created=" + createdCount +
+                ", closed=" + closedCount +
+                ", statementCacheHits=" + statementCacheHits +
+                ", statementCacheMisses=" + statementCacheMisses +
+                '}';
+    }
+}
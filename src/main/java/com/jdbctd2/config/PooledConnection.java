@@ -0,0 +1,248 @@
+package com.jdbctd2.config;
+
+import org.postgresql.PGStatement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * A physical connection owned by a {@link ConnectionPool}. Every borrow hands out a fresh
+ * logical proxy whose {@code close()} returns the physical connection to the pool, so a
+ * stale reference kept by a caller cannot reach a connection lent to somebody else.
+ * <p>
+ * When the pool has a statement cache, {@code prepareStatement} is served from the
+ * {@link StatementCache} of the physical connection and closing the statement puts it back.
+ */
+class PooledConnection {
+    private final ConnectionPool pool;
+    private final Connection physical;
+    private final StatementCache statementCache;
+    private final long createdAtNanos;
+    private volatile long lastReturnedNanos;
+
+    PooledConnection(ConnectionPool pool, Connection physical) {
+        this.pool = pool;
+        this.physical = physical;
+        int cacheSize = pool.getConfig().getStatementCacheSize();
+        this.statementCache = cacheSize > 0 ? new StatementCache(cacheSize) : null;
+        this.createdAtNanos = System.nanoTime();
+        this.lastReturnedNanos = createdAtNanos;
+    }
+
+    Connection getPhysical() {
+        return physical;
+    }
+
+    long getCreatedAtNanos() {
+        return createdAtNanos;
+    }
+
+    long getLastReturnedNanos() {
+        return lastReturnedNanos;
+    }
+
+    void markReturned() {
+        lastReturnedNanos = System.nanoTime();
+    }
+
+    Connection borrow() {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new LogicalConnectionHandler());
+    }
+
+    void closePhysical() {
+        if (statementCache != null) {
+            statementCache.closeAll();
+        }
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled Connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cache key of a {@code prepareStatement} call, or null when that overload is not cached
+     */
+    private static String statementKey(Method method, Object[] args) {
+        if (!method.getName().equals("prepareStatement")) {
+            return null;
+        }
+        if (args.length == 1) {
+            return (String) args[0];
+        }
+        if (args.length == 2 && args[1] instanceof Integer autoGeneratedKeys) {
+            return "keys=" + autoGeneratedKeys + ";" + args[0];
+        }
+        if (args.length == 2 && args[1] instanceof String[] columnNames) {
+            return "columns=" + Arrays.toString(columnNames) + ";" + args[0];
+        }
+        return null;
+    }
+
+    private static boolean isFatal(Throwable throwable) {
+        if (!(throwable instanceof SQLException e)) {
+            return false;
+        }
+        String sqlState = e.getSQLState();
+        // Class 08 is "connection exception", 57P01..03 are server shutdown/crash states
+        return sqlState != null && (sqlState.startsWith("08") || sqlState.startsWith("57P"));
+    }
+
+    private class LogicalConnectionHandler implements InvocationHandler {
+        // Volatile: a statement may be closed from another thread than its connection
+        private volatile boolean closed;
+        private volatile boolean broken;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (markClosed()) {
+                        pool.release(PooledConnection.this, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    // Only the logical state: a handle whose socket died must still be closed
+                    // by its caller so that the pool gets its slot back
+                    if (!closed && physical.isClosed()) {
+                        broken = true;
+                    }
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+
+            String key = statementCache != null ? statementKey(method, args) : null;
+            if (key != null) {
+                return prepareCached((Connection) proxy, key, method, args);
+            }
+            return delegate(physical, method, args);
+        }
+
+        /**
+         * Serialized with statements giving themselves back, so none reaches the cache after release
+         */
+        private synchronized boolean markClosed() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            return true;
+        }
+
+        private synchronized void returnStatement(String key, PreparedStatement statement) throws SQLException {
+            // Once the connection went back to the pool its cache belongs to the next borrower
+            if (closed || broken) {
+                statement.close();
+            } else {
+                statementCache.giveBack(key, statement);
+            }
+        }
+
+        private PreparedStatement prepareCached(Connection logical, String key, Method method, Object[] args)
+                throws Throwable {
+            PreparedStatement statement;
+            synchronized (this) {
+                statement = statementCache.take(key);
+            }
+            if (statement != null) {
+                pool.recordStatementCacheHit();
+            } else {
+                pool.recordStatementCacheMiss();
+                statement = (PreparedStatement) delegate(physical, method, args);
+                int prepareThreshold = pool.getConfig().getPrepareThreshold();
+                if (prepareThreshold > 0 && statement.isWrapperFor(PGStatement.class)) {
+                    statement.unwrap(PGStatement.class).setPrepareThreshold(prepareThreshold);
+                }
+            }
+
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new CachedStatementHandler(logical, key, statement));
+        }
+
+        private Object delegate(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (isFatal(cause)) {
+                    broken = true;
+                }
+                throw cause;
+            }
+        }
+
+        private class CachedStatementHandler implements InvocationHandler {
+            private final Connection logical;
+            private final String key;
+            private final PreparedStatement statement;
+            private boolean statementClosed;
+
+            CachedStatementHandler(Connection logical, String key, PreparedStatement statement) {
+                this.logical = logical;
+                this.key = key;
+                this.statement = statement;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!statementClosed) {
+                            statementClosed = true;
+                            returnStatement(key, statement);
+                        }
+                        return null;
+                    case "isClosed":
+                        return statementClosed;
+                    case "getConnection":
+                        return logical;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "CachedStatement[" + statement + "]";
+                    default:
+                        break;
+                }
+
+                if (statementClosed) {
+                    throw new SQLException("Statement is closed");
+                }
+                return delegate(statement, method, args);
+            }
+        }
+    }
+}
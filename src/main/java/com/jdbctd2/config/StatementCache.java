@@ -0,0 +1,78 @@
+package com.jdbctd2.config;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of idle prepared statements of one physical connection, keyed by SQL text.
+ * A statement is taken out of the cache while in use and put back when the caller closes it,
+ * so two callers preparing the same SQL on one connection never share a statement.
+ * Not synchronized: the logical connection serializes access to it, and a statement closed
+ * after its connection was released never reaches it.
+ */
+class StatementCache {
+    private final int capacity;
+    private final LinkedHashMap<String, PreparedStatement> idleStatements;
+
+    StatementCache(int capacity) {
+        this.capacity = capacity;
+        this.idleStatements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > StatementCache.this.capacity) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    PreparedStatement take(String key) {
+        return idleStatements.remove(key);
+    }
+
+    /**
+     * Gives a statement back once its caller closed it. The statement is reset to its prepared
+     * state and closed instead if that fails. When the key is already cached, the returned
+     * statement takes its place and the one cached before is closed.
+     */
+    void giveBack(String key, PreparedStatement statement) {
+        try {
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.setFetchSize(0);
+            statement.setMaxRows(0);
+            statement.setQueryTimeout(0);
+        } catch (SQLException e) {
+            closeQuietly(statement);
+            return;
+        }
+
+        PreparedStatement previous = idleStatements.put(key, statement);
+        if (previous != null && previous != statement) {
+            closeQuietly(previous);
+        }
+    }
+
+    int size() {
+        return idleStatements.size();
+    }
+
+    void closeAll() {
+        for (PreparedStatement statement : idleStatements.values()) {
+            closeQuietly(statement);
+        }
+        idleStatements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached Statement: " + e.getMessage());
+        }
+    }
+}
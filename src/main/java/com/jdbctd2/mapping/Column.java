@@ -0,0 +1,22 @@
+package com.jdbctd2.mapping;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a field of a {@link MappedTable} class to a column. The field is set through its
+ * JavaBean setter.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Column {
+    String value();
+
+    /**
+     * Whether a SQL NULL must come back as null for boxed numeric and boolean fields.
+     * Otherwise the primitive getter is used directly and NULL reads as 0 / false.
+     */
+    boolean nullable() default false;
+}
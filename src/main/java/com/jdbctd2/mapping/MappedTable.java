@@ -0,0 +1,19 @@
+package com.jdbctd2.mapping;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a model class mapped to a table. At compile time the {@code RowMapperProcessor}
+ * generates a {@code <Class>RowMapper} next to it from its {@link Column} fields.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface MappedTable {
+    /**
+     * Table name as written in SQL, quoted when needed
+     */
+    String value();
+}
@@ -0,0 +1,28 @@
+package com.jdbctd2.mapping;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rows of a table to model objects. Implementations are generated from
+ * {@link MappedTable} classes.
+ */
+public interface RowMapper<T> {
+    String table();
+
+    /**
+     * Explicit select list covering every mapped column
+     */
+    String columns();
+
+    /**
+     * Resolves the column indexes of the result set once; the returned mapper is then
+     * applied to each row.
+     */
+    Bound<T> bind(ResultSet rs) throws SQLException;
+
+    @FunctionalInterface
+    interface Bound<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,158 @@
+package com.jdbctd2.mapping.processor;
+
+import com.jdbctd2.mapping.Column;
+import com.jdbctd2.mapping.MappedTable;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Generates a {@code RowMapper} for every {@link MappedTable} class.
+ * <p>
+ * The generated mapper selects an explicit column list, looks each column index up once per
+ * result set, and reads non-nullable numeric columns with the primitive getters so no
+ * {@code wasNull} check is made per row.
+ */
+@SupportedAnnotationTypes({"com.jdbctd2.mapping.MappedTable", "com.jdbctd2.mapping.Column"})
+public class RowMapperProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(MappedTable.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@MappedTable only applies to classes");
+                continue;
+            }
+            try {
+                generate((TypeElement) element);
+            } catch (IOException e) {
+                error(element, "Could not write row mapper: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement model) throws IOException {
+        String packageName = ((PackageElement) model.getEnclosingElement()).getQualifiedName().toString();
+        String modelName = model.getSimpleName().toString();
+        String mapperName = modelName + "RowMapper";
+        String tableName = model.getAnnotation(MappedTable.class).value();
+
+        List<VariableElement> fields = new ArrayList<>();
+        for (Element enclosed : model.getEnclosedElements()) {
+            if (enclosed.getKind() == ElementKind.FIELD && enclosed.getAnnotation(Column.class) != null) {
+                fields.add((VariableElement) enclosed);
+            }
+        }
+
+        StringJoiner columns = new StringJoiner(", ");
+        StringBuilder indexes = new StringBuilder();
+        StringBuilder assignments = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            VariableElement field = fields.get(i);
+            Column column = field.getAnnotation(Column.class);
+            columns.add(column.value());
+            indexes.append("        final int c").append(i).append(" = rs.findColumn(\"")
+                    .append(column.value()).append("\");\n");
+
+            String assignment = assignment(field, column, "c" + i);
+            if (assignment == null) {
+                error(field, "Unsupported column type " + field.asType());
+                return;
+            }
+            assignments.append(assignment);
+        }
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(packageName + "." + mapperName, model);
+        try (Writer out = file.openWriter()) {
+            out.write("package " + packageName + ";\n\n");
+            out.write("import com.jdbctd2.mapping.RowMapper;\n\n");
+            out.write("import java.sql.ResultSet;\n");
+            out.write("import java.sql.SQLException;\n\n");
+            out.write("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")\n");
+            out.write("public final class " + mapperName + " implements RowMapper<" + modelName + "> {\n");
+            out.write("    public static final String TABLE = \"" + tableName.replace("\"", "\\\"") + "\";\n");
+            out.write("    public static final String COLUMNS = \"" + columns + "\";\n");
+            out.write("    public static final " + mapperName + " INSTANCE = new " + mapperName + "();\n\n");
+            out.write("    private " + mapperName + "() {\n    }\n\n");
+            out.write("    @Override\n    public String table() {\n        return TABLE;\n    }\n\n");
+            out.write("    @Override\n    public String columns() {\n        return COLUMNS;\n    }\n\n");
+            out.write("    @Override\n");
+            out.write("    public RowMapper.Bound<" + modelName + "> bind(ResultSet rs) throws SQLException {\n");
+            out.write(indexes.toString());
+            out.write("        return row -> {\n");
+            out.write("            " + modelName + " value = new " + modelName + "();\n");
+            out.write(assignments.toString());
+            out.write("            return value;\n");
+            out.write("        };\n");
+            out.write("    }\n");
+            out.write("}\n");
+        }
+    }
+
+    private String assignment(VariableElement field, Column column, String index) {
+        String name = field.getSimpleName().toString();
+        String setter = "value.set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        String local = name + "Value";
+
+        switch (field.asType().toString()) {
+            case "java.lang.String":
+                return "            " + setter + "(row.getString(" + index + "));\n";
+            case "java.math.BigDecimal":
+                return "            " + setter + "(row.getBigDecimal(" + index + "));\n";
+            case "java.lang.Integer":
+                return primitive(setter, local, "int", "getInt", index, column.nullable());
+            case "java.lang.Long":
+                return primitive(setter, local, "long", "getLong", index, column.nullable());
+            case "java.lang.Boolean":
+                return primitive(setter, local, "boolean", "getBoolean", index, column.nullable());
+            case "java.time.Instant":
+                return temporal(setter, local, "java.sql.Timestamp", "getTimestamp", index, "toInstant");
+            case "java.time.LocalDateTime":
+                return temporal(setter, local, "java.sql.Timestamp", "getTimestamp", index, "toLocalDateTime");
+            case "java.time.LocalDate":
+                return temporal(setter, local, "java.sql.Date", "getDate", index, "toLocalDate");
+            default:
+                return null;
+        }
+    }
+
+    private String primitive(String setter, String local, String type, String getter, String index, boolean nullable) {
+        if (!nullable) {
+            return "            " + setter + "(row." + getter + "(" + index + "));\n";
+        }
+        return "            " + type + " " + local + " = row." + getter + "(" + index + ");\n"
+                + "            " + setter + "(row.wasNull() ? null : " + local + ");\n";
+    }
+
+    private String temporal(String setter, String local, String type, String getter, String index, String conversion) {
+        return "            " + type + " " + local + " = row." + getter + "(" + index + ");\n"
+                + "            if (" + local + " != null) {\n"
+                + "                " + setter + "(" + local + "." + conversion + "());\n"
+                + "            }\n";
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,157 @@
+package com.jdbctd2.metrics;
+
+import com.jdbctd2.config.DBConnection;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-operation metrics of one {@code DataRetriever}. Connections borrowed through
+ * {@link #borrow(DBConnection, String)} are instrumented for the named operation.
+ * <p>
+ * The registry is published as {@code com.jdbctd2:type=DataRetriever,name=<name>} and each
+ * operation, once it first runs, as {@code com.jdbctd2:type=DataRetriever,name=<name>,operation=<operation>}.
+ * {@link #close()} unregisters them all.
+ */
+public final class DataRetrieverMetrics implements DataRetrieverMetricsMXBean, AutoCloseable {
+    private static final String DOMAIN = "com.jdbctd2";
+
+    private final String name;
+    private final MBeanServer mBeanServer;
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final Set<ObjectName> registered = ConcurrentHashMap.newKeySet();
+
+    public DataRetrieverMetrics(String name) {
+        this(name, ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * @param mBeanServer where to publish the MBeans, or null to keep the metrics in-process only
+     */
+    public DataRetrieverMetrics(String name, MBeanServer mBeanServer) {
+        this.name = name;
+        this.mBeanServer = mBeanServer;
+        register(objectName(null), this);
+    }
+
+    /**
+     * Borrows a connection from {@code dbConnection} and records it against {@code operation}
+     */
+    public Connection borrow(DBConnection dbConnection, String operation) throws SQLException {
+        OperationMetrics metrics = getOperation(operation);
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = dbConnection.getDBConnection();
+        } catch (SQLException e) {
+            metrics.recordBorrow(System.nanoTime() - start);
+            metrics.recordError(e);
+            throw e;
+        }
+        metrics.recordBorrow(System.nanoTime() - start);
+        return InstrumentedJdbc.wrap(connection, metrics, start);
+    }
+
+    public OperationMetrics getOperation(String operation) {
+        OperationMetrics metrics = operations.get(operation);
+        if (metrics != null) {
+            return metrics;
+        }
+        OperationMetrics created = new OperationMetrics(operation);
+        metrics = operations.putIfAbsent(operation, created);
+        if (metrics != null) {
+            return metrics;
+        }
+        register(objectName(operation), created);
+        return created;
+    }
+
+    public Map<String, OperationSnapshot> snapshot() {
+        Map<String, OperationSnapshot> snapshots = new TreeMap<>();
+        for (OperationMetrics metrics : operations.values()) {
+            snapshots.put(metrics.getOperation(), metrics.snapshot());
+        }
+        return snapshots;
+    }
+
+    public Map<String, OperationSnapshot> snapshotAndReset() {
+        Map<String, OperationSnapshot> snapshots = new TreeMap<>();
+        for (OperationMetrics metrics : operations.values()) {
+            snapshots.put(metrics.getOperation(), metrics.snapshotAndReset());
+        }
+        return snapshots;
+    }
+
+    // ============= MXBean Methods =============
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String[] getOperationNames() {
+        return operations.keySet().stream().sorted().toArray(String[]::new);
+    }
+
+    @Override
+    public void resetAll() {
+        for (OperationMetrics metrics : operations.values()) {
+            metrics.reset();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ObjectName objectName : registered) {
+            unregister(objectName);
+        }
+    }
+
+    // ============= JMX Helpers =============
+
+    private ObjectName objectName(String operation) {
+        try {
+            String objectName = DOMAIN + ":type=DataRetriever,name=" + quoteIfNeeded(name);
+            if (operation != null) {
+                objectName += ",operation=" + quoteIfNeeded(operation);
+            }
+            return new ObjectName(objectName);
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Invalid metrics name: " + e.getMessage(), e);
+        }
+    }
+
+    private String quoteIfNeeded(String value) {
+        return value.matches("[\\w.-]+") ? value : ObjectName.quote(value);
+    }
+
+    private void register(ObjectName objectName, Object mBean) {
+        if (mBeanServer == null) {
+            return;
+        }
+        try {
+            mBeanServer.registerMBean(mBean, objectName);
+            registered.add(objectName);
+        } catch (JMException e) {
+            System.err.println("Warning: Could not register MBean " + objectName + ": " + e.getMessage());
+        }
+    }
+
+    private void unregister(ObjectName objectName) {
+        try {
+            mBeanServer.unregisterMBean(objectName);
+            registered.remove(objectName);
+        } catch (JMException e) {
+            System.err.println("Warning: Could not unregister MBean " + objectName + ": " + e.getMessage());
+        }
+    }
+}
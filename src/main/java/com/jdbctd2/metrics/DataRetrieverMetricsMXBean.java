@@ -0,0 +1,12 @@
+package com.jdbctd2.metrics;
+
+/**
+ * JMX view of a {@link DataRetrieverMetrics}
+ */
+public interface DataRetrieverMetricsMXBean {
+    String getName();
+
+    String[] getOperationNames();
+
+    void resetAll();
+}
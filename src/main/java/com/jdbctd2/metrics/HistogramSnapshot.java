@@ -0,0 +1,80 @@
+package com.jdbctd2.metrics;
+
+/**
+ * Point-in-time copy of a {@link LatencyHistogram}. Percentiles are the upper bound of the
+ * bucket holding the requested rank, capped at the recorded maximum.
+ */
+public class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sumNanos;
+    private final long maxNanos;
+
+    HistogramSnapshot(long[] counts, long count, long sumNanos, long maxNanos) {
+        this.counts = counts;
+        this.count = count;
+        this.sumNanos = sumNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSumNanos() {
+        return sumNanos;
+    }
+
+    public double getMeanNanos() {
+        return count == 0 ? 0 : (double) sumNanos / count;
+    }
+
+    public long getP50Nanos() {
+        return getValueAtPercentile(50);
+    }
+
+    public long getP99Nanos() {
+        return getValueAtPercentile(99);
+    }
+
+    public long getP999Nanos() {
+        return getValueAtPercentile(99.9);
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.upperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{" +
+                "count=" + count +
+                ", meanNanos=" + Math.round(getMeanNanos()) +
+                ", p50Nanos=" + getP50Nanos() +
+                ", p99Nanos=" + getP99Nanos() +
+                ", p999Nanos=" + getP999Nanos() +
+                ", maxNanos=" + maxNanos +
+                '}';
+    }
+}
@@ -0,0 +1,209 @@
+package com.jdbctd2.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Proxies around a borrowed connection, the statements it creates and their result sets,
+ * feeding one {@link OperationMetrics}. JDBC objects are used by one thread at a time, so the
+ * handlers keep their state in plain fields.
+ */
+final class InstrumentedJdbc {
+
+    private InstrumentedJdbc() {
+    }
+
+    static Connection wrap(Connection connection, OperationMetrics metrics, long borrowedAtNanos) {
+        return proxy(Connection.class, new ConnectionHandler(connection, metrics, borrowedAtNanos));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private abstract static class Handler implements InvocationHandler {
+        final Object target;
+        final OperationMetrics metrics;
+
+        Handler(Object target, OperationMetrics metrics) {
+            this.target = target;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Instrumented[" + target + "]";
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return handle(proxy, method, args);
+        }
+
+        abstract Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+
+        Object delegate(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException) {
+                    metrics.recordError(sqlException);
+                }
+                throw cause;
+            }
+        }
+    }
+
+    private static class ConnectionHandler extends Handler {
+        private final long borrowedAtNanos;
+        private boolean closed;
+
+        ConnectionHandler(Connection connection, OperationMetrics metrics, long borrowedAtNanos) {
+            super(connection, metrics);
+            this.borrowedAtNanos = borrowedAtNanos;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (closed) {
+                        return null;
+                    }
+                    closed = true;
+                    try {
+                        return delegate(method, args);
+                    } finally {
+                        metrics.recordTotal(System.nanoTime() - borrowedAtNanos);
+                    }
+                case "createStatement":
+                case "prepareStatement":
+                case "prepareCall":
+                    Statement statement = (Statement) delegate(method, args);
+                    return proxy(method.getReturnType(), new StatementHandler(statement, metrics, (Connection) proxy));
+                default:
+                    return delegate(method, args);
+            }
+        }
+    }
+
+    private static class StatementHandler extends Handler {
+        private final Connection connection;
+        private ResultSetHandler openResultSet;
+
+        StatementHandler(Statement statement, OperationMetrics metrics, Connection connection) {
+            super(statement, metrics);
+            this.connection = connection;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    return connection;
+                case "executeQuery":
+                    return wrapResultSet(proxy, (ResultSet) execute(method, args));
+                case "execute":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return execute(method, args);
+                case "getResultSet":
+                case "getGeneratedKeys":
+                    return wrapResultSet(proxy, (ResultSet) delegate(method, args));
+                case "close":
+                    // Closing the statement closes its result set without going through our proxy
+                    finishResultSet();
+                    return delegate(method, args);
+                default:
+                    return delegate(method, args);
+            }
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finishResultSet();
+            long start = System.nanoTime();
+            try {
+                return delegate(method, args);
+            } finally {
+                metrics.recordExecute(System.nanoTime() - start);
+            }
+        }
+
+        private ResultSet wrapResultSet(Object statement, ResultSet resultSet) {
+            if (resultSet == null) {
+                return null;
+            }
+            finishResultSet();
+            openResultSet = new ResultSetHandler(resultSet, metrics, (Statement) statement);
+            return proxy(ResultSet.class, openResultSet);
+        }
+
+        private void finishResultSet() {
+            if (openResultSet != null) {
+                openResultSet.finish();
+                openResultSet = null;
+            }
+        }
+    }
+
+    private static class ResultSetHandler extends Handler {
+        private final Statement statement;
+        private final long openedAtNanos;
+        private long rows;
+        private boolean finished;
+
+        ResultSetHandler(ResultSet resultSet, OperationMetrics metrics, Statement statement) {
+            super(resultSet, metrics);
+            this.statement = statement;
+            this.openedAtNanos = System.nanoTime();
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    Boolean hasRow = (Boolean) delegate(method, args);
+                    if (hasRow) {
+                        rows++;
+                    }
+                    return hasRow;
+                case "getStatement":
+                    return statement;
+                case "close":
+                    try {
+                        return delegate(method, args);
+                    } finally {
+                        finish();
+                    }
+                default:
+                    return delegate(method, args);
+            }
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                metrics.recordMap(System.nanoTime() - openedAtNanos, rows);
+            }
+        }
+    }
+}
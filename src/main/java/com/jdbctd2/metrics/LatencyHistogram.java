@@ -0,0 +1,90 @@
+package com.jdbctd2.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in nanoseconds. Values below 32 get one bucket each; above
+ * that every power of two is split into 32 linear sub-buckets, so a reported percentile is
+ * at most about 3% above the real value. Values past 2^41 ns (about 36 minutes) share the
+ * last bucket; the maximum is still kept exactly.
+ * <p>
+ * Recording is one atomic increment plus a {@link LongAdder} add, so it can sit on the hot
+ * path of every query.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        sumNanos.add(value);
+        // Plain read first: once warmed up almost no value beats the maximum
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    public HistogramSnapshot snapshot() {
+        return snapshot(false);
+    }
+
+    /**
+     * Takes the snapshot and clears the histogram. Each recorded value ends up in exactly one
+     * snapshot; values recorded while the buckets are being drained may see their sum and
+     * maximum attributed to the next one.
+     */
+    public HistogramSnapshot snapshotAndReset() {
+        return snapshot(true);
+    }
+
+    public void reset() {
+        snapshot(true);
+    }
+
+    private HistogramSnapshot snapshot(boolean reset) {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = reset ? counts.getAndSet(i, 0) : counts.get(i);
+            copy[i] = bucketCount;
+            count += bucketCount;
+        }
+        long sum = reset ? sumNanos.sumThenReset() : sumNanos.sum();
+        long max = reset ? maxNanos.getAndSet(0) : maxNanos.get();
+        return new HistogramSnapshot(copy, count, sum, max);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Highest value that lands in the bucket
+     */
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
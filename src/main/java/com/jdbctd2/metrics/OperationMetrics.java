@@ -0,0 +1,141 @@
+package com.jdbctd2.metrics;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and phase latencies of one operation:
+ * <ul>
+ *     <li>connect: waiting for the pool to hand out a connection</li>
+ *     <li>execute: time spent inside the {@code execute*} calls</li>
+ *     <li>map: from a result set being returned until it is closed, i.e. fetching and
+ *     converting the rows</li>
+ *     <li>total: from borrowing the connection until it is closed</li>
+ * </ul>
+ * Errors are the {@link SQLException}s raised by the driver, grouped by SQL state.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private static final String UNKNOWN_SQL_STATE = "unknown";
+
+    private final String operation;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rowsReturned = new LongAdder();
+    private final LatencyHistogram totalLatency = new LatencyHistogram();
+    private final LatencyHistogram connectLatency = new LatencyHistogram();
+    private final LatencyHistogram executeLatency = new LatencyHistogram();
+    private final LatencyHistogram mapLatency = new LatencyHistogram();
+    private final Map<String, LongAdder> errorsBySqlState = new ConcurrentHashMap<>();
+
+    public OperationMetrics(String operation) {
+        this.operation = operation;
+    }
+
+    // ============= Recording Methods =============
+
+    void recordBorrow(long connectNanos) {
+        calls.increment();
+        connectLatency.record(connectNanos);
+    }
+
+    void recordTotal(long nanos) {
+        totalLatency.record(nanos);
+    }
+
+    void recordExecute(long nanos) {
+        executeLatency.record(nanos);
+    }
+
+    void recordMap(long nanos, long rows) {
+        mapLatency.record(nanos);
+        rowsReturned.add(rows);
+    }
+
+    void recordError(SQLException e) {
+        errors.increment();
+        String sqlState = e.getSQLState() != null ? e.getSQLState() : UNKNOWN_SQL_STATE;
+        errorsBySqlState.computeIfAbsent(sqlState, state -> new LongAdder()).increment();
+    }
+
+    // ============= Snapshot Methods =============
+
+    public OperationSnapshot snapshot() {
+        return snapshot(false);
+    }
+
+    public OperationSnapshot snapshotAndReset() {
+        return snapshot(true);
+    }
+
+    private OperationSnapshot snapshot(boolean reset) {
+        Map<String, Long> errorCounts = new HashMap<>();
+        for (Map.Entry<String, LongAdder> entry : errorsBySqlState.entrySet()) {
+            LongAdder counter = entry.getValue();
+            errorCounts.put(entry.getKey(), reset ? counter.sumThenReset() : counter.sum());
+        }
+        return new OperationSnapshot(operation,
+                reset ? calls.sumThenReset() : calls.sum(),
+                reset ? errors.sumThenReset() : errors.sum(),
+                reset ? rowsReturned.sumThenReset() : rowsReturned.sum(),
+                reset ? totalLatency.snapshotAndReset() : totalLatency.snapshot(),
+                reset ? connectLatency.snapshotAndReset() : connectLatency.snapshot(),
+                reset ? executeLatency.snapshotAndReset() : executeLatency.snapshot(),
+                reset ? mapLatency.snapshotAndReset() : mapLatency.snapshot(),
+                errorCounts);
+    }
+
+    // ============= MXBean Methods =============
+
+    @Override
+    public String getOperation() {
+        return operation;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRowsReturned() {
+        return rowsReturned.sum();
+    }
+
+    @Override
+    public HistogramSnapshot getTotalLatency() {
+        return totalLatency.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getConnectLatency() {
+        return connectLatency.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getExecuteLatency() {
+        return executeLatency.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getMapLatency() {
+        return mapLatency.snapshot();
+    }
+
+    @Override
+    public Map<String, Long> getErrorsBySqlState() {
+        return snapshot().getErrorsBySqlState();
+    }
+
+    @Override
+    public void reset() {
+        snapshot(true);
+    }
+}
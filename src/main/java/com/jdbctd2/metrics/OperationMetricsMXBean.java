@@ -0,0 +1,31 @@
+package com.jdbctd2.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of one {@link OperationMetrics}
+ */
+public interface OperationMetricsMXBean {
+    String getOperation();
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRowsReturned();
+
+    /**
+     * From borrowing the connection until it is closed
+     */
+    HistogramSnapshot getTotalLatency();
+
+    HistogramSnapshot getConnectLatency();
+
+    HistogramSnapshot getExecuteLatency();
+
+    HistogramSnapshot getMapLatency();
+
+    Map<String, Long> getErrorsBySqlState();
+
+    void reset();
+}
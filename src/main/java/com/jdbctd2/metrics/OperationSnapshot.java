@@ -0,0 +1,86 @@
+package com.jdbctd2.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Point-in-time copy of an {@link OperationMetrics}
+ */
+public class OperationSnapshot {
+    private final String operation;
+    private final long calls;
+    private final long errors;
+    private final long rowsReturned;
+    private final HistogramSnapshot totalLatency;
+    private final HistogramSnapshot connectLatency;
+    private final HistogramSnapshot executeLatency;
+    private final HistogramSnapshot mapLatency;
+    private final Map<String, Long> errorsBySqlState;
+
+    public OperationSnapshot(String operation, long calls, long errors, long rowsReturned,
+                             HistogramSnapshot totalLatency, HistogramSnapshot connectLatency,
+                             HistogramSnapshot executeLatency, HistogramSnapshot mapLatency,
+                             Map<String, Long> errorsBySqlState) {
+        this.operation = operation;
+        this.calls = calls;
+        this.errors = errors;
+        this.rowsReturned = rowsReturned;
+        this.totalLatency = totalLatency;
+        this.connectLatency = connectLatency;
+        this.executeLatency = executeLatency;
+        this.mapLatency = mapLatency;
+        this.errorsBySqlState = Collections.unmodifiableMap(new TreeMap<>(errorsBySqlState));
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getRowsReturned() {
+        return rowsReturned;
+    }
+
+    public HistogramSnapshot getTotalLatency() {
+        return totalLatency;
+    }
+
+    public HistogramSnapshot getConnectLatency() {
+        return connectLatency;
+    }
+
+    public HistogramSnapshot getExecuteLatency() {
+        return executeLatency;
+    }
+
+    public HistogramSnapshot getMapLatency() {
+        return mapLatency;
+    }
+
+    public Map<String, Long> getErrorsBySqlState() {
+        return errorsBySqlState;
+    }
+
+    @Override
+    public String toString() {
+        return "OperationSnapshot{" +
+                "operation='" + operation + '\'' +
+                ", calls=" + calls +
+                ", errors=" + errors +
+                ", rowsReturned=" + rowsReturned +
+                ", total=" + totalLatency +
+                ", connect=" + connectLatency +
+                ", execute=" + executeLatency +
+                ", map=" + mapLatency +
+                ", errorsBySqlState=" + errorsBySqlState +
+                '}';
+    }
+}
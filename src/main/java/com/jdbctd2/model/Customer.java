@@ -1,13 +1,23 @@
 package com.jdbctd2.model;
 
+import com.jdbctd2.mapping.Column;
+import com.jdbctd2.mapping.MappedTable;
+
 import java.time.Instant;
 
+@MappedTable("customer")
 public class Customer {
+    @Column("id")
     private Integer id;
+    @Column("first_name")
     private String firstName;
+    @Column("last_name")
     private String lastName;
+    @Column("email")
     private String email;
+    @Column("phone")
     private String phone;
+    @Column("created_at")
     private Instant createdAt;
 
     public Customer() {
@@ -1,15 +1,26 @@
 package com.jdbctd2.model;
 
+import com.jdbctd2.mapping.Column;
+import com.jdbctd2.mapping.MappedTable;
+
 import java.math.BigDecimal;
 import java.time.Instant;
 
+@MappedTable("dish")
 public class Dish {
+    @Column("id")
     private Integer id;
+    @Column("name")
     private String name;
+    @Column("description")
     private String description;
+    @Column("price")
     private BigDecimal price;
+    @Column("category")
     private String category;
+    @Column("is_available")
     private Boolean isAvailable;
+    @Column("created_at")
     private Instant createdAt;
 
     public Dish() {
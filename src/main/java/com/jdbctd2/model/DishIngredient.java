@@ -1,12 +1,21 @@
 package com.jdbctd2.model;
 
+import com.jdbctd2.mapping.Column;
+import com.jdbctd2.mapping.MappedTable;
+
 import java.math.BigDecimal;
 
+@MappedTable("dish_ingredient")
 public class DishIngredient {
+    @Column("id")
     private Integer id;
+    @Column("id_dish")
     private Integer dishId;
+    @Column("id_ingredient")
     private Integer ingredientId;
+    @Column("quantity")
     private BigDecimal quantity;
+    @Column("unit")
     private String unit;
 
     public DishIngredient() {
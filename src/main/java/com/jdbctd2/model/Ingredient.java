@@ -1,14 +1,24 @@
 package com.jdbctd2.model;
 
+import com.jdbctd2.mapping.Column;
+import com.jdbctd2.mapping.MappedTable;
+
 import java.math.BigDecimal;
 import java.time.Instant;
 
+@MappedTable("ingredient")
 public class Ingredient {
+    @Column("id")
     private Integer id;
+    @Column("name")
     private String name;
+    @Column("description")
     private String description;
+    @Column("quantity_in_stock")
     private BigDecimal quantityInStock;
+    @Column("unit")
     private String unit;
+    @Column("created_at")
     private Instant createdAt;
 
     public Ingredient() {
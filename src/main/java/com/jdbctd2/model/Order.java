@@ -1,13 +1,23 @@
 package com.jdbctd2.model;
 
+import com.jdbctd2.mapping.Column;
+import com.jdbctd2.mapping.MappedTable;
+
 import java.time.Instant;
 
+@MappedTable("\"order\"")
 public class Order {
+    @Column("id")
     private Integer id;
+    @Column("reference")
     private String reference;
+    @Column("creation_datetime")
     private Instant creationDatetime;
+    @Column(value = "id_table", nullable = true)
     private Integer tableId;
+    @Column("installation_datetime")
     private java.time.LocalDateTime installationDatetime;
+    @Column("departure_datetime")
     private java.time.LocalDateTime departureDatetime;
 
     public Order() {
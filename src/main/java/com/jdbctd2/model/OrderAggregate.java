@@ -0,0 +1,55 @@
+package com.jdbctd2.model;
+
+import java.util.List;
+
+/**
+ * An order together with its items and payments, as saved by
+ * {@code DataRetriever.saveOrderAggregate}
+ */
+public class OrderAggregate {
+    private Order order;
+    private List<OrderItem> items;
+    private List<Payment> payments;
+
+    public OrderAggregate() {
+    }
+
+    public OrderAggregate(Order order, List<OrderItem> items, List<Payment> payments) {
+        this.order = order;
+        this.items = items;
+        this.payments = payments;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public void setOrder(Order order) {
+        this.order = order;
+    }
+
+    public List<OrderItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItem> items) {
+        this.items = items;
+    }
+
+    public List<Payment> getPayments() {
+        return payments;
+    }
+
+    public void setPayments(List<Payment> payments) {
+        this.payments = payments;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderAggregate{" +
+                "order=" + order +
+                ", items=" + items +
+                ", payments=" + payments +
+                '}';
+    }
+}
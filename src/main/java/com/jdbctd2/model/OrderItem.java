@@ -1,15 +1,26 @@
 package com.jdbctd2.model;
 
+import com.jdbctd2.mapping.Column;
+import com.jdbctd2.mapping.MappedTable;
+
 import java.math.BigDecimal;
 import java.time.Instant;
 
+@MappedTable("order_item")
 public class OrderItem {
+    @Column("id")
     private Integer id;
+    @Column("id_order")
     private Integer orderId;
+    @Column("id_dish")
     private Integer dishId;
+    @Column("quantity")
     private Integer quantity;
+    @Column("unit_price")
     private BigDecimal unitPrice;
+    @Column("notes")
     private String notes;
+    @Column("created_at")
     private Instant createdAt;
 
     public OrderItem() {
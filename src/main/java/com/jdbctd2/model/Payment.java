@@ -1,14 +1,24 @@
 package com.jdbctd2.model;
 
+import com.jdbctd2.mapping.Column;
+import com.jdbctd2.mapping.MappedTable;
+
 import java.math.BigDecimal;
 import java.time.Instant;
 
+@MappedTable("payment")
 public class Payment {
+    @Column("id")
     private Integer id;
+    @Column("id_order")
     private Integer orderId;
+    @Column("amount")
     private BigDecimal amount;
+    @Column("payment_method")
     private String paymentMethod;
+    @Column("payment_date")
     private Instant paymentDate;
+    @Column("status")
     private String status;
 
     public Payment() {
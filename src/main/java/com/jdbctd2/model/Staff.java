@@ -1,17 +1,30 @@
 package com.jdbctd2.model;
 
+import com.jdbctd2.mapping.Column;
+import com.jdbctd2.mapping.MappedTable;
+
 import java.time.Instant;
 import java.time.LocalDate;
 
+@MappedTable("staff")
 public class Staff {
+    @Column("id")
     private Integer id;
+    @Column("first_name")
     private String firstName;
+    @Column("last_name")
     private String lastName;
+    @Column("email")
     private String email;
+    @Column("phone")
     private String phone;
+    @Column("position")
     private String position;
+    @Column("hire_date")
     private LocalDate hireDate;
+    @Column("is_active")
     private Boolean isActive;
+    @Column("created_at")
     private Instant createdAt;
 
     public Staff() {
@@ -1,8 +1,15 @@
 package com.jdbctd2.model;
 
+import com.jdbctd2.mapping.Column;
+import com.jdbctd2.mapping.MappedTable;
+
+@MappedTable("restaurant_table")
 public class Table {
+    @Column("id")
     private Integer id;
+    @Column("number")
     private Integer number;
+    @Column("capacity")
     private Integer capacity;
 
     public Table() {
@@ -0,0 +1,316 @@
+package com.jdbctd2.repository;
+
+import com.jdbctd2.config.DBConnection;
+import com.jdbctd2.model.*;
+import com.jdbctd2.repository.pagination.Page;
+import com.jdbctd2.repository.stock.StockConsumption;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over {@link DataRetriever}. Every call runs on its own virtual thread and
+ * returns a {@link CompletableFuture}, so independent lookups can be fanned out:
+ * <pre>
+ * CompletableFuture&lt;Table&gt; table = async.findTableById(order.getTableId());
+ * CompletableFuture&lt;List&lt;OrderItem&gt;&gt; items = async.findOrderItemsByOrderId(order.getId());
+ * CompletableFuture&lt;List&lt;Payment&gt;&gt; payments = async.findPaymentsByOrderId(order.getId());
+ * </pre>
+ * At most {@code maxConcurrency} calls run at once, normally the size of the connection pool,
+ * so excess calls wait for a permit instead of for a pooled connection.
+ * <p>
+ * Cancelling a future, or missing its deadline, interrupts the call. A call interrupted while
+ * talking to the database loses its connection, which the pool then discards.
+ */
+public class AsyncDataRetriever implements AutoCloseable {
+    private final DataRetriever dataRetriever;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final Duration deadline;
+    private final boolean ownsExecutor;
+
+    public AsyncDataRetriever() {
+        this(new DBConnection());
+    }
+
+    public AsyncDataRetriever(DBConnection dbConnection) {
+        this(new DataRetriever(dbConnection), dbConnection.getPool().getConfig().getMaxPoolSize());
+    }
+
+    public AsyncDataRetriever(DataRetriever dataRetriever, int maxConcurrency) {
+        this(dataRetriever, Executors.newVirtualThreadPerTaskExecutor(), new Semaphore(maxConcurrency, true), null,
+                true);
+    }
+
+    private AsyncDataRetriever(DataRetriever dataRetriever, ExecutorService executor, Semaphore permits,
+                               Duration deadline, boolean ownsExecutor) {
+        this.dataRetriever = dataRetriever;
+        this.executor = executor;
+        this.permits = permits;
+        this.deadline = deadline;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    public DataRetriever getDataRetriever() {
+        return dataRetriever;
+    }
+
+    /**
+     * View of this facade whose calls fail with a {@link TimeoutException} once {@code deadline}
+     * has elapsed, waiting for a permit included. It shares the executor and the permits;
+     * closing the view does nothing, only closing this facade stops the executor.
+     */
+    public AsyncDataRetriever withDeadline(Duration deadline) {
+        return new AsyncDataRetriever(dataRetriever, executor, permits, deadline, false);
+    }
+
+    /**
+     * Runs any blocking call under the facade's concurrency limit and deadline
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long deadlineNanos = deadline == null ? 0 : System.nanoTime() + deadline.toNanos();
+
+        Future<?> task = executor.submit(() -> {
+            boolean acquired = false;
+            try {
+                if (deadline == null) {
+                    permits.acquire();
+                    acquired = true;
+                } else {
+                    acquired = permits.tryAcquire(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                }
+                if (!acquired) {
+                    result.completeExceptionally(new TimeoutException("No permit within " + deadline));
+                } else if (!result.isDone()) {
+                    result.complete(call.get());
+                }
+            } catch (InterruptedException e) {
+                result.completeExceptionally(new CancellationException("Interrupted"));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                if (acquired) {
+                    permits.release();
+                }
+            }
+        });
+
+        if (deadline != null) {
+            result.orTimeout(deadline.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        result.whenComplete((value, error) -> {
+            if (error instanceof CancellationException || error instanceof TimeoutException) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    public CompletableFuture<Order> saveOrder(Order order) {
+        return submit(() -> dataRetriever.saveOrder(order));
+    }
+
+    public CompletableFuture<OrderAggregate> saveOrderAggregate(Order order, List<OrderItem> items, List<Payment> payments) {
+        return submit(() -> dataRetriever.saveOrderAggregate(order, items, payments));
+    }
+
+    public CompletableFuture<Table> findTableById(Integer tableId) {
+        return submit(() -> dataRetriever.findTableById(tableId));
+    }
+
+    public CompletableFuture<List<Table>> findAllTables() {
+        return submit(dataRetriever::findAllTables);
+    }
+
+    public CompletableFuture<Table> saveTable(Table table) {
+        return submit(() -> dataRetriever.saveTable(table));
+    }
+
+    public CompletableFuture<List<Table>> saveAllTables(List<Table> tables) {
+        return submit(() -> dataRetriever.saveAllTables(tables));
+    }
+
+    public CompletableFuture<List<Table>> findAvailableTablesAtDateTime(LocalDateTime dateTime) {
+        return submit(() -> dataRetriever.findAvailableTablesAtDateTime(dateTime));
+    }
+
+    public CompletableFuture<Boolean> isTableAvailableAtDateTime(Integer tableId, LocalDateTime dateTime) {
+        return submit(() -> dataRetriever.isTableAvailableAtDateTime(tableId, dateTime));
+    }
+
+    public CompletableFuture<List<Table>> findAvailableTables(LocalDateTime from, LocalDateTime to, int partySize) {
+        return submit(() -> dataRetriever.findAvailableTables(from, to, partySize));
+    }
+
+    public CompletableFuture<Integer> countAvailableSeats(LocalDateTime from, LocalDateTime to) {
+        return submit(() -> dataRetriever.countAvailableSeats(from, to));
+    }
+
+    public CompletableFuture<Dish> saveDish(Dish dish) {
+        return submit(() -> dataRetriever.saveDish(dish));
+    }
+
+    public CompletableFuture<List<Dish>> saveAllDishes(List<Dish> dishes) {
+        return submit(() -> dataRetriever.saveAllDishes(dishes));
+    }
+
+    public CompletableFuture<Dish> findDishById(Integer dishId) {
+        return submit(() -> dataRetriever.findDishById(dishId));
+    }
+
+    public CompletableFuture<List<Dish>> findAllDishes() {
+        return submit(dataRetriever::findAllDishes);
+    }
+
+    public CompletableFuture<List<Dish>> findDishesByCategory(String category) {
+        return submit(() -> dataRetriever.findDishesByCategory(category));
+    }
+
+    public CompletableFuture<Ingredient> saveIngredient(Ingredient ingredient) {
+        return submit(() -> dataRetriever.saveIngredient(ingredient));
+    }
+
+    public CompletableFuture<List<Ingredient>> saveAllIngredients(List<Ingredient> ingredients) {
+        return submit(() -> dataRetriever.saveAllIngredients(ingredients));
+    }
+
+    public CompletableFuture<Ingredient> findIngredientById(Integer ingredientId) {
+        return submit(() -> dataRetriever.findIngredientById(ingredientId));
+    }
+
+    public CompletableFuture<List<Ingredient>> findAllIngredients() {
+        return submit(dataRetriever::findAllIngredients);
+    }
+
+    public CompletableFuture<Void> updateIngredientStock(Integer ingredientId, BigDecimal quantityInStock) {
+        return submit(() -> {
+            dataRetriever.updateIngredientStock(ingredientId, quantityInStock);
+            return null;
+        });
+    }
+
+    public CompletableFuture<DishIngredient> saveDishIngredient(DishIngredient dishIngredient) {
+        return submit(() -> dataRetriever.saveDishIngredient(dishIngredient));
+    }
+
+    public CompletableFuture<List<DishIngredient>> saveAllDishIngredients(List<DishIngredient> dishIngredients) {
+        return submit(() -> dataRetriever.saveAllDishIngredients(dishIngredients));
+    }
+
+    public CompletableFuture<List<DishIngredient>> findDishIngredientsByDishId(Integer dishId) {
+        return submit(() -> dataRetriever.findDishIngredientsByDishId(dishId));
+    }
+
+    public CompletableFuture<StockConsumption> consumeStock(Collection<Integer> orderItemIds) {
+        return submit(() -> dataRetriever.consumeStock(orderItemIds));
+    }
+
+    public CompletableFuture<OrderItem> saveOrderItem(OrderItem item) {
+        return submit(() -> dataRetriever.saveOrderItem(item));
+    }
+
+    public CompletableFuture<List<OrderItem>> saveAllOrderItems(List<OrderItem> items) {
+        return submit(() -> dataRetriever.saveAllOrderItems(items));
+    }
+
+    public CompletableFuture<List<OrderItem>> findOrderItemsByOrderId(Integer orderId) {
+        return submit(() -> dataRetriever.findOrderItemsByOrderId(orderId));
+    }
+
+    public CompletableFuture<Map<Integer, List<OrderItem>>> findOrderItemsByOrderIds(Collection<Integer> orderIds) {
+        return submit(() -> dataRetriever.findOrderItemsByOrderIds(orderIds));
+    }
+
+    public CompletableFuture<Customer> saveCustomer(Customer customer) {
+        return submit(() -> dataRetriever.saveCustomer(customer));
+    }
+
+    public CompletableFuture<List<Customer>> saveAllCustomers(List<Customer> customers) {
+        return submit(() -> dataRetriever.saveAllCustomers(customers));
+    }
+
+    public CompletableFuture<Customer> findCustomerById(Integer customerId) {
+        return submit(() -> dataRetriever.findCustomerById(customerId));
+    }
+
+    public CompletableFuture<List<Customer>> findAllCustomers() {
+        return submit(dataRetriever::findAllCustomers);
+    }
+
+    public CompletableFuture<Page<Customer>> findCustomersPage(String cursor, int limit) {
+        return submit(() -> dataRetriever.findCustomersPage(cursor, limit));
+    }
+
+    public CompletableFuture<Staff> saveStaff(Staff staff) {
+        return submit(() -> dataRetriever.saveStaff(staff));
+    }
+
+    public CompletableFuture<List<Staff>> saveAllStaff(List<Staff> staffList) {
+        return submit(() -> dataRetriever.saveAllStaff(staffList));
+    }
+
+    public CompletableFuture<Staff> findStaffById(Integer staffId) {
+        return submit(() -> dataRetriever.findStaffById(staffId));
+    }
+
+    public CompletableFuture<List<Staff>> findAllStaff() {
+        return submit(dataRetriever::findAllStaff);
+    }
+
+    public CompletableFuture<Page<Staff>> findStaffPage(String cursor, int limit) {
+        return submit(() -> dataRetriever.findStaffPage(cursor, limit));
+    }
+
+    public CompletableFuture<Page<Dish>> findDishesPage(String cursor, int limit) {
+        return submit(() -> dataRetriever.findDishesPage(cursor, limit));
+    }
+
+    public CompletableFuture<Payment> savePayment(Payment payment) {
+        return submit(() -> dataRetriever.savePayment(payment));
+    }
+
+    public CompletableFuture<List<Payment>> saveAllPayments(List<Payment> payments) {
+        return submit(() -> dataRetriever.saveAllPayments(payments));
+    }
+
+    public CompletableFuture<Payment> findPaymentById(Integer paymentId) {
+        return submit(() -> dataRetriever.findPaymentById(paymentId));
+    }
+
+    public CompletableFuture<List<Payment>> findPaymentsByOrderId(Integer orderId) {
+        return submit(() -> dataRetriever.findPaymentsByOrderId(orderId));
+    }
+
+    public CompletableFuture<Map<Integer, List<Payment>>> findPaymentsByOrderIds(Collection<Integer> orderIds) {
+        return submit(() -> dataRetriever.findPaymentsByOrderIds(orderIds));
+    }
+
+    public CompletableFuture<Page<Payment>> findPaymentsPage(String cursor, int limit) {
+        return submit(() -> dataRetriever.findPaymentsPage(cursor, limit));
+    }
+
+    /**
+     * Stops accepting calls; running calls are left to finish. A no-op on a
+     * {@link #withDeadline(Duration)} view, which does not own the executor.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+}
@@ -1,16 +1,90 @@
 package com.jdbctd2.repository;
 
 import com.jdbctd2.config.DBConnection;
+import com.jdbctd2.mapping.RowMapper;
+import com.jdbctd2.metrics.DataRetrieverMetrics;
 import com.jdbctd2.model.*;
+import com.jdbctd2.repository.cache.CacheStats;
+import com.jdbctd2.repository.cache.EntityCache;
+import com.jdbctd2.repository.cache.LruEntityCache;
+import com.jdbctd2.repository.groupcommit.GroupCommitConfig;
+import com.jdbctd2.repository.groupcommit.GroupCommitTarget;
+import com.jdbctd2.repository.groupcommit.GroupCommitWriter;
+import com.jdbctd2.repository.hold.TableHold;
+import com.jdbctd2.repository.hold.TableHoldRegistry;
 import com.jdbctd2.repository.interf.TableRepository;
-
+import com.jdbctd2.repository.menu.MenuCatalog;
+import com.jdbctd2.repository.occupancy.TableOccupancyIndex;
+import com.jdbctd2.repository.pagination.Page;
+import com.jdbctd2.repository.pagination.PageToken;
+import com.jdbctd2.repository.revenue.RevenueReport;
+import com.jdbctd2.repository.revenue.RevenueRollup;
+import com.jdbctd2.repository.stock.DishServingsTracker;
+import com.jdbctd2.repository.stock.StockConsumption;
+import com.jdbctd2.repository.stock.StockEngine;
+import com.jdbctd2.repository.stock.StockPolicy;
+import org.postgresql.PGStatement;
+
+import java.math.BigDecimal;
 import java.sql.*;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DataRetriever implements TableRepository {
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int ID_CHUNK_SIZE = 5000;
+
+    private static final String INSERT_TABLE_SQL = "INSERT INTO restaurant_table (number, capacity) VALUES (?, ?)";
+    private static final String INSERT_DISH_SQL = "INSERT INTO dish (name, description, price, category, is_available) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_INGREDIENT_SQL = "INSERT INTO ingredient (name, description, quantity_in_stock, unit) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_DISH_INGREDIENT_SQL = "INSERT INTO dish_ingredient (id_dish, id_ingredient, quantity, unit) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_ORDER_ITEM_SQL = "INSERT INTO order_item (id_order, id_dish, quantity, unit_price, notes) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_CUSTOMER_SQL = "INSERT INTO customer (first_name, last_name, email, phone) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_STAFF_SQL = "INSERT INTO staff (first_name, last_name, email, phone, position, hire_date, is_active) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PAYMENT_SQL = "INSERT INTO payment (id_order, amount, payment_method, status) VALUES (?, ?, ?, ?)";
+
     private DBConnection dbConnection;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private volatile TableOccupancyIndex occupancyIndex;
+    private volatile EntityCache<Integer, Table> tableCache;
+    private volatile EntityCache<Integer, Dish> dishCache;
+    private volatile EntityCache<Integer, Ingredient> ingredientCache;
+    private volatile EntityCache<Integer, Staff> staffCache;
+    private volatile MenuCatalog menuCatalog;
+    private volatile StockEngine stockEngine;
+    private volatile DishServingsTracker servingsTracker;
+    private volatile RevenueRollup revenueRollup;
+    private volatile DataRetrieverMetrics metrics;
+    private volatile GroupCommitWriter groupCommitWriter;
+    private volatile TableHoldRegistry tableHolds;
+    private final GroupCommitTarget<OrderItem> orderItemTarget = new GroupCommitTarget<>(
+            "order item", "saveOrderItem", INSERT_ORDER_ITEM_SQL, this::bindOrderItem, OrderItem::setId, null);
+    private final GroupCommitTarget<Payment> paymentTarget = new GroupCommitTarget<>(
+            "payment", "savePayment", INSERT_PAYMENT_SQL, this::bindPayment, Payment::setId, this::paymentsSaved);
+    private volatile boolean occupancyConsistencyCheck;
 
     public DataRetriever() {
         this.dbConnection = new DBConnection();
@@ -20,9 +94,88 @@ public class DataRetriever implements TableRepository {
         this.dbConnection = dbConnection;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Number of rows sent per {@code executeBatch} by the {@code saveAll*} methods
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Rows fetched per round trip by the {@code stream*} methods
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be at least 1");
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    // ============= Entity Cache Methods =============
+
+    /**
+     * Puts an {@link LruEntityCache} in front of {@code findTableById}, {@code findDishById},
+     * {@code findIngredientById} and {@code findStaffById}. Cached entities are shared between
+     * callers and must be treated as read-only.
+     */
+    public void enableEntityCaches(int capacity, Duration ttl) {
+        this.tableCache = new LruEntityCache<>("table", capacity, ttl);
+        this.dishCache = new LruEntityCache<>("dish", capacity, ttl);
+        this.ingredientCache = new LruEntityCache<>("ingredient", capacity, ttl);
+        this.staffCache = new LruEntityCache<>("staff", capacity, ttl);
+    }
+
+    public void setTableCache(EntityCache<Integer, Table> tableCache) {
+        this.tableCache = tableCache;
+    }
+
+    public void setDishCache(EntityCache<Integer, Dish> dishCache) {
+        this.dishCache = dishCache;
+    }
+
+    public void setIngredientCache(EntityCache<Integer, Ingredient> ingredientCache) {
+        this.ingredientCache = ingredientCache;
+    }
+
+    public void setStaffCache(EntityCache<Integer, Staff> staffCache) {
+        this.staffCache = staffCache;
+    }
+
+    public List<CacheStats> getEntityCacheStats() {
+        List<CacheStats> stats = new ArrayList<>();
+        for (EntityCache<Integer, ?> cache : Arrays.asList(tableCache, dishCache, ingredientCache, staffCache)) {
+            if (cache != null) {
+                stats.add(cache.getStats());
+            }
+        }
+        return stats;
+    }
+
+    private void invalidateCached(EntityCache<Integer, ?> cache, Integer id) {
+        if (cache != null && id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ParameterBinder<T> {
+        void bind(PreparedStatement stmt, T value) throws SQLException;
+    }
+
     /**
-     * Validates if a table is available at the specified date/time for an order
-     * If not available, throws RuntimeException with helpful message listing available tables
+     * Checks the arguments a booking needs. Table availability itself is checked by the
+     * database as part of the booking statement, see {@link #saveOrder(Connection, Order)}.
      */
     private void validateTableForOrder(Order orderToSave) {
         if (orderToSave.getTableId() == null) {
@@ -32,84 +185,219 @@ public class DataRetriever implements TableRepository {
         if (orderToSave.getInstallationDatetime() == null) {
             throw new IllegalArgumentException("Installation datetime cannot be null");
         }
+    }
 
-        LocalDateTime installationTime = orderToSave.getInstallationDatetime();
-
-        // Check if the requested table is available
-        if (!isTableAvailableAtDateTime(orderToSave.getTableId(), installationTime)) {
-            // Table is not available, find available tables
-            List<Table> availableTables = findAvailableTablesAtDateTime(installationTime);
-
-            StringBuilder errorMessage = new StringBuilder();
-            errorMessage.append("Table ").append(orderToSave.getTableId())
-                    .append(" is not available at this time.");
-
-            if (availableTables.isEmpty()) {
-                errorMessage.append(" No tables are currently available.");
-            } else {
-                errorMessage.append(" Available tables: ");
-                for (int i = 0; i < availableTables.size(); i++) {
-                    if (i > 0) errorMessage.append(", ");
-                    errorMessage.append(availableTables.get(i).getNumber())
-                            .append(" (capacity: ").append(availableTables.get(i).getCapacity()).append(")");
-                }
+    /**
+     * Builds the error raised when the requested table is taken, listing the tables still free
+     */
+    private String buildTableUnavailableMessage(Integer tableId, List<Table> availableTables) {
+        StringBuilder errorMessage = new StringBuilder();
+        errorMessage.append("Table ").append(tableId)
+                .append(" is not available at this time.");
+
+        if (availableTables.isEmpty()) {
+            errorMessage.append(" No tables are currently available.");
+        } else {
+            errorMessage.append(" Available tables: ");
+            for (int i = 0; i < availableTables.size(); i++) {
+                if (i > 0) errorMessage.append(", ");
+                errorMessage.append(availableTables.get(i).getNumber())
+                        .append(" (capacity: ").append(availableTables.get(i).getCapacity()).append(")");
             }
-
-            throw new RuntimeException(errorMessage.toString());
         }
+        return errorMessage.toString();
     }
 
-    public void saveOrder(Order orderToSave) {
+    /**
+     * Saves the order in its own transaction and returns it with its generated id
+     */
+    public Order saveOrder(Order orderToSave) {
         Connection con = null;
         try {
-            con = dbConnection.getDBConnection();
+            con = borrowConnection("saveOrder");
             con.setAutoCommit(false);
 
-            // Validate the order before saving
-            validateTableForOrder(orderToSave);
+            bookOrder(con, orderToSave);
 
-            // Insert order into database
-            String insertOrderSql = "INSERT INTO \"order\" (reference, creation_datetime, id_table, installation_datetime, departure_datetime) " +
-                    "VALUES (?, ?, ?, ?, ?)";
-            PreparedStatement insertStmt = con.prepareStatement(insertOrderSql);
+            con.commit();
+            recordOccupancy(orderToSave);
+            return orderToSave;
+        } catch (SQLException | RuntimeException e) {
+            rollbackQuietly(con);
+            throw new RuntimeException("Failed to save order: " + e.getMessage(), e);
+        } finally {
+            restoreAutoCommit(con);
+            dbConnection.attemptCloseDBConnection(con);
+        }
+    }
 
-            insertStmt.setString(1, orderToSave.getReference());
-            insertStmt.setTimestamp(2, orderToSave.getCreationDatetime() != null ? 
-                    Timestamp.from(orderToSave.getCreationDatetime()) : new Timestamp(System.currentTimeMillis()));
-            insertStmt.setInt(3, orderToSave.getTableId());
-            insertStmt.setTimestamp(4, orderToSave.getInstallationDatetime() != null ? 
-                    Timestamp.valueOf(orderToSave.getInstallationDatetime()) : null);
-            insertStmt.setTimestamp(5, orderToSave.getDepartureDatetime() != null ? 
-                    Timestamp.valueOf(orderToSave.getDepartureDatetime()) : null);
+    /**
+     * Saves an order with its items and payments in a single transaction: the booking statement
+     * returns the order id, which is then set on every item and payment before they are
+     * batch-inserted. Nothing is kept if any part fails.
+     * When stock consumption is enabled the ingredients are decremented in the same transaction,
+     * so a {@link StockPolicy#REJECT} shortage refuses the whole ticket.
+     */
+    public OrderAggregate saveOrderAggregate(Order order, List<OrderItem> items, List<Payment> payments) {
+        Connection con = null;
+        try {
+            con = borrowConnection("saveOrderAggregate");
+            con.setAutoCommit(false);
 
-            insertStmt.executeUpdate();
-            dbConnection.attemptCloseDBConnection(insertStmt);
+            bookOrder(con, order);
+            for (OrderItem item : items) {
+                item.setOrderId(order.getId());
+            }
+            for (Payment payment : payments) {
+                payment.setOrderId(order.getId());
+            }
+            if (!items.isEmpty()) {
+                insertBatch(con, INSERT_ORDER_ITEM_SQL, items, this::bindOrderItem, OrderItem::setId);
+            }
+            if (!payments.isEmpty()) {
+                insertBatch(con, INSERT_PAYMENT_SQL, payments, this::bindPayment, Payment::setId);
+            }
+            StockEngine engine = stockEngine;
+            StockConsumption consumption = engine != null && !items.isEmpty()
+                    ? engine.consumeOrders(con, List.of(order.getId())) : null;
 
             con.commit();
+            recordOccupancy(order);
+            if (consumption != null) {
+                stockChanged(consumption);
+            }
+            paymentsSaved(payments);
+            return new OrderAggregate(order, items, payments);
         } catch (SQLException | RuntimeException e) {
             rollbackQuietly(con);
-            throw new RuntimeException("Failed to save order: " + e.getMessage(), e);
+            clearAggregateIds(order, items, payments);
+            throw new RuntimeException("Failed to save order aggregate: " + e.getMessage(), e);
         } finally {
             restoreAutoCommit(con);
             dbConnection.attemptCloseDBConnection(con);
         }
     }
 
+    /**
+     * Forgets the ids stamped during a rolled-back aggregate save: none of those rows exist
+     */
+    private void clearAggregateIds(Order order, List<OrderItem> items, List<Payment> payments) {
+        order.setId(null);
+        for (OrderItem item : items) {
+            item.setId(null);
+            item.setOrderId(null);
+        }
+        for (Payment payment : payments) {
+            payment.setId(null);
+            payment.setOrderId(null);
+        }
+    }
+
+    /**
+     * Books the order's table on the caller's connection, inside the caller's transaction.
+     * The conflict check, the insert and, when the table is taken, the lookup of the
+     * alternative tables run as a single statement, so a booking costs one round trip.
+     * The generated id is set on the order.
+     * <p>
+     * In auto-commit mode the booking is recorded in the occupancy index right away; otherwise
+     * the caller passes the order to {@link #orderCommitted(Order)} once its transaction commits.
+     */
+    public Order saveOrder(Connection con, Order orderToSave) throws SQLException {
+        Order saved = bookOrder(con, orderToSave);
+        if (con.getAutoCommit()) {
+            recordOccupancy(saved);
+        }
+        return saved;
+    }
+
+    /**
+     * After-commit hook for orders booked with {@link #saveOrder(Connection, Order)} inside the
+     * caller's transaction: keeps the occupancy index in step with the database
+     */
+    public void orderCommitted(Order committedOrder) {
+        recordOccupancy(committedOrder);
+    }
+
+    private Order bookOrder(Connection con, Order orderToSave) throws SQLException {
+        validateTableForOrder(orderToSave);
+
+        // Returns either one row carrying the new order id, or one row per free table
+        String bookOrderSql = "WITH booking AS (" +
+                "SELECT ?::varchar AS reference, ?::timestamp AS creation_datetime, ?::integer AS id_table, " +
+                "?::timestamp AS installation_datetime, ?::timestamp AS departure_datetime" +
+                "), inserted AS (" +
+                "INSERT INTO \"order\" (reference, creation_datetime, id_table, installation_datetime, departure_datetime) " +
+                "SELECT b.reference, b.creation_datetime, b.id_table, b.installation_datetime, b.departure_datetime " +
+                "FROM booking b WHERE NOT EXISTS (SELECT 1 FROM \"order\" o WHERE o.id_table = b.id_table " +
+                "and b.installation_datetime < o.departure_datetime and b.installation_datetime > o.installation_datetime) " +
+                "RETURNING id" +
+                ") " +
+                "SELECT i.id AS order_id, NULL::integer AS table_id, NULL::integer AS number, NULL::integer AS capacity " +
+                "FROM inserted i " +
+                "UNION ALL " +
+                "SELECT NULL, t.id, t.number, t.capacity FROM restaurant_table t, booking b " +
+                "WHERE NOT EXISTS (SELECT 1 FROM inserted) " +
+                "and NOT EXISTS (SELECT 1 FROM \"order\" o WHERE o.id_table = t.id " +
+                "and b.installation_datetime < o.departure_datetime and b.installation_datetime > o.installation_datetime) " +
+                "ORDER BY number";
+
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = con.prepareStatement(bookOrderSql);
+            stmt.setString(1, orderToSave.getReference());
+            stmt.setTimestamp(2, orderToSave.getCreationDatetime() != null ?
+                    Timestamp.from(orderToSave.getCreationDatetime()) : new Timestamp(System.currentTimeMillis()));
+            stmt.setInt(3, orderToSave.getTableId());
+            stmt.setTimestamp(4, Timestamp.valueOf(orderToSave.getInstallationDatetime()));
+            stmt.setTimestamp(5, orderToSave.getDepartureDatetime() != null ?
+                    Timestamp.valueOf(orderToSave.getDepartureDatetime()) : null);
+            rs = stmt.executeQuery();
+
+            Integer orderId = null;
+            List<Table> availableTables = new ArrayList<>();
+            while (rs.next()) {
+                int generatedId = rs.getInt("order_id");
+                if (!rs.wasNull()) {
+                    orderId = generatedId;
+                } else {
+                    availableTables.add(new Table(rs.getInt("table_id"), rs.getInt("number"), rs.getInt("capacity")));
+                }
+            }
+
+            if (orderId == null) {
+                throw new RuntimeException(buildTableUnavailableMessage(orderToSave.getTableId(), availableTables));
+            }
+            orderToSave.setId(orderId);
+            return orderToSave;
+        } finally {
+            dbConnection.attemptCloseDBConnection(rs, stmt, null);
+        }
+    }
+
     @Override
     public Table findTableById(Integer tableId) {
+        EntityCache<Integer, Table> cache = tableCache;
+        if (cache != null) {
+            return cache.get(tableId, this::loadTableById);
+        }
+        return loadTableById(tableId);
+    }
+
+    private Table loadTableById(Integer tableId) {
         Connection con = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM restaurant_table WHERE id = ?";
+            con = borrowConnection("findTableById");
+            String sql = "SELECT " + TableRowMapper.COLUMNS + " FROM restaurant_table WHERE id = ?";
             stmt = con.prepareStatement(sql);
             stmt.setInt(1, tableId);
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return mapTableFromResultSet(rs);
+                return TableRowMapper.INSTANCE.bind(rs).map(rs);
             }
             return null;
         } catch (SQLException e) {
@@ -122,18 +410,19 @@ public class DataRetriever implements TableRepository {
     @Override
     public List<Table> findAllTables() {
         Connection con = null;
-        Statement stmt = null;
+        PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM restaurant_table ORDER BY number";
-            stmt = con.createStatement();
-            rs = stmt.executeQuery(sql);
+            con = borrowConnection("findAllTables");
+            String sql = "SELECT " + TableRowMapper.COLUMNS + " FROM restaurant_table ORDER BY number";
+            stmt = con.prepareStatement(sql);
+            rs = stmt.executeQuery();
 
+            RowMapper.Bound<Table> mapper = TableRowMapper.INSTANCE.bind(rs);
             List<Table> tables = new ArrayList<>();
             while (rs.next()) {
-                tables.add(mapTableFromResultSet(rs));
+                tables.add(mapper.map(rs));
             }
             return tables;
         } catch (SQLException e) {
@@ -143,42 +432,284 @@ public class DataRetriever implements TableRepository {
         }
     }
 
+    /**
+     * Same rows as {@link #findAllTables()}, read lazily through a server-side cursor.
+     * The stream holds a connection until it is closed.
+     */
+    public Stream<Table> streamAllTables() {
+        return streamQuery("streamAllTables", "SELECT " + TableRowMapper.COLUMNS + " FROM restaurant_table ORDER BY number", TableRowMapper.INSTANCE, "tables");
+    }
+
     @Override
     public Table saveTable(Table tableToSave) {
+        insertOne("saveTable", INSERT_TABLE_SQL, tableToSave, this::bindTable, Table::setId, "table");
+        invalidateCached(tableCache, tableToSave.getId());
+        TableOccupancyIndex index = occupancyIndex;
+        if (index != null) {
+            index.putTable(tableToSave);
+        }
+        return tableToSave;
+    }
+
+    /**
+     * Batch counterpart of {@link #saveTable(Table)}: one connection, one transaction
+     */
+    public List<Table> saveAllTables(List<Table> tables) {
+        insertAll("saveAllTables", INSERT_TABLE_SQL, tables, this::bindTable, Table::setId, "table");
+        for (Table saved : tables) {
+            invalidateCached(tableCache, saved.getId());
+        }
+        TableOccupancyIndex index = occupancyIndex;
+        if (index != null) {
+            for (Table table : tables) {
+                index.putTable(table);
+            }
+        }
+        return tables;
+    }
+
+    private void bindTable(PreparedStatement stmt, Table table) throws SQLException {
+        stmt.setInt(1, table.getNumber());
+        stmt.setInt(2, table.getCapacity());
+    }
+
+    @Override
+    public List<Table> findAvailableTablesAtDateTime(LocalDateTime dateTime) {
+        TableOccupancyIndex index = occupancyIndex;
+        if (index == null || !index.isLoaded()) {
+            return findAvailableTablesAtDateTimeFromDatabase(dateTime);
+        }
+
+        List<Table> tables = index.findAvailableTablesAtDateTime(dateTime);
+        if (occupancyConsistencyCheck) {
+            List<Table> expected = findAvailableTablesAtDateTimeFromDatabase(dateTime);
+            if (!expected.equals(tables)) {
+                reportOccupancyMismatch(index, "findAvailableTablesAtDateTime(" + dateTime + ")", expected, tables);
+                return expected;
+            }
+        }
+        return tables;
+    }
+
+    @Override
+    public boolean isTableAvailableAtDateTime(Integer tableId, LocalDateTime dateTime) {
+        TableOccupancyIndex index = occupancyIndex;
+        if (index == null || !index.isLoaded()) {
+            return isTableAvailableAtDateTimeFromDatabase(tableId, dateTime);
+        }
+
+        boolean available = index.isTableAvailableAtDateTime(tableId, dateTime);
+        if (occupancyConsistencyCheck) {
+            boolean expected = isTableAvailableAtDateTimeFromDatabase(tableId, dateTime);
+            if (expected != available) {
+                reportOccupancyMismatch(index, "isTableAvailableAtDateTime(" + tableId + ", " + dateTime + ")",
+                        expected, available);
+                return expected;
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public List<Table> findAvailableTables(LocalDateTime from, LocalDateTime to, int partySize) {
+        validateInterval(from, to);
+        if (partySize < 1) {
+            throw new IllegalArgumentException("Party size must be at least 1");
+        }
+
+        TableOccupancyIndex index = occupancyIndex;
+        if (index == null || !index.isLoaded()) {
+            return findAvailableTablesFromDatabase(from, to, partySize);
+        }
+
+        List<Table> tables = new ArrayList<>();
+        for (Table table : index.getTables()) {
+            if (table.getCapacity() >= partySize && index.isTableFreeBetween(table.getId(), from, to)) {
+                tables.add(table);
+            }
+        }
+        tables.sort(Comparator.comparing(Table::getCapacity).thenComparing(Table::getNumber));
+
+        if (occupancyConsistencyCheck) {
+            List<Table> expected = findAvailableTablesFromDatabase(from, to, partySize);
+            if (!expected.equals(tables)) {
+                reportOccupancyMismatch(index, "findAvailableTables(" + from + ", " + to + ", " + partySize + ")",
+                        expected, tables);
+                return expected;
+            }
+        }
+        return tables;
+    }
+
+    @Override
+    public int countAvailableSeats(LocalDateTime from, LocalDateTime to) {
+        validateInterval(from, to);
+
+        TableOccupancyIndex index = occupancyIndex;
+        if (index == null || !index.isLoaded()) {
+            return countAvailableSeatsFromDatabase(from, to);
+        }
+
+        int seats = 0;
+        for (Table table : index.getTables()) {
+            if (index.isTableFreeBetween(table.getId(), from, to)) {
+                seats += table.getCapacity();
+            }
+        }
+
+        if (occupancyConsistencyCheck) {
+            int expected = countAvailableSeatsFromDatabase(from, to);
+            if (expected != seats) {
+                reportOccupancyMismatch(index, "countAvailableSeats(" + from + ", " + to + ")", expected, seats);
+                return expected;
+            }
+        }
+        return seats;
+    }
+
+    private void validateInterval(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Interval bounds cannot be null");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Interval start must be before its end");
+        }
+    }
+
+    private List<Table> findAvailableTablesFromDatabase(LocalDateTime from, LocalDateTime to, int partySize) {
         Connection con = null;
         PreparedStatement stmt = null;
-        ResultSet generatedKeys = null;
+        ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "INSERT INTO restaurant_table (number, capacity) VALUES (?, ?)";
-            stmt = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            stmt.setInt(1, tableToSave.getNumber());
-            stmt.setInt(2, tableToSave.getCapacity());
-            stmt.executeUpdate();
+            con = borrowConnection("findAvailableTables");
+            String sql = "SELECT " + TableRowMapper.COLUMNS + " FROM restaurant_table t " +
+                    "WHERE t.capacity >= ? and NOT EXISTS (SELECT 1 FROM \"order\" o " +
+                    "WHERE o.id_table = t.id and o.installation_datetime < ? and o.departure_datetime > ? " +
+                    "and o.installation_datetime < o.departure_datetime) " +
+                    "ORDER BY t.capacity, t.number";
+            stmt = con.prepareStatement(sql);
+            stmt.setInt(1, partySize);
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+            stmt.setTimestamp(3, Timestamp.valueOf(from));
+            rs = stmt.executeQuery();
 
-            generatedKeys = stmt.getGeneratedKeys();
-            if (generatedKeys.next()) {
-                tableToSave.setId((int) generatedKeys.getLong(1));
+            RowMapper.Bound<Table> mapper = TableRowMapper.INSTANCE.bind(rs);
+            List<Table> tables = new ArrayList<>();
+            while (rs.next()) {
+                tables.add(mapper.map(rs));
+            }
+            return tables;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find available tables: " + e.getMessage(), e);
+        } finally {
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
+        }
+    }
+
+    private int countAvailableSeatsFromDatabase(LocalDateTime from, LocalDateTime to) {
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            con = borrowConnection("countAvailableSeats");
+            String sql = "SELECT COALESCE(SUM(t.capacity), 0) AS available_seats FROM restaurant_table t " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM \"order\" o " +
+                    "WHERE o.id_table = t.id and o.installation_datetime < ? and o.departure_datetime > ? " +
+                    "and o.installation_datetime < o.departure_datetime)";
+            stmt = con.prepareStatement(sql);
+            stmt.setTimestamp(1, Timestamp.valueOf(to));
+            stmt.setTimestamp(2, Timestamp.valueOf(from));
+            rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getInt("available_seats");
             }
+            return 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to count available seats: " + e.getMessage(), e);
+        } finally {
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
+        }
+    }
+
+    // ============= Occupancy Index Methods =============
+
+    /**
+     * Loads an in-memory occupancy index from {@code restaurant_table} and {@code "order"} and
+     * answers the availability methods from it from now on. With {@code consistencyCheck} every
+     * answer is also computed in SQL; mismatches are reported and the SQL answer wins.
+     */
+    public TableOccupancyIndex enableOccupancyIndex(boolean consistencyCheck) {
+        TableOccupancyIndex index = new TableOccupancyIndex();
+        // Published before loading so that orders saved meanwhile are not missed
+        this.occupancyConsistencyCheck = consistencyCheck;
+        this.occupancyIndex = index;
+        loadOccupancyIndex(index);
+        return index;
+    }
+
+    public void disableOccupancyIndex() {
+        this.occupancyIndex = null;
+    }
+
+    public TableOccupancyIndex getOccupancyIndex() {
+        return occupancyIndex;
+    }
 
-            return tableToSave;
+    private void loadOccupancyIndex(TableOccupancyIndex index) {
+        for (Table table : findAllTables()) {
+            index.putTable(table);
+        }
+
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            con = borrowConnection("enableOccupancyIndex");
+            String sql = "SELECT id_table, installation_datetime, departure_datetime FROM \"order\" " +
+                    "WHERE id_table is not null and installation_datetime is not null and departure_datetime is not null";
+            stmt = con.prepareStatement(sql);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                index.addOccupancy(rs.getInt("id_table"),
+                        rs.getTimestamp("installation_datetime").toLocalDateTime(),
+                        rs.getTimestamp("departure_datetime").toLocalDateTime());
+            }
+            index.markLoaded();
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to save table: " + e.getMessage(), e);
+            this.occupancyIndex = null;
+            throw new RuntimeException("Failed to load occupancy index: " + e.getMessage(), e);
         } finally {
-            dbConnection.attemptCloseDBConnection(generatedKeys, stmt, con);
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
         }
     }
 
-    @Override
-    public List<Table> findAvailableTablesAtDateTime(LocalDateTime dateTime) {
+    private void recordOccupancy(Order savedOrder) {
+        TableOccupancyIndex index = occupancyIndex;
+        if (index != null) {
+            index.addOccupancy(savedOrder.getTableId(), savedOrder.getInstallationDatetime(),
+                    savedOrder.getDepartureDatetime());
+        }
+    }
+
+    private void reportOccupancyMismatch(TableOccupancyIndex index, String call, Object expected, Object actual) {
+        long mismatches = index.recordConsistencyMismatch();
+        System.err.println("Warning: Occupancy index mismatch #" + mismatches + " on " + call
+                + ": database=" + expected + ", index=" + actual);
+    }
+
+    private List<Table> findAvailableTablesAtDateTimeFromDatabase(LocalDateTime dateTime) {
         Connection con = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM restaurant_table WHERE id NOT IN " +
+            con = borrowConnection("findAvailableTablesAtDateTime");
+            String sql = "SELECT " + TableRowMapper.COLUMNS + " FROM restaurant_table WHERE id NOT IN " +
                     "(SELECT id_table FROM \"order\" " +
                     "WHERE id_table is not null and ? < departure_datetime and ? > installation_datetime) " +
                     "ORDER BY number";
@@ -187,9 +718,10 @@ public class DataRetriever implements TableRepository {
             stmt.setTimestamp(2, Timestamp.valueOf(dateTime));
             rs = stmt.executeQuery();
 
+            RowMapper.Bound<Table> mapper = TableRowMapper.INSTANCE.bind(rs);
             List<Table> tables = new ArrayList<>();
             while (rs.next()) {
-                tables.add(mapTableFromResultSet(rs));
+                tables.add(mapper.map(rs));
             }
             return tables;
         } catch (SQLException e) {
@@ -199,14 +731,13 @@ public class DataRetriever implements TableRepository {
         }
     }
 
-    @Override
-    public boolean isTableAvailableAtDateTime(Integer tableId, LocalDateTime dateTime) {
+    private boolean isTableAvailableAtDateTimeFromDatabase(Integer tableId, LocalDateTime dateTime) {
         Connection con = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
+            con = borrowConnection("isTableAvailableAtDateTime");
             String sql = "SELECT COUNT(*) as conflict_count FROM \"order\" " +
                     "WHERE id_table = ? and ? < departure_datetime and ? > installation_datetime";
             stmt = con.prepareStatement(sql);
@@ -229,14 +760,6 @@ public class DataRetriever implements TableRepository {
 
     // ============= Helper Methods =============
 
-    private Table mapTableFromResultSet(ResultSet tableRs) throws SQLException {
-        Table table = new Table();
-        table.setId(tableRs.getInt("id"));
-        table.setNumber(tableRs.getInt("number"));
-        table.setCapacity(tableRs.getInt("capacity"));
-        return table;
-    }
-
     private void rollbackQuietly(Connection con) {
         try {
             if (con != null && !con.isClosed()) {
@@ -259,41 +782,55 @@ public class DataRetriever implements TableRepository {
 
     // ============= Dish Methods =============
 
-    public void saveDish(Dish dishToSave) {
-        Connection con = null;
-        PreparedStatement stmt = null;
+    public Dish saveDish(Dish dishToSave) {
+        insertOne("saveDish", INSERT_DISH_SQL, dishToSave, this::bindDish, Dish::setId, "dish");
+        invalidateCached(dishCache, dishToSave.getId());
+        requestMenuRebuild();
+        return dishToSave;
+    }
 
-        try {
-            con = dbConnection.getDBConnection();
-            String sql = "INSERT INTO dish (name, description, price, category, is_available) VALUES (?, ?, ?, ?, ?)";
-            stmt = con.prepareStatement(sql);
-            stmt.setString(1, dishToSave.getName());
-            stmt.setString(2, dishToSave.getDescription());
-            stmt.setBigDecimal(3, dishToSave.getPrice());
-            stmt.setString(4, dishToSave.getCategory());
-            stmt.setBoolean(5, dishToSave.getIsAvailable() != null ? dishToSave.getIsAvailable() : true);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to save dish: " + e.getMessage(), e);
-        } finally {
-            dbConnection.attemptCloseDBConnection(stmt, con);
+    /**
+     * Batch counterpart of {@link #saveDish(Dish)}: one connection, one transaction
+     */
+    public List<Dish> saveAllDishes(List<Dish> dishes) {
+        insertAll("saveAllDishes", INSERT_DISH_SQL, dishes, this::bindDish, Dish::setId, "dish");
+        for (Dish saved : dishes) {
+            invalidateCached(dishCache, saved.getId());
         }
+        requestMenuRebuild();
+        return dishes;
+    }
+
+    private void bindDish(PreparedStatement stmt, Dish dish) throws SQLException {
+        stmt.setString(1, dish.getName());
+        stmt.setString(2, dish.getDescription());
+        stmt.setBigDecimal(3, dish.getPrice());
+        stmt.setString(4, dish.getCategory());
+        stmt.setBoolean(5, dish.getIsAvailable() != null ? dish.getIsAvailable() : true);
     }
 
     public Dish findDishById(Integer dishId) {
+        EntityCache<Integer, Dish> cache = dishCache;
+        if (cache != null) {
+            return cache.get(dishId, this::loadDishById);
+        }
+        return loadDishById(dishId);
+    }
+
+    private Dish loadDishById(Integer dishId) {
         Connection con = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM dish WHERE id = ?";
+            con = borrowConnection("findDishById");
+            String sql = "SELECT " + DishRowMapper.COLUMNS + " FROM dish WHERE id = ?";
             stmt = con.prepareStatement(sql);
             stmt.setInt(1, dishId);
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return mapDishFromResultSet(rs);
+                return DishRowMapper.INSTANCE.bind(rs).map(rs);
             }
             return null;
         } catch (SQLException e) {
@@ -305,18 +842,19 @@ public class DataRetriever implements TableRepository {
 
     public List<Dish> findAllDishes() {
         Connection con = null;
-        Statement stmt = null;
+        PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM dish ORDER BY name";
-            stmt = con.createStatement();
-            rs = stmt.executeQuery(sql);
+            con = borrowConnection("findAllDishes");
+            String sql = "SELECT " + DishRowMapper.COLUMNS + " FROM dish ORDER BY name";
+            stmt = con.prepareStatement(sql);
+            rs = stmt.executeQuery();
 
+            RowMapper.Bound<Dish> mapper = DishRowMapper.INSTANCE.bind(rs);
             List<Dish> dishes = new ArrayList<>();
             while (rs.next()) {
-                dishes.add(mapDishFromResultSet(rs));
+                dishes.add(mapper.map(rs));
             }
             return dishes;
         } catch (SQLException e) {
@@ -326,21 +864,42 @@ public class DataRetriever implements TableRepository {
         }
     }
 
-    public List<Dish> findDishesByCategory(String category) {
-        Connection con = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
+    /**
+     * Streaming variant of {@link #findAllDishes()}; close the stream to release its connection
+     */
+    public Stream<Dish> streamAllDishes() {
+        return streamQuery("streamAllDishes", "SELECT " + DishRowMapper.COLUMNS + " FROM dish ORDER BY name", DishRowMapper.INSTANCE, "dishes");
+    }
+
+    /**
+     * Available dishes of the category, sorted by name. With the menu catalog enabled they come
+     * from its snapshot, copied so that changing them does not alter the published menu.
+     */
+    public List<Dish> findDishesByCategory(String category) {
+        MenuCatalog catalog = menuCatalog;
+        if (catalog != null) {
+            List<Dish> dishes = new ArrayList<>();
+            for (Dish dish : catalog.getDishesByCategory(category)) {
+                dishes.add(copyOf(dish));
+            }
+            return dishes;
+        }
+
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM dish WHERE category = ? AND is_available = true ORDER BY name";
+            con = borrowConnection("findDishesByCategory");
+            String sql = "SELECT " + DishRowMapper.COLUMNS + " FROM dish WHERE category = ? AND is_available = true ORDER BY name";
             stmt = con.prepareStatement(sql);
             stmt.setString(1, category);
             rs = stmt.executeQuery();
 
+            RowMapper.Bound<Dish> mapper = DishRowMapper.INSTANCE.bind(rs);
             List<Dish> dishes = new ArrayList<>();
             while (rs.next()) {
-                dishes.add(mapDishFromResultSet(rs));
+                dishes.add(mapper.map(rs));
             }
             return dishes;
         } catch (SQLException e) {
@@ -350,42 +909,119 @@ public class DataRetriever implements TableRepository {
         }
     }
 
-    // ============= Ingredient Methods =============
+    // ============= Menu Catalog Methods =============
 
-    public void saveIngredient(Ingredient ingredientToSave) {
+    /**
+     * Serves {@link #findDishesByCategory(String)} from an in-memory {@link MenuCatalog} snapshot,
+     * rebuilt in the background whenever dishes are saved through this retriever. Dishes loaded
+     * by other means need a {@link #requestMenuRebuild()}.
+     */
+    public MenuCatalog enableMenuCatalog() {
+        MenuCatalog catalog = new MenuCatalog(this::findAvailableDishes);
+        disableMenuCatalog();
+        this.menuCatalog = catalog;
+        return catalog;
+    }
+
+    public void disableMenuCatalog() {
+        MenuCatalog current = menuCatalog;
+        menuCatalog = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    public MenuCatalog getMenuCatalog() {
+        return menuCatalog;
+    }
+
+    public void requestMenuRebuild() {
+        MenuCatalog catalog = menuCatalog;
+        if (catalog != null) {
+            catalog.requestRebuild();
+        }
+    }
+
+    private List<Dish> findAvailableDishes() {
         Connection con = null;
         PreparedStatement stmt = null;
+        ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "INSERT INTO ingredient (name, description, quantity_in_stock, unit) VALUES (?, ?, ?, ?)";
+            con = borrowConnection("rebuildMenu");
+            String sql = "SELECT " + DishRowMapper.COLUMNS + " FROM dish WHERE is_available = true ORDER BY name";
             stmt = con.prepareStatement(sql);
-            stmt.setString(1, ingredientToSave.getName());
-            stmt.setString(2, ingredientToSave.getDescription());
-            stmt.setBigDecimal(3, ingredientToSave.getQuantityInStock());
-            stmt.setString(4, ingredientToSave.getUnit());
-            stmt.executeUpdate();
+            rs = stmt.executeQuery();
+
+            RowMapper.Bound<Dish> mapper = DishRowMapper.INSTANCE.bind(rs);
+            List<Dish> dishes = new ArrayList<>();
+            while (rs.next()) {
+                dishes.add(mapper.map(rs));
+            }
+            return dishes;
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to save ingredient: " + e.getMessage(), e);
+            throw new RuntimeException("Failed to load menu: " + e.getMessage(), e);
         } finally {
-            dbConnection.attemptCloseDBConnection(stmt, con);
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
+        }
+    }
+
+    private Dish copyOf(Dish dish) {
+        Dish copy = new Dish(dish.getName(), dish.getDescription(), dish.getPrice(), dish.getCategory());
+        copy.setId(dish.getId());
+        copy.setIsAvailable(dish.getIsAvailable());
+        copy.setCreatedAt(dish.getCreatedAt());
+        return copy;
+    }
+
+    // ============= Ingredient Methods =============
+
+    public Ingredient saveIngredient(Ingredient ingredientToSave) {
+        insertOne("saveIngredient", INSERT_INGREDIENT_SQL, ingredientToSave, this::bindIngredient, Ingredient::setId, "ingredient");
+        invalidateCached(ingredientCache, ingredientToSave.getId());
+        return ingredientToSave;
+    }
+
+    /**
+     * Batch counterpart of {@link #saveIngredient(Ingredient)}: one connection, one transaction
+     */
+    public List<Ingredient> saveAllIngredients(List<Ingredient> ingredients) {
+        insertAll("saveAllIngredients", INSERT_INGREDIENT_SQL, ingredients, this::bindIngredient, Ingredient::setId, "ingredient");
+        for (Ingredient saved : ingredients) {
+            invalidateCached(ingredientCache, saved.getId());
         }
+        return ingredients;
+    }
+
+    private void bindIngredient(PreparedStatement stmt, Ingredient ingredient) throws SQLException {
+        stmt.setString(1, ingredient.getName());
+        stmt.setString(2, ingredient.getDescription());
+        stmt.setBigDecimal(3, ingredient.getQuantityInStock());
+        stmt.setString(4, ingredient.getUnit());
     }
 
     public Ingredient findIngredientById(Integer ingredientId) {
+        EntityCache<Integer, Ingredient> cache = ingredientCache;
+        if (cache != null) {
+            return cache.get(ingredientId, this::loadIngredientById);
+        }
+        return loadIngredientById(ingredientId);
+    }
+
+    private Ingredient loadIngredientById(Integer ingredientId) {
         Connection con = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM ingredient WHERE id = ?";
+            con = borrowConnection("findIngredientById");
+            String sql = "SELECT " + IngredientRowMapper.COLUMNS + " FROM ingredient WHERE id = ?";
             stmt = con.prepareStatement(sql);
             stmt.setInt(1, ingredientId);
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return mapIngredientFromResultSet(rs);
+                return IngredientRowMapper.INSTANCE.bind(rs).map(rs);
             }
             return null;
         } catch (SQLException e) {
@@ -397,18 +1033,19 @@ public class DataRetriever implements TableRepository {
 
     public List<Ingredient> findAllIngredients() {
         Connection con = null;
-        Statement stmt = null;
+        PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM ingredient ORDER BY name";
-            stmt = con.createStatement();
-            rs = stmt.executeQuery(sql);
+            con = borrowConnection("findAllIngredients");
+            String sql = "SELECT " + IngredientRowMapper.COLUMNS + " FROM ingredient ORDER BY name";
+            stmt = con.prepareStatement(sql);
+            rs = stmt.executeQuery();
 
+            RowMapper.Bound<Ingredient> mapper = IngredientRowMapper.INSTANCE.bind(rs);
             List<Ingredient> ingredients = new ArrayList<>();
             while (rs.next()) {
-                ingredients.add(mapIngredientFromResultSet(rs));
+                ingredients.add(mapper.map(rs));
             }
             return ingredients;
         } catch (SQLException e) {
@@ -418,27 +1055,222 @@ public class DataRetriever implements TableRepository {
         }
     }
 
-    // ============= OrderItem Methods =============
+    /**
+     * Streaming variant of {@link #findAllIngredients()}; close the stream to release its connection
+     */
+    public Stream<Ingredient> streamAllIngredients() {
+        return streamQuery("streamAllIngredients", "SELECT " + IngredientRowMapper.COLUMNS + " FROM ingredient ORDER BY name", IngredientRowMapper.INSTANCE, "ingredients");
+    }
 
-    public void saveOrderItem(OrderItem itemToSave) {
+    // ============= Recipe Methods =============
+
+    public DishIngredient saveDishIngredient(DishIngredient dishIngredientToSave) {
+        insertOne("saveDishIngredient", INSERT_DISH_INGREDIENT_SQL, dishIngredientToSave, this::bindDishIngredient, DishIngredient::setId, "dish ingredient");
+        refreshServingsForDishes(List.of(dishIngredientToSave.getDishId()));
+        return dishIngredientToSave;
+    }
+
+    /**
+     * Batch counterpart of {@link #saveDishIngredient(DishIngredient)}: one connection, one transaction
+     */
+    public List<DishIngredient> saveAllDishIngredients(List<DishIngredient> dishIngredients) {
+        insertAll("saveAllDishIngredients", INSERT_DISH_INGREDIENT_SQL, dishIngredients, this::bindDishIngredient, DishIngredient::setId, "dish ingredient");
+        Set<Integer> dishIds = new LinkedHashSet<>();
+        for (DishIngredient saved : dishIngredients) {
+            dishIds.add(saved.getDishId());
+        }
+        refreshServingsForDishes(dishIds);
+        return dishIngredients;
+    }
+
+    private void bindDishIngredient(PreparedStatement stmt, DishIngredient dishIngredient) throws SQLException {
+        stmt.setInt(1, dishIngredient.getDishId());
+        stmt.setInt(2, dishIngredient.getIngredientId());
+        stmt.setBigDecimal(3, dishIngredient.getQuantity());
+        stmt.setString(4, dishIngredient.getUnit());
+    }
+
+    public List<DishIngredient> findDishIngredientsByDishId(Integer dishId) {
         Connection con = null;
         PreparedStatement stmt = null;
+        ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "INSERT INTO order_item (id_order, id_dish, quantity, unit_price, notes) VALUES (?, ?, ?, ?, ?)";
+            con = borrowConnection("findDishIngredientsByDishId");
+            String sql = "SELECT " + DishIngredientRowMapper.COLUMNS + " FROM dish_ingredient WHERE id_dish = ? ORDER BY id_ingredient";
             stmt = con.prepareStatement(sql);
-            stmt.setInt(1, itemToSave.getOrderId());
-            stmt.setInt(2, itemToSave.getDishId());
-            stmt.setInt(3, itemToSave.getQuantity());
-            stmt.setBigDecimal(4, itemToSave.getUnitPrice());
-            stmt.setString(5, itemToSave.getNotes());
-            stmt.executeUpdate();
+            stmt.setInt(1, dishId);
+            rs = stmt.executeQuery();
+
+            RowMapper.Bound<DishIngredient> mapper = DishIngredientRowMapper.INSTANCE.bind(rs);
+            List<DishIngredient> recipe = new ArrayList<>();
+            while (rs.next()) {
+                recipe.add(mapper.map(rs));
+            }
+            return recipe;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find dish ingredients: " + e.getMessage(), e);
+        } finally {
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
+        }
+    }
+
+    // ============= Stock Methods =============
+
+    /**
+     * Makes {@link #saveOrderAggregate} take the ingredients of the saved items out of stock,
+     * and enables {@link #consumeStock(Collection)}
+     */
+    public void enableStockConsumption(StockPolicy policy) {
+        this.stockEngine = new StockEngine(dbConnection, policy);
+    }
+
+    public void disableStockConsumption() {
+        this.stockEngine = null;
+    }
+
+    public StockEngine getStockEngine() {
+        return stockEngine;
+    }
+
+    /**
+     * Takes the ingredients of order items saved earlier out of stock, in one transaction.
+     * Items whose stock was already consumed are skipped, so retrying is safe.
+     */
+    public StockConsumption consumeStock(Collection<Integer> orderItemIds) {
+        StockEngine engine = stockEngine;
+        if (engine == null) {
+            throw new IllegalStateException("Stock consumption is not enabled");
+        }
+        StockConsumption consumption = engine.consumeOrderItems(orderItemIds);
+        stockChanged(consumption);
+        return consumption;
+    }
+
+    /**
+     * Sets the stock of an ingredient, e.g. after a delivery or an inventory count
+     */
+    public void updateIngredientStock(Integer ingredientId, BigDecimal quantityInStock) {
+        Connection con = null;
+        PreparedStatement stmt = null;
+
+        try {
+            con = borrowConnection("updateIngredientStock");
+            stmt = con.prepareStatement("UPDATE ingredient SET quantity_in_stock = ? WHERE id = ?");
+            stmt.setBigDecimal(1, quantityInStock);
+            stmt.setInt(2, ingredientId);
+            if (stmt.executeUpdate() == 0) {
+                throw new RuntimeException("Ingredient " + ingredientId + " does not exist");
+            }
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to save order item: " + e.getMessage(), e);
+            throw new RuntimeException("Failed to update ingredient stock: " + e.getMessage(), e);
         } finally {
             dbConnection.attemptCloseDBConnection(stmt, con);
         }
+        invalidateCached(ingredientCache, ingredientId);
+        refreshServingsForIngredients(List.of(ingredientId));
+    }
+
+    private void stockChanged(StockConsumption consumption) {
+        List<Integer> changedIngredientIds = consumption.getChangedIngredientIds();
+        for (Integer ingredientId : changedIngredientIds) {
+            invalidateCached(ingredientCache, ingredientId);
+        }
+        refreshServingsForIngredients(changedIngredientIds);
+    }
+
+    // ============= Servings Methods =============
+
+    /**
+     * Maintains the number of portions each dish can still be made in, and takes dishes off the
+     * menu when they run out. Figures are refreshed after stock changes made through this
+     * retriever; changes made by other means need a {@link #refreshServingsForIngredients}.
+     */
+    public DishServingsTracker enableServingsTracking() {
+        DishServingsTracker tracker = new DishServingsTracker(dbConnection);
+        dishesFlipped(tracker.loadAll());
+        this.servingsTracker = tracker;
+        return tracker;
+    }
+
+    public void disableServingsTracking() {
+        this.servingsTracker = null;
+    }
+
+    public DishServingsTracker getServingsTracker() {
+        return servingsTracker;
+    }
+
+    /**
+     * Portions of the dish the stock still allows, or {@code null} when it is not tracked
+     */
+    public Integer getServingsAvailable(Integer dishId) {
+        DishServingsTracker tracker = servingsTracker;
+        if (tracker == null) {
+            throw new IllegalStateException("Servings tracking is not enabled");
+        }
+        return tracker.getServings(dishId);
+    }
+
+    public void refreshServingsForIngredients(Collection<Integer> ingredientIds) {
+        DishServingsTracker tracker = servingsTracker;
+        if (tracker != null) {
+            refreshServings(() -> tracker.refreshForIngredients(ingredientIds));
+        }
+    }
+
+    private void refreshServingsForDishes(Collection<Integer> dishIds) {
+        DishServingsTracker tracker = servingsTracker;
+        if (tracker != null) {
+            refreshServings(() -> tracker.refreshForDishes(dishIds));
+        }
+    }
+
+    /**
+     * The stock change is already committed, so a failed refresh is only reported
+     */
+    private void refreshServings(Supplier<Set<Integer>> refresh) {
+        try {
+            dishesFlipped(refresh.get());
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Servings refresh failed: " + e.getMessage());
+        }
+    }
+
+    private void dishesFlipped(Set<Integer> dishIds) {
+        if (dishIds.isEmpty()) {
+            return;
+        }
+        for (Integer dishId : dishIds) {
+            invalidateCached(dishCache, dishId);
+        }
+        requestMenuRebuild();
+    }
+
+    // ============= OrderItem Methods =============
+
+    public OrderItem saveOrderItem(OrderItem itemToSave) {
+        if (groupCommitWriter != null) {
+            return awaitGroupCommit(submitOrderItem(itemToSave));
+        }
+        insertOne("saveOrderItem", INSERT_ORDER_ITEM_SQL, itemToSave, this::bindOrderItem, OrderItem::setId, "order item");
+        return itemToSave;
+    }
+
+    /**
+     * Batch counterpart of {@link #saveOrderItem(OrderItem)}: one connection, one transaction
+     */
+    public List<OrderItem> saveAllOrderItems(List<OrderItem> items) {
+        insertAll("saveAllOrderItems", INSERT_ORDER_ITEM_SQL, items, this::bindOrderItem, OrderItem::setId, "order item");
+        return items;
+    }
+
+    private void bindOrderItem(PreparedStatement stmt, OrderItem item) throws SQLException {
+        stmt.setInt(1, item.getOrderId());
+        stmt.setInt(2, item.getDishId());
+        stmt.setInt(3, item.getQuantity());
+        stmt.setBigDecimal(4, item.getUnitPrice());
+        stmt.setString(5, item.getNotes());
     }
 
     public List<OrderItem> findOrderItemsByOrderId(Integer orderId) {
@@ -447,15 +1279,16 @@ public class DataRetriever implements TableRepository {
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM order_item WHERE id_order = ? ORDER BY created_at";
+            con = borrowConnection("findOrderItemsByOrderId");
+            String sql = "SELECT " + OrderItemRowMapper.COLUMNS + " FROM order_item WHERE id_order = ? ORDER BY created_at";
             stmt = con.prepareStatement(sql);
             stmt.setInt(1, orderId);
             rs = stmt.executeQuery();
 
+            RowMapper.Bound<OrderItem> mapper = OrderItemRowMapper.INSTANCE.bind(rs);
             List<OrderItem> items = new ArrayList<>();
             while (rs.next()) {
-                items.add(mapOrderItemFromResultSet(rs));
+                items.add(mapper.map(rs));
             }
             return items;
         } catch (SQLException e) {
@@ -465,26 +1298,35 @@ public class DataRetriever implements TableRepository {
         }
     }
 
+    /**
+     * Items of several orders at once, keyed by order id in the order the ids were given.
+     * Orders without items map to an empty list.
+     */
+    public Map<Integer, List<OrderItem>> findOrderItemsByOrderIds(Collection<Integer> orderIds) {
+        String sql = "SELECT " + OrderItemRowMapper.COLUMNS + " FROM order_item WHERE id_order = ANY(?) ORDER BY created_at";
+        return findGroupedByOrderIds("findOrderItemsByOrderIds", sql, orderIds, OrderItemRowMapper.INSTANCE, OrderItem::getOrderId, "order items");
+    }
+
     // ============= Customer Methods =============
 
-    public void saveCustomer(Customer customerToSave) {
-        Connection con = null;
-        PreparedStatement stmt = null;
+    public Customer saveCustomer(Customer customerToSave) {
+        insertOne("saveCustomer", INSERT_CUSTOMER_SQL, customerToSave, this::bindCustomer, Customer::setId, "customer");
+        return customerToSave;
+    }
 
-        try {
-            con = dbConnection.getDBConnection();
-            String sql = "INSERT INTO customer (first_name, last_name, email, phone) VALUES (?, ?, ?, ?)";
-            stmt = con.prepareStatement(sql);
-            stmt.setString(1, customerToSave.getFirstName());
-            stmt.setString(2, customerToSave.getLastName());
-            stmt.setString(3, customerToSave.getEmail());
-            stmt.setString(4, customerToSave.getPhone());
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to save customer: " + e.getMessage(), e);
-        } finally {
-            dbConnection.attemptCloseDBConnection(stmt, con);
-        }
+    /**
+     * Batch counterpart of {@link #saveCustomer(Customer)}: one connection, one transaction
+     */
+    public List<Customer> saveAllCustomers(List<Customer> customers) {
+        insertAll("saveAllCustomers", INSERT_CUSTOMER_SQL, customers, this::bindCustomer, Customer::setId, "customer");
+        return customers;
+    }
+
+    private void bindCustomer(PreparedStatement stmt, Customer customer) throws SQLException {
+        stmt.setString(1, customer.getFirstName());
+        stmt.setString(2, customer.getLastName());
+        stmt.setString(3, customer.getEmail());
+        stmt.setString(4, customer.getPhone());
     }
 
     public Customer findCustomerById(Integer customerId) {
@@ -493,14 +1335,14 @@ public class DataRetriever implements TableRepository {
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM customer WHERE id = ?";
+            con = borrowConnection("findCustomerById");
+            String sql = "SELECT " + CustomerRowMapper.COLUMNS + " FROM customer WHERE id = ?";
             stmt = con.prepareStatement(sql);
             stmt.setInt(1, customerId);
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return mapCustomerFromResultSet(rs);
+                return CustomerRowMapper.INSTANCE.bind(rs).map(rs);
             }
             return null;
         } catch (SQLException e) {
@@ -512,18 +1354,19 @@ public class DataRetriever implements TableRepository {
 
     public List<Customer> findAllCustomers() {
         Connection con = null;
-        Statement stmt = null;
+        PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM customer ORDER BY last_name, first_name";
-            stmt = con.createStatement();
-            rs = stmt.executeQuery(sql);
+            con = borrowConnection("findAllCustomers");
+            String sql = "SELECT " + CustomerRowMapper.COLUMNS + " FROM customer ORDER BY last_name, first_name";
+            stmt = con.prepareStatement(sql);
+            rs = stmt.executeQuery();
 
+            RowMapper.Bound<Customer> mapper = CustomerRowMapper.INSTANCE.bind(rs);
             List<Customer> customers = new ArrayList<>();
             while (rs.next()) {
-                customers.add(mapCustomerFromResultSet(rs));
+                customers.add(mapper.map(rs));
             }
             return customers;
         } catch (SQLException e) {
@@ -533,45 +1376,64 @@ public class DataRetriever implements TableRepository {
         }
     }
 
+    /**
+     * Streaming variant of {@link #findAllCustomers()}; close the stream to release its connection
+     */
+    public Stream<Customer> streamAllCustomers() {
+        return streamQuery("streamAllCustomers", "SELECT " + CustomerRowMapper.COLUMNS + " FROM customer ORDER BY last_name, first_name", CustomerRowMapper.INSTANCE, "customers");
+    }
+
     // ============= Staff Methods =============
 
-    public void saveStaff(Staff staffToSave) {
-        Connection con = null;
-        PreparedStatement stmt = null;
+    public Staff saveStaff(Staff staffToSave) {
+        insertOne("saveStaff", INSERT_STAFF_SQL, staffToSave, this::bindStaff, Staff::setId, "staff");
+        invalidateCached(staffCache, staffToSave.getId());
+        return staffToSave;
+    }
 
-        try {
-            con = dbConnection.getDBConnection();
-            String sql = "INSERT INTO staff (first_name, last_name, email, phone, position, hire_date, is_active) VALUES (?, ?, ?, ?, ?, ?, ?)";
-            stmt = con.prepareStatement(sql);
-            stmt.setString(1, staffToSave.getFirstName());
-            stmt.setString(2, staffToSave.getLastName());
-            stmt.setString(3, staffToSave.getEmail());
-            stmt.setString(4, staffToSave.getPhone());
-            stmt.setString(5, staffToSave.getPosition());
-            stmt.setDate(6, staffToSave.getHireDate() != null ? java.sql.Date.valueOf(staffToSave.getHireDate()) : null);
-            stmt.setBoolean(7, staffToSave.getIsActive() != null ? staffToSave.getIsActive() : true);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to save staff: " + e.getMessage(), e);
-        } finally {
-            dbConnection.attemptCloseDBConnection(stmt, con);
+    /**
+     * Batch counterpart of {@link #saveStaff(Staff)}: one connection, one transaction
+     */
+    public List<Staff> saveAllStaff(List<Staff> staffList) {
+        insertAll("saveAllStaff", INSERT_STAFF_SQL, staffList, this::bindStaff, Staff::setId, "staff");
+        for (Staff saved : staffList) {
+            invalidateCached(staffCache, saved.getId());
         }
+        return staffList;
+    }
+
+    private void bindStaff(PreparedStatement stmt, Staff staff) throws SQLException {
+        stmt.setString(1, staff.getFirstName());
+        stmt.setString(2, staff.getLastName());
+        stmt.setString(3, staff.getEmail());
+        stmt.setString(4, staff.getPhone());
+        stmt.setString(5, staff.getPosition());
+        stmt.setDate(6, staff.getHireDate() != null ? java.sql.Date.valueOf(staff.getHireDate()) : null);
+        stmt.setBoolean(7, staff.getIsActive() != null ? staff.getIsActive() : true);
     }
 
     public Staff findStaffById(Integer staffId) {
+        EntityCache<Integer, Staff> cache = staffCache;
+        if (cache != null) {
+            return cache.get(staffId, this::loadStaffById);
+        }
+        return loadStaffById(staffId);
+    }
+
+    private Staff loadStaffById(Integer staffId) {
         Connection con = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM staff WHERE id = ?";
+            con = borrowConnection("findStaffById");
+            String sql = "SELECT " + StaffRowMapper.COLUMNS + " FROM staff WHERE id = ?";
             stmt = con.prepareStatement(sql);
             stmt.setInt(1, staffId);
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return mapStaffFromResultSet(rs);
+                return StaffRowMapper.INSTANCE.bind(rs).map(rs);
             }
             return null;
         } catch (SQLException e) {
@@ -583,18 +1445,19 @@ public class DataRetriever implements TableRepository {
 
     public List<Staff> findAllStaff() {
         Connection con = null;
-        Statement stmt = null;
+        PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM staff WHERE is_active = true ORDER BY last_name, first_name";
-            stmt = con.createStatement();
-            rs = stmt.executeQuery(sql);
+            con = borrowConnection("findAllStaff");
+            String sql = "SELECT " + StaffRowMapper.COLUMNS + " FROM staff WHERE is_active = true ORDER BY last_name, first_name";
+            stmt = con.prepareStatement(sql);
+            rs = stmt.executeQuery();
 
+            RowMapper.Bound<Staff> mapper = StaffRowMapper.INSTANCE.bind(rs);
             List<Staff> staffList = new ArrayList<>();
             while (rs.next()) {
-                staffList.add(mapStaffFromResultSet(rs));
+                staffList.add(mapper.map(rs));
             }
             return staffList;
         } catch (SQLException e) {
@@ -604,26 +1467,38 @@ public class DataRetriever implements TableRepository {
         }
     }
 
-    // ============= Payment Methods =============
+    /**
+     * Streaming variant of {@link #findAllStaff()}; close the stream to release its connection
+     */
+    public Stream<Staff> streamAllStaff() {
+        return streamQuery("streamAllStaff", "SELECT " + StaffRowMapper.COLUMNS + " FROM staff WHERE is_active = true ORDER BY last_name, first_name", StaffRowMapper.INSTANCE, "staff");
+    }
 
-    public void savePayment(Payment paymentToSave) {
-        Connection con = null;
-        PreparedStatement stmt = null;
+    // ============= Payment Methods =============
 
-        try {
-            con = dbConnection.getDBConnection();
-            String sql = "INSERT INTO payment (id_order, amount, payment_method, status) VALUES (?, ?, ?, ?)";
-            stmt = con.prepareStatement(sql);
-            stmt.setInt(1, paymentToSave.getOrderId());
-            stmt.setBigDecimal(2, paymentToSave.getAmount());
-            stmt.setString(3, paymentToSave.getPaymentMethod());
-            stmt.setString(4, paymentToSave.getStatus() != null ? paymentToSave.getStatus() : "completed");
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to save payment: " + e.getMessage(), e);
-        } finally {
-            dbConnection.attemptCloseDBConnection(stmt, con);
+    public Payment savePayment(Payment paymentToSave) {
+        if (groupCommitWriter != null) {
+            return awaitGroupCommit(submitPayment(paymentToSave));
         }
+        insertOne("savePayment", INSERT_PAYMENT_SQL, paymentToSave, this::bindPayment, Payment::setId, "payment");
+        paymentsSaved(List.of(paymentToSave));
+        return paymentToSave;
+    }
+
+    /**
+     * Batch counterpart of {@link #savePayment(Payment)}: one connection, one transaction
+     */
+    public List<Payment> saveAllPayments(List<Payment> payments) {
+        insertAll("saveAllPayments", INSERT_PAYMENT_SQL, payments, this::bindPayment, Payment::setId, "payment");
+        paymentsSaved(payments);
+        return payments;
+    }
+
+    private void bindPayment(PreparedStatement stmt, Payment payment) throws SQLException {
+        stmt.setInt(1, payment.getOrderId());
+        stmt.setBigDecimal(2, payment.getAmount());
+        stmt.setString(3, payment.getPaymentMethod());
+        stmt.setString(4, payment.getStatus() != null ? payment.getStatus() : "completed");
     }
 
     public Payment findPaymentById(Integer paymentId) {
@@ -632,14 +1507,14 @@ public class DataRetriever implements TableRepository {
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM payment WHERE id = ?";
+            con = borrowConnection("findPaymentById");
+            String sql = "SELECT " + PaymentRowMapper.COLUMNS + " FROM payment WHERE id = ?";
             stmt = con.prepareStatement(sql);
             stmt.setInt(1, paymentId);
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return mapPaymentFromResultSet(rs);
+                return PaymentRowMapper.INSTANCE.bind(rs).map(rs);
             }
             return null;
         } catch (SQLException e) {
@@ -655,15 +1530,16 @@ public class DataRetriever implements TableRepository {
         ResultSet rs = null;
 
         try {
-            con = dbConnection.getDBConnection();
-            String sql = "SELECT * FROM payment WHERE id_order = ? ORDER BY payment_date DESC";
+            con = borrowConnection("findPaymentsByOrderId");
+            String sql = "SELECT " + PaymentRowMapper.COLUMNS + " FROM payment WHERE id_order = ? ORDER BY payment_date DESC";
             stmt = con.prepareStatement(sql);
             stmt.setInt(1, orderId);
             rs = stmt.executeQuery();
 
+            RowMapper.Bound<Payment> mapper = PaymentRowMapper.INSTANCE.bind(rs);
             List<Payment> payments = new ArrayList<>();
             while (rs.next()) {
-                payments.add(mapPaymentFromResultSet(rs));
+                payments.add(mapper.map(rs));
             }
             return payments;
         } catch (SQLException e) {
@@ -673,97 +1549,641 @@ public class DataRetriever implements TableRepository {
         }
     }
 
-    // ============= Helper Mapping Methods =============
-
-    private Dish mapDishFromResultSet(ResultSet rs) throws SQLException {
-        Dish dish = new Dish();
-        dish.setId(rs.getInt("id"));
-        dish.setName(rs.getString("name"));
-        dish.setDescription(rs.getString("description"));
-        dish.setPrice(rs.getBigDecimal("price"));
-        dish.setCategory(rs.getString("category"));
-        dish.setIsAvailable(rs.getBoolean("is_available"));
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            dish.setCreatedAt(createdAt.toInstant());
-        }
-        return dish;
-    }
-
-    private Ingredient mapIngredientFromResultSet(ResultSet rs) throws SQLException {
-        Ingredient ingredient = new Ingredient();
-        ingredient.setId(rs.getInt("id"));
-        ingredient.setName(rs.getString("name"));
-        ingredient.setDescription(rs.getString("description"));
-        ingredient.setQuantityInStock(rs.getBigDecimal("quantity_in_stock"));
-        ingredient.setUnit(rs.getString("unit"));
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            ingredient.setCreatedAt(createdAt.toInstant());
-        }
-        return ingredient;
-    }
-
-    private OrderItem mapOrderItemFromResultSet(ResultSet rs) throws SQLException {
-        OrderItem item = new OrderItem();
-        item.setId(rs.getInt("id"));
-        item.setOrderId(rs.getInt("id_order"));
-        item.setDishId(rs.getInt("id_dish"));
-        item.setQuantity(rs.getInt("quantity"));
-        item.setUnitPrice(rs.getBigDecimal("unit_price"));
-        item.setNotes(rs.getString("notes"));
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            item.setCreatedAt(createdAt.toInstant());
-        }
-        return item;
-    }
-
-    private Customer mapCustomerFromResultSet(ResultSet rs) throws SQLException {
-        Customer customer = new Customer();
-        customer.setId(rs.getInt("id"));
-        customer.setFirstName(rs.getString("first_name"));
-        customer.setLastName(rs.getString("last_name"));
-        customer.setEmail(rs.getString("email"));
-        customer.setPhone(rs.getString("phone"));
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            customer.setCreatedAt(createdAt.toInstant());
-        }
-        return customer;
-    }
-
-    private Staff mapStaffFromResultSet(ResultSet rs) throws SQLException {
-        Staff staff = new Staff();
-        staff.setId(rs.getInt("id"));
-        staff.setFirstName(rs.getString("first_name"));
-        staff.setLastName(rs.getString("last_name"));
-        staff.setEmail(rs.getString("email"));
-        staff.setPhone(rs.getString("phone"));
-        staff.setPosition(rs.getString("position"));
-        Date hireDate = rs.getDate("hire_date");
-        if (hireDate != null) {
-            staff.setHireDate(hireDate.toLocalDate());
-        }
-        staff.setIsActive(rs.getBoolean("is_active"));
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            staff.setCreatedAt(createdAt.toInstant());
-        }
-        return staff;
-    }
-
-    private Payment mapPaymentFromResultSet(ResultSet rs) throws SQLException {
-        Payment payment = new Payment();
-        payment.setId(rs.getInt("id"));
-        payment.setOrderId(rs.getInt("id_order"));
-        payment.setAmount(rs.getBigDecimal("amount"));
-        payment.setPaymentMethod(rs.getString("payment_method"));
-        Timestamp paymentDate = rs.getTimestamp("payment_date");
-        if (paymentDate != null) {
-            payment.setPaymentDate(paymentDate.toInstant());
-        }
-        payment.setStatus(rs.getString("status"));
-        return payment;
+    /**
+     * Payments of several orders at once, keyed by order id; see {@link #findOrderItemsByOrderIds(Collection)}
+     */
+    public Map<Integer, List<Payment>> findPaymentsByOrderIds(Collection<Integer> orderIds) {
+        String sql = "SELECT " + PaymentRowMapper.COLUMNS + " FROM payment WHERE id_order = ANY(?) ORDER BY payment_date DESC";
+        return findGroupedByOrderIds("findPaymentsByOrderIds", sql, orderIds, PaymentRowMapper.INSTANCE, Payment::getOrderId, "payments");
+    }
+
+    // ============= Revenue Methods =============
+
+    /**
+     * Keeps the hourly revenue aggregates up to date: payments saved through this retriever are
+     * rolled up right after their commit, anything else is left to {@link RevenueRollup#catchUp()}
+     */
+    public RevenueRollup enableRevenueRollups() {
+        RevenueRollup rollup = new RevenueRollup(dbConnection);
+        disableRevenueRollups();
+        this.revenueRollup = rollup;
+        return rollup;
+    }
+
+    /**
+     * Stops the immediate roll-ups and the catch-up job, if one was started
+     */
+    public void disableRevenueRollups() {
+        RevenueRollup current = revenueRollup;
+        revenueRollup = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    public RevenueRollup getRevenueRollup() {
+        return revenueRollup;
+    }
+
+    public RevenueReport getRevenueReport() {
+        return new RevenueReport(dbConnection);
+    }
+
+    /**
+     * The payments are committed already; if the roll-up fails they stay pending for the catch-up
+     */
+    private void paymentsSaved(List<Payment> payments) {
+        RevenueRollup rollup = revenueRollup;
+        if (rollup == null || payments.isEmpty()) {
+            return;
+        }
+        List<Integer> paymentIds = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            if (payment.getId() != null) {
+                paymentIds.add(payment.getId());
+            }
+        }
+        try {
+            rollup.rollUp(paymentIds);
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Revenue roll-up deferred to catch-up: " + e.getMessage());
+        }
+    }
+
+    // ============= Table Hold Methods =============
+
+    /**
+     * Lets hosts hold a table in memory before booking it, see {@link #holdTable}. Only orders
+     * confirmed through {@link #confirmHold} are checked against the holds.
+     */
+    public TableHoldRegistry enableTableHolds() {
+        TableHoldRegistry enabled = new TableHoldRegistry();
+        disableTableHolds();
+        this.tableHolds = enabled;
+        return enabled;
+    }
+
+    public void disableTableHolds() {
+        TableHoldRegistry current = tableHolds;
+        tableHolds = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    public TableHoldRegistry getTableHolds() {
+        return tableHolds;
+    }
+
+    /**
+     * Holds the table for {@code (from, to)} during {@code ttl}. Competing hosts are turned away
+     * in memory; only the one granted the hold checks the bookings, from the occupancy index
+     * when it is loaded and from the database otherwise.
+     *
+     * @return the hold, or null when the table is held or booked for an overlapping interval
+     */
+    public TableHold holdTable(Integer tableId, LocalDateTime from, LocalDateTime to, Duration ttl) {
+        TableHoldRegistry registry = requireTableHolds();
+        TableHold hold = registry.tryHold(tableId, from, to, ttl);
+        if (hold == null) {
+            return null;
+        }
+        try {
+            if (!isTableFreeBetween(tableId, from, to)) {
+                registry.release(hold.getToken());
+                return null;
+            }
+        } catch (RuntimeException e) {
+            registry.release(hold.getToken());
+            throw e;
+        }
+        return hold;
+    }
+
+    /**
+     * Books the held table with {@link #saveOrder(Order)}; the table, installation and departure
+     * left unset on the order are taken from the hold. The hold is gone afterwards, whether
+     * the booking succeeded or not.
+     */
+    public Order confirmHold(String token, Order orderToSave) {
+        TableHoldRegistry registry = requireTableHolds();
+        TableHold hold = registry.getHold(token);
+        if (hold == null) {
+            throw new IllegalStateException("Hold " + token + " does not exist or has expired");
+        }
+        applyHold(hold, orderToSave);
+
+        hold = registry.claim(token);
+        boolean booked = false;
+        try {
+            saveOrder(orderToSave);
+            booked = true;
+            return orderToSave;
+        } finally {
+            registry.complete(hold, booked);
+        }
+    }
+
+    public boolean releaseHold(String token) {
+        return requireTableHolds().release(token);
+    }
+
+    private TableHoldRegistry requireTableHolds() {
+        TableHoldRegistry registry = tableHolds;
+        if (registry == null) {
+            throw new IllegalStateException("Table holds are not enabled");
+        }
+        return registry;
+    }
+
+    private void applyHold(TableHold hold, Order order) {
+        if (order.getTableId() == null) {
+            order.setTableId(hold.getTableId());
+        }
+        if (order.getInstallationDatetime() == null) {
+            order.setInstallationDatetime(hold.getFrom());
+        }
+        if (order.getDepartureDatetime() == null) {
+            order.setDepartureDatetime(hold.getTo());
+        }
+        if (!hold.getTableId().equals(order.getTableId())) {
+            throw new IllegalArgumentException("Order table " + order.getTableId()
+                    + " does not match held table " + hold.getTableId());
+        }
+        if (order.getInstallationDatetime().isBefore(hold.getFrom())
+                || order.getDepartureDatetime().isAfter(hold.getTo())
+                || !order.getInstallationDatetime().isBefore(order.getDepartureDatetime())) {
+            throw new IllegalArgumentException("Order interval must lie within the held interval "
+                    + hold.getFrom() + " - " + hold.getTo());
+        }
+    }
+
+    private boolean isTableFreeBetween(Integer tableId, LocalDateTime from, LocalDateTime to) {
+        TableOccupancyIndex index = occupancyIndex;
+        if (index == null || !index.isLoaded()) {
+            return isTableFreeBetweenFromDatabase(tableId, from, to);
+        }
+
+        boolean free = index.isTableFreeBetween(tableId, from, to);
+        if (occupancyConsistencyCheck) {
+            boolean expected = isTableFreeBetweenFromDatabase(tableId, from, to);
+            if (expected != free) {
+                reportOccupancyMismatch(index, "isTableFreeBetween(" + tableId + ", " + from + ", " + to + ")",
+                        expected, free);
+                return expected;
+            }
+        }
+        return free;
+    }
+
+    private boolean isTableFreeBetweenFromDatabase(Integer tableId, LocalDateTime from, LocalDateTime to) {
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            con = borrowConnection("holdTable");
+            String sql = "SELECT COUNT(*) as conflict_count FROM \"order\" " +
+                    "WHERE id_table = ? and installation_datetime < ? and departure_datetime > ? " +
+                    "and installation_datetime < departure_datetime";
+            stmt = con.prepareStatement(sql);
+            stmt.setInt(1, tableId);
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+            stmt.setTimestamp(3, Timestamp.valueOf(from));
+            rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getInt("conflict_count") == 0;
+            }
+            return true;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to check table availability: " + e.getMessage(), e);
+        } finally {
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
+        }
+    }
+
+    // ============= Metrics Methods =============
+
+    /**
+     * Records latency histograms and counters for every operation that borrows a connection
+     * and publishes them over JMX under {@code name}. Cache hits do not reach the database and
+     * are counted by {@link #getEntityCacheStats()} instead.
+     */
+    public DataRetrieverMetrics enableMetrics(String name) {
+        DataRetrieverMetrics enabled = new DataRetrieverMetrics(name);
+        disableMetrics();
+        this.metrics = enabled;
+        return enabled;
+    }
+
+    public void disableMetrics() {
+        DataRetrieverMetrics current = metrics;
+        metrics = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    public DataRetrieverMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Borrows a connection, instrumented for {@code operation} when metrics are enabled
+     */
+    private Connection borrowConnection(String operation) throws SQLException {
+        DataRetrieverMetrics current = metrics;
+        if (current == null) {
+            return dbConnection.getDBConnection();
+        }
+        return current.borrow(dbConnection, operation);
+    }
+
+    // ============= Group Commit Methods =============
+
+    /**
+     * Routes {@link #saveOrderItem(OrderItem)} and {@link #savePayment(Payment)} through a
+     * {@link GroupCommitWriter}: concurrent callers share one transaction per group instead of
+     * committing a row each. A larger max delay or batch size trades latency for throughput.
+     * Groups are recorded in the metrics under {@code saveOrderItem} or {@code savePayment}, or
+     * {@code groupCommit} when one transaction holds both.
+     */
+    public GroupCommitWriter enableGroupCommit(GroupCommitConfig config) {
+        GroupCommitWriter enabled = new GroupCommitWriter(dbConnection, this::borrowConnection, config);
+        disableGroupCommit();
+        this.groupCommitWriter = enabled;
+        return enabled;
+    }
+
+    /**
+     * Commits the rows already queued, then goes back to one transaction per row
+     */
+    public void disableGroupCommit() {
+        GroupCommitWriter current = groupCommitWriter;
+        groupCommitWriter = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    public GroupCommitWriter getGroupCommitWriter() {
+        return groupCommitWriter;
+    }
+
+    /**
+     * Completes once the item is committed, with its id set. Without group commit the item is
+     * saved on the caller's thread and the future is already done.
+     */
+    public CompletableFuture<OrderItem> submitOrderItem(OrderItem itemToSave) {
+        GroupCommitWriter writer = groupCommitWriter;
+        if (writer != null) {
+            return writer.submit(orderItemTarget, itemToSave);
+        }
+        return completedSave(() -> saveOrderItem(itemToSave));
+    }
+
+    /**
+     * Completes once the payment is committed, with its id set. Without group commit the
+     * payment is saved on the caller's thread and the future is already done.
+     */
+    public CompletableFuture<Payment> submitPayment(Payment paymentToSave) {
+        GroupCommitWriter writer = groupCommitWriter;
+        if (writer != null) {
+            return writer.submit(paymentTarget, paymentToSave);
+        }
+        return completedSave(() -> savePayment(paymentToSave));
+    }
+
+    private <T> CompletableFuture<T> completedSave(Supplier<T> save) {
+        try {
+            return CompletableFuture.completedFuture(save.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> T awaitGroupCommit(CompletableFuture<T> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // ============= Multi-Order Helpers =============
+
+    /**
+     * Runs {@code sql} with the order ids bound as one integer array, {@value #ID_CHUNK_SIZE} ids
+     * per execution, on a single connection
+     */
+    private <T> Map<Integer, List<T>> findGroupedByOrderIds(String operation, String sql,
+                                                            Collection<Integer> orderIds, RowMapper<T> rowMapper,
+                                                            Function<T, Integer> orderIdOf, String label) {
+        Map<Integer, List<T>> grouped = new LinkedHashMap<>();
+        for (Integer orderId : orderIds) {
+            if (orderId != null) {
+                grouped.putIfAbsent(orderId, new ArrayList<>());
+            }
+        }
+        if (grouped.isEmpty()) {
+            return grouped;
+        }
+
+        List<Integer> ids = new ArrayList<>(grouped.keySet());
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            con = borrowConnection(operation);
+            stmt = con.prepareStatement(sql);
+            for (int start = 0; start < ids.size(); start += ID_CHUNK_SIZE) {
+                List<Integer> chunk = ids.subList(start, Math.min(start + ID_CHUNK_SIZE, ids.size()));
+                Array idArray = con.createArrayOf("integer", chunk.toArray());
+                try {
+                    stmt.setArray(1, idArray);
+                    rs = stmt.executeQuery();
+                    RowMapper.Bound<T> mapper = rowMapper.bind(rs);
+                    while (rs.next()) {
+                        T row = mapper.map(rs);
+                        grouped.get(orderIdOf.apply(row)).add(row);
+                    }
+                    rs.close();
+                } finally {
+                    idArray.free();
+                }
+            }
+            return grouped;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find " + label + " by orders: " + e.getMessage(), e);
+        } finally {
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
+        }
+    }
+
+    // ============= Pagination Methods =============
+
+    /**
+     * Customers ordered by last name, first name and id, one page at a time. Pages are located
+     * by seeking past the last row of the previous page, so any page costs the same as the first.
+     *
+     * @param cursor {@link Page#getNextCursor()} of the previous page, or null for the first page
+     */
+    public Page<Customer> findCustomersPage(String cursor, int limit) {
+        String sql = "SELECT " + CustomerRowMapper.COLUMNS + " FROM customer " +
+                (cursor == null ? "" : "WHERE (last_name, first_name, id) > (?, ?, ?) ") +
+                "ORDER BY last_name, first_name, id LIMIT ?";
+        return queryPage("findCustomersPage", sql, "customer", cursor, 3, limit, this::bindNameKey, CustomerRowMapper.INSTANCE,
+                customer -> List.of(customer.getLastName(), customer.getFirstName(), String.valueOf(customer.getId())));
+    }
+
+    /**
+     * Active staff ordered like {@link #findAllStaff()}, one page at a time
+     */
+    public Page<Staff> findStaffPage(String cursor, int limit) {
+        String sql = "SELECT " + StaffRowMapper.COLUMNS + " FROM staff WHERE is_active = true " +
+                (cursor == null ? "" : "and (last_name, first_name, id) > (?, ?, ?) ") +
+                "ORDER BY last_name, first_name, id LIMIT ?";
+        return queryPage("findStaffPage", sql, "staff", cursor, 3, limit, this::bindNameKey, StaffRowMapper.INSTANCE,
+                staff -> List.of(staff.getLastName(), staff.getFirstName(), String.valueOf(staff.getId())));
+    }
+
+    public Page<Dish> findDishesPage(String cursor, int limit) {
+        String sql = "SELECT " + DishRowMapper.COLUMNS + " FROM dish " +
+                (cursor == null ? "" : "WHERE (name, id) > (?, ?) ") +
+                "ORDER BY name, id LIMIT ?";
+        return queryPage("findDishesPage", sql, "dish", cursor, 2, limit,
+                (stmt, key) -> {
+                    stmt.setString(1, key.get(0));
+                    stmt.setInt(2, Integer.parseInt(key.get(1)));
+                },
+                DishRowMapper.INSTANCE,
+                dish -> List.of(dish.getName(), String.valueOf(dish.getId())));
+    }
+
+    /**
+     * Payments, most recent first. Payments without a date sort last.
+     */
+    public Page<Payment> findPaymentsPage(String cursor, int limit) {
+        String sortDate = "COALESCE(payment_date, '-infinity'::timestamp)";
+        String sql = "SELECT " + PaymentRowMapper.COLUMNS + " FROM payment " +
+                (cursor == null ? "" : "WHERE (" + sortDate + ", id) < (?, ?) ") +
+                "ORDER BY " + sortDate + " DESC, id DESC LIMIT ?";
+        return queryPage("findPaymentsPage", sql, "payment", cursor, 2, limit,
+                (stmt, key) -> {
+                    stmt.setTimestamp(1, decodePageTimestamp(key.get(0)));
+                    stmt.setInt(2, Integer.parseInt(key.get(1)));
+                },
+                PaymentRowMapper.INSTANCE,
+                payment -> List.of(encodePageTimestamp(payment.getPaymentDate()), String.valueOf(payment.getId())));
+    }
+
+    // ============= Pagination Helpers =============
+
+    private <T> Page<T> queryPage(String operation, String sql, String listing, String cursor, int keySize, int limit,
+                                  ParameterBinder<List<String>> keyBinder, RowMapper<T> rowMapper,
+                                  Function<T, List<String>> keyOf) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            con = borrowConnection(operation);
+            stmt = con.prepareStatement(sql);
+            int limitIndex = 1;
+            if (cursor != null) {
+                keyBinder.bind(stmt, PageToken.decode(listing, cursor, keySize));
+                limitIndex = keySize + 1;
+            }
+            // One extra row tells whether another page follows
+            stmt.setInt(limitIndex, limit + 1);
+            rs = stmt.executeQuery();
+
+            RowMapper.Bound<T> mapper = rowMapper.bind(rs);
+            List<T> items = new ArrayList<>();
+            while (rs.next()) {
+                items.add(mapper.map(rs));
+            }
+
+            String nextCursor = null;
+            if (items.size() > limit) {
+                items.remove(limit);
+                nextCursor = PageToken.encode(listing, keyOf.apply(items.get(limit - 1)));
+            }
+            return new Page<>(items, nextCursor);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find " + listing + " page: " + e.getMessage(), e);
+        } finally {
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
+        }
+    }
+
+    private void bindNameKey(PreparedStatement stmt, List<String> key) throws SQLException {
+        stmt.setString(1, key.get(0));
+        stmt.setString(2, key.get(1));
+        stmt.setInt(3, Integer.parseInt(key.get(2)));
+    }
+
+    private String encodePageTimestamp(Instant instant) {
+        return instant == null ? "-infinity" : instant.getEpochSecond() + ":" + instant.getNano();
+    }
+
+    private Timestamp decodePageTimestamp(String value) {
+        if (value.equals("-infinity")) {
+            return new Timestamp(PGStatement.DATE_NEGATIVE_INFINITY);
+        }
+        String[] parts = value.split(":");
+        return Timestamp.from(Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])));
+    }
+
+    // ============= Streaming Helpers =============
+
+    /**
+     * Runs the query with autocommit off and a fetch size, which makes pgjdbc read the rows
+     * through a cursor {@code fetchSize} at a time instead of buffering the whole result.
+     * Closing the stream closes the statement and returns the connection.
+     */
+    private <T> Stream<T> streamQuery(String operation, String sql, RowMapper<T> rowMapper, String label) {
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            con = borrowConnection(operation);
+            con.setAutoCommit(false);
+            stmt = con.prepareStatement(sql);
+            stmt.setFetchSize(fetchSize);
+            rs = stmt.executeQuery();
+
+            ResultSet cursor = rs;
+            RowMapper.Bound<T> mapper = rowMapper.bind(cursor);
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!cursor.next()) {
+                            return false;
+                        }
+                        action.accept(mapper.map(cursor));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Failed to stream " + label + ": " + e.getMessage(), e);
+                    }
+                }
+            };
+
+            Connection streamCon = con;
+            PreparedStatement streamStmt = stmt;
+            return StreamSupport.stream(rows, false).onClose(() -> closeStream(cursor, streamStmt, streamCon));
+        } catch (SQLException | RuntimeException e) {
+            closeStream(rs, stmt, con);
+            throw new RuntimeException("Failed to stream " + label + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void closeStream(ResultSet rs, Statement stmt, Connection con) {
+        dbConnection.attemptCloseDBConnection(rs, stmt, null);
+        restoreAutoCommit(con);
+        dbConnection.attemptCloseDBConnection(con);
+    }
+
+    // ============= Insert Helpers =============
+
+    private <T> void insertOne(String operation, String sql, T row, ParameterBinder<T> binder,
+                               BiConsumer<T, Integer> idSetter, String label) {
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet generatedKeys = null;
+
+        try {
+            con = borrowConnection(operation);
+            stmt = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            binder.bind(stmt, row);
+            stmt.executeUpdate();
+
+            generatedKeys = stmt.getGeneratedKeys();
+            if (generatedKeys.next()) {
+                idSetter.accept(row, (int) generatedKeys.getLong(1));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save " + label + ": " + e.getMessage(), e);
+        } finally {
+            dbConnection.attemptCloseDBConnection(generatedKeys, stmt, con);
+        }
+    }
+
+    /**
+     * Inserts the rows in one transaction, in JDBC batches of {@link #setBatchSize(int) batchSize},
+     * and sets the generated ids back on them. When the transaction fails, every row is left
+     * without an id.
+     */
+    private <T> void insertAll(String operation, String sql, List<T> rows, ParameterBinder<T> binder,
+                               BiConsumer<T, Integer> idSetter, String label) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        Connection con = null;
+        try {
+            con = borrowConnection(operation);
+            con.setAutoCommit(false);
+
+            insertBatch(con, sql, rows, binder, idSetter);
+
+            con.commit();
+        } catch (SQLException | RuntimeException e) {
+            rollbackQuietly(con);
+            // Earlier chunks already got ids of rows the rollback removed
+            for (T row : rows) {
+                idSetter.accept(row, null);
+            }
+            throw new RuntimeException("Failed to save " + label + " batch: " + e.getMessage(), e);
+        } finally {
+            restoreAutoCommit(con);
+            dbConnection.attemptCloseDBConnection(con);
+        }
+    }
+
+    /**
+     * Inserts the rows on the caller's connection. With {@code reWriteBatchedInserts} the driver
+     * sends each batch as multi-row INSERTs; generated keys come back in insertion order.
+     */
+    private <T> void insertBatch(Connection con, String sql, List<T> rows, ParameterBinder<T> binder,
+                                 BiConsumer<T, Integer> idSetter) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int start = 0; start < rows.size(); start += batchSize) {
+                List<T> chunk = rows.subList(start, Math.min(start + batchSize, rows.size()));
+                for (T row : chunk) {
+                    binder.bind(stmt, row);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+
+                ResultSet generatedKeys = stmt.getGeneratedKeys();
+                try {
+                    for (T row : chunk) {
+                        if (!generatedKeys.next()) {
+                            break;
+                        }
+                        idSetter.accept(row, (int) generatedKeys.getLong(1));
+                    }
+                } finally {
+                    generatedKeys.close();
+                }
+            }
+        } finally {
+            dbConnection.attemptCloseDBConnection(stmt);
+        }
     }
 }
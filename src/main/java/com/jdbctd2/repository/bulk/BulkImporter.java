@@ -0,0 +1,234 @@
+package com.jdbctd2.repository.bulk;
+
+import com.jdbctd2.config.DBConnection;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Loads CSV files into the restaurant tables with PostgreSQL {@code COPY FROM STDIN}.
+ * <p>
+ * Each file is streamed into a temporary staging table, so files larger than memory are fine.
+ * Rows referencing a missing parent are then rejected (or fail the import in strict mode) and
+ * the rest is upserted into the target table on its natural key, all in one transaction.
+ * The first CSV line must name the columns, using the names of {@link ImportTarget#getColumns()}.
+ */
+public class BulkImporter {
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private final DBConnection dbConnection;
+    private boolean strict;
+
+    public BulkImporter() {
+        this(new DBConnection());
+    }
+
+    public BulkImporter(DBConnection dbConnection) {
+        this.dbConnection = dbConnection;
+    }
+
+    public boolean isStrict() {
+        return strict;
+    }
+
+    /**
+     * When strict, a single row with a dangling foreign key aborts the whole file
+     */
+    public void setStrict(boolean strict) {
+        this.strict = strict;
+    }
+
+    /**
+     * Imports several files in dependency order
+     */
+    public List<ImportReport> importAll(Map<ImportTarget, Path> csvFiles) {
+        List<ImportReport> reports = new ArrayList<>();
+        for (Map.Entry<ImportTarget, Path> entry : new EnumMap<>(csvFiles).entrySet()) {
+            reports.add(importCsv(entry.getKey(), entry.getValue()));
+        }
+        return reports;
+    }
+
+    public ImportReport importCsv(ImportTarget target, Path csvFile) {
+        try (Reader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            return importCsv(target, reader);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read " + csvFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    public ImportReport importCsv(ImportTarget target, Reader csv) {
+        long start = System.nanoTime();
+        Connection con = null;
+
+        try {
+            BufferedReader reader = csv instanceof BufferedReader buffered
+                    ? buffered : new BufferedReader(csv, READ_BUFFER_SIZE);
+            List<String> columns = readHeader(target, reader);
+
+            con = dbConnection.getDBConnection();
+            con.setAutoCommit(false);
+
+            String staging = target.getStagingTableName();
+            String columnList = String.join(", ", columns);
+            execute(con, "CREATE TEMP TABLE " + staging + " (LIKE " + target.getTableName()
+                    + " INCLUDING DEFAULTS) ON COMMIT DROP");
+
+            CopyManager copyManager = con.unwrap(PGConnection.class).getCopyAPI();
+            long copied = copyManager.copyIn("COPY " + staging + " (" + columnList + ") FROM STDIN WITH (FORMAT csv)",
+                    reader);
+
+            long rejected = rejectDanglingRows(con, target, columns);
+            List<String> insertedColumns = insertedColumns(target, columns);
+            long upserted = executeUpdate(con, buildUpsertSql(target, insertedColumns));
+            if (insertedColumns.contains("id")) {
+                execute(con, "SELECT setval(pg_get_serial_sequence('" + target.getTableName() + "', 'id'), " +
+                        "GREATEST((SELECT MAX(id) FROM " + target.getTableName() + "), 1))");
+            }
+
+            con.commit();
+            return new ImportReport(target, copied, rejected, upserted, System.nanoTime() - start);
+        } catch (SQLException | IOException | RuntimeException e) {
+            rollbackQuietly(con);
+            throw new RuntimeException("Failed to import " + target + ": " + e.getMessage(), e);
+        } finally {
+            restoreAutoCommit(con);
+            dbConnection.attemptCloseDBConnection(con);
+        }
+    }
+
+    // ============= Helper Methods =============
+
+    private List<String> readHeader(ImportTarget target, BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file for " + target + " is empty");
+        }
+
+        List<String> columns = new ArrayList<>();
+        for (String column : header.split(",")) {
+            String name = column.trim().replace("\"", "").toLowerCase();
+            if (!target.getColumns().contains(name)) {
+                throw new IllegalArgumentException("Unknown column '" + name + "' for " + target);
+            }
+            columns.add(name);
+        }
+        return columns;
+    }
+
+    private long rejectDanglingRows(Connection con, ImportTarget target, List<String> columns) throws SQLException {
+        long rejected = 0;
+        for (Map.Entry<String, String> foreignKey : target.getForeignKeys().entrySet()) {
+            if (!columns.contains(foreignKey.getKey())) {
+                continue;
+            }
+            String sql = "DELETE FROM " + target.getStagingTableName() + " s WHERE s." + foreignKey.getKey()
+                    + " IS NOT NULL AND NOT EXISTS (SELECT 1 FROM " + foreignKey.getValue()
+                    + " p WHERE p.id = s." + foreignKey.getKey() + ")";
+            long dangling = executeUpdate(con, sql);
+            if (dangling > 0 && strict) {
+                throw new IllegalStateException(dangling + " rows reference a missing " + foreignKey.getValue()
+                        + " through " + foreignKey.getKey());
+            }
+            rejected += dangling;
+        }
+        return rejected;
+    }
+
+    /**
+     * Columns copied from staging into the target. When rows are matched on a key other than
+     * {@code id}, the file's ids are dropped and new rows take theirs from the sequence: an id
+     * colliding with an unrelated row would otherwise fail the whole import, since ON CONFLICT
+     * only covers the natural key.
+     */
+    private List<String> insertedColumns(ImportTarget target, List<String> columns) {
+        List<String> key = target.getNaturalKey();
+        if (key.contains("id") || !columns.containsAll(key) || !columns.contains("id")) {
+            return columns;
+        }
+        List<String> inserted = new ArrayList<>(columns);
+        inserted.remove("id");
+        return inserted;
+    }
+
+    /**
+     * Duplicates of the same key inside one file are collapsed to the last one read, since
+     * ON CONFLICT cannot touch the same row twice in a statement
+     */
+    private String buildUpsertSql(ImportTarget target, List<String> columns) {
+        List<String> key = columns.containsAll(target.getNaturalKey()) ? target.getNaturalKey() : List.of();
+        String columnList = String.join(", ", columns);
+
+        StringBuilder sql = new StringBuilder();
+        sql.append("INSERT INTO ").append(target.getTableName()).append(" (").append(columnList).append(") ");
+        if (key.isEmpty()) {
+            sql.append("SELECT ").append(columnList).append(" FROM ").append(target.getStagingTableName());
+            return sql.toString();
+        }
+
+        String keyList = String.join(", ", key);
+        sql.append("SELECT DISTINCT ON (").append(keyList).append(") ").append(columnList)
+                .append(" FROM ").append(target.getStagingTableName())
+                .append(" ORDER BY ").append(keyList).append(", ctid DESC")
+                .append(" ON CONFLICT (").append(keyList).append(") ");
+
+        StringJoiner updates = new StringJoiner(", ");
+        for (String column : columns) {
+            if (!key.contains(column) && !column.equals("id")) {
+                updates.add(column + " = EXCLUDED." + column);
+            }
+        }
+        if (updates.length() == 0) {
+            sql.append("DO NOTHING");
+        } else {
+            sql.append("DO UPDATE SET ").append(updates);
+        }
+        return sql.toString();
+    }
+
+    private void execute(Connection con, String sql) throws SQLException {
+        try (Statement stmt = con.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private long executeUpdate(Connection con, String sql) throws SQLException {
+        try (Statement stmt = con.createStatement()) {
+            return stmt.executeLargeUpdate(sql);
+        }
+    }
+
+    private void rollbackQuietly(Connection con) {
+        try {
+            if (con != null && !con.isClosed()) {
+                con.rollback();
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: Rollback failed: " + e.getMessage());
+        }
+    }
+
+    private void restoreAutoCommit(Connection con) {
+        try {
+            if (con != null && !con.isClosed()) {
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: AutoCommit restore failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.jdbctd2.repository.bulk;
+
+/**
+ * Outcome of loading one CSV file
+ */
+public class ImportReport {
+    private final ImportTarget target;
+    private final long rowsCopied;
+    private final long rowsRejected;
+    private final long rowsUpserted;
+    private final long elapsedNanos;
+
+    public ImportReport(ImportTarget target, long rowsCopied, long rowsRejected, long rowsUpserted, long elapsedNanos) {
+        this.target = target;
+        this.rowsCopied = rowsCopied;
+        this.rowsRejected = rowsRejected;
+        this.rowsUpserted = rowsUpserted;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public ImportTarget getTarget() {
+        return target;
+    }
+
+    public long getRowsCopied() {
+        return rowsCopied;
+    }
+
+    /**
+     * Rows dropped because they referenced a missing parent row
+     */
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public long getRowsUpserted() {
+        return rowsUpserted;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsCopied * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{" +
+                "target=" + target +
+                ", rowsCopied=" + rowsCopied +
+                ", rowsRejected=" + rowsRejected +
+                ", rowsUpserted=" + rowsUpserted +
+                ", elapsedMillis=" + elapsedNanos / 1_000_000 +
+                ", rowsPerSecond=" + String.format("%.0f", getRowsPerSecond()) +
+                '}';
+    }
+}
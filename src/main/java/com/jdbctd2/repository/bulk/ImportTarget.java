@@ -0,0 +1,75 @@
+package com.jdbctd2.repository.bulk;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tables the {@link BulkImporter} can load, declared in dependency order: importing them in
+ * enum order always finds the referenced rows already in place.
+ */
+public enum ImportTarget {
+    DISH("dish",
+            List.of("id", "name", "description", "price", "category", "is_available", "created_at"),
+            List.of("id"), Map.of()),
+    INGREDIENT("ingredient",
+            List.of("id", "name", "description", "quantity_in_stock", "unit", "created_at"),
+            List.of("id"), Map.of()),
+    DISH_INGREDIENT("dish_ingredient",
+            List.of("id", "id_dish", "id_ingredient", "quantity", "unit"),
+            List.of("id_dish", "id_ingredient"), Map.of("id_dish", "dish", "id_ingredient", "ingredient")),
+    CUSTOMER("customer",
+            List.of("id", "first_name", "last_name", "email", "phone", "created_at"),
+            List.of("id"), Map.of()),
+    ORDER("\"order\"",
+            List.of("id", "reference", "creation_datetime", "id_table", "installation_datetime", "departure_datetime"),
+            List.of("id"), Map.of("id_table", "restaurant_table")),
+    ORDER_ITEM("order_item",
+            List.of("id", "id_order", "id_dish", "quantity", "unit_price", "notes", "created_at"),
+            List.of("id"), Map.of("id_order", "\"order\"", "id_dish", "dish")),
+    PAYMENT("payment",
+            List.of("id", "id_order", "amount", "payment_method", "payment_date", "status"),
+            List.of("id"), Map.of("id_order", "\"order\""));
+
+    private final String tableName;
+    private final List<String> columns;
+    private final List<String> naturalKey;
+    private final Map<String, String> foreignKeys;
+
+    ImportTarget(String tableName, List<String> columns, List<String> naturalKey, Map<String, String> foreignKeys) {
+        this.tableName = tableName;
+        this.columns = columns;
+        this.naturalKey = naturalKey;
+        this.foreignKeys = foreignKeys;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Columns a CSV header may name; anything else is rejected before reaching SQL
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Columns identifying an existing row; a CSV row matching them updates it instead of inserting.
+     * Tables referenced by another target are keyed on {@code id}, so the ids the child files
+     * use stay those of the rows they meant.
+     */
+    public List<String> getNaturalKey() {
+        return naturalKey;
+    }
+
+    /**
+     * Referencing column to referenced table, checked against the staged rows before the upsert
+     */
+    public Map<String, String> getForeignKeys() {
+        return foreignKeys;
+    }
+
+    String getStagingTableName() {
+        return "import_" + name().toLowerCase();
+    }
+}
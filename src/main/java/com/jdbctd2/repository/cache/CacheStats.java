@@ -0,0 +1,95 @@
+package com.jdbctd2.repository.cache;
+
+/**
+ * Point-in-time counters of an {@link EntityCache}
+ */
+public class CacheStats {
+    private final String name;
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long loadFailures;
+    private final long coalescedLoads;
+    private final long evictions;
+    private final long expirations;
+
+    public CacheStats(String name, int size, long hits, long misses, long loads, long loadFailures,
+                      long coalescedLoads, long evictions, long expirations) {
+        this.name = name;
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.loadFailures = loadFailures;
+        this.coalescedLoads = coalescedLoads;
+        this.evictions = evictions;
+        this.expirations = expirations;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Loads that actually reached the database
+     */
+    public long getLoads() {
+        return loads;
+    }
+
+    public long getLoadFailures() {
+        return loadFailures;
+    }
+
+    /**
+     * Misses that waited for another thread's load of the same key instead of querying
+     */
+    public long getCoalescedLoads() {
+        return coalescedLoads;
+    }
+
+    /**
+     * Entries dropped because the cache was full
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "name='" + name + '\'' +
+                ", size=" + size +
+                ", hitRatio=" + String.format("%.3f", getHitRatio()) +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", loads=" + loads +
+                ", loadFailures=" + loadFailures +
+                ", coalescedLoads=" + coalescedLoads +
+                ", evictions=" + evictions +
+                ", expirations=" + expirations +
+                '}';
+    }
+}
@@ -0,0 +1,20 @@
+package com.jdbctd2.repository.cache;
+
+import java.util.function.Function;
+
+/**
+ * Read-through cache placed in front of a by-id lookup. Absent rows (null) are never cached.
+ */
+public interface EntityCache<K, V> {
+    /**
+     * Returns the cached value, or loads it with {@code loader}. Concurrent misses on the same
+     * key share a single load.
+     */
+    V get(K key, Function<K, V> loader);
+
+    void invalidate(K key);
+
+    void invalidateAll();
+
+    CacheStats getStats();
+}
@@ -0,0 +1,180 @@
+package com.jdbctd2.repository.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * {@link EntityCache} bounded by entry count (least recently used first out) and by a
+ * time-to-live. Misses are single-flight: the first thread missing on a key loads it and the
+ * others wait for that load, so a popular key expiring does not send a burst of identical
+ * queries to the database.
+ */
+public class LruEntityCache<K, V> implements EntityCache<K, V> {
+    private final String name;
+    private final int capacity;
+    private final long ttlNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final Map<K, CompletableFuture<V>> inFlightLoads = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param ttl how long an entry stays valid after being loaded; {@link Duration#ZERO} for no expiry
+     */
+    public LruEntityCache(String name, int capacity, Duration ttl) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be at least 1");
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruEntityCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public V get(K key, Function<K, V> loader) {
+        V cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlightLoads.putIfAbsent(key, load);
+        if (running != null) {
+            coalescedLoads.increment();
+            return await(running);
+        }
+
+        try {
+            loads.increment();
+            V value = loader.apply(key);
+            if (value != null) {
+                storeIfCurrent(key, load, value);
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(key, load);
+        }
+    }
+
+    @Override
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            inFlightLoads.remove(key);
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            inFlightLoads.clear();
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CacheStats getStats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        return new CacheStats(name, size, hits.sum(), misses.sum(), loads.sum(), loadFailures.sum(),
+                coalescedLoads.sum(), evictions.sum(), expirations.sum());
+    }
+
+    // ============= Helper Methods =============
+
+    private V lookup(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (ttlNanos > 0 && System.nanoTime() - entry.loadedAtNanos > ttlNanos) {
+                entries.remove(key);
+                expirations.increment();
+                return null;
+            }
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores a loaded value unless an invalidation removed the load's marker meanwhile, in which
+     * case the value may predate the update. Checked under the lock invalidations take.
+     */
+    private void storeIfCurrent(K key, CompletableFuture<V> load, V value) {
+        lock.lock();
+        try {
+            if (inFlightLoads.get(key) == load) {
+                entries.put(key, new Entry<>(value, System.nanoTime()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private V await(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long loadedAtNanos;
+
+        Entry(V value, long loadedAtNanos) {
+            this.value = value;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+}
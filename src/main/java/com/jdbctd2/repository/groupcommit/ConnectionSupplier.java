@@ -0,0 +1,12 @@
+package com.jdbctd2.repository.groupcommit;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands the committer a connection for a named operation, e.g. one instrumented for it
+ */
+@FunctionalInterface
+public interface ConnectionSupplier {
+    Connection get(String operation) throws SQLException;
+}
@@ -0,0 +1,64 @@
+package com.jdbctd2.repository.groupcommit;
+
+import java.time.Duration;
+
+/**
+ * Settings of a {@link GroupCommitWriter}. {@code maxDelay} and {@code maxBatchRows} set the
+ * trade-off: a transaction is committed once it holds {@code maxBatchRows} rows or once
+ * {@code maxDelay} has passed since its first row was picked up. With a zero delay a commit
+ * takes whatever queued up while the previous one was running, which adds no latency and
+ * still groups rows under load.
+ */
+public class GroupCommitConfig {
+    private int maxBatchRows = 200;
+    private Duration maxDelay = Duration.ofMillis(2);
+    private int queueCapacity = 10_000;
+    private Duration enqueueTimeout = Duration.ofSeconds(1);
+
+    public int getMaxBatchRows() {
+        return maxBatchRows;
+    }
+
+    public void setMaxBatchRows(int maxBatchRows) {
+        if (maxBatchRows < 1) {
+            throw new IllegalArgumentException("Max batch rows must be at least 1");
+        }
+        this.maxBatchRows = maxBatchRows;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(Duration maxDelay) {
+        if (maxDelay.isNegative()) {
+            throw new IllegalArgumentException("Max delay cannot be negative");
+        }
+        this.maxDelay = maxDelay;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Rows waiting for a commit before callers start to block
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getEnqueueTimeout() {
+        return enqueueTimeout;
+    }
+
+    /**
+     * How long a caller waits for room in a full queue before its write is rejected
+     */
+    public void setEnqueueTimeout(Duration enqueueTimeout) {
+        this.enqueueTimeout = enqueueTimeout;
+    }
+}
@@ -0,0 +1,57 @@
+package com.jdbctd2.repository.groupcommit;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A kind of row a {@link GroupCommitWriter} can insert: the INSERT statement, how to bind a
+ * row, where its generated id goes and what to run once a group of them is committed
+ */
+public class GroupCommitTarget<T> {
+    private final String name;
+    private final String operation;
+    private final String insertSql;
+    private final StatementBinder<T> binder;
+    private final BiConsumer<T, Integer> idSetter;
+    private final Consumer<List<T>> afterCommit;
+
+    /**
+     * @param name used in error messages, e.g. {@code "payment"}
+     * @param operation the operation connections for these rows are borrowed for, e.g. {@code "savePayment"}
+     * @param afterCommit receives the rows of each committed transaction, or null
+     */
+    public GroupCommitTarget(String name, String operation, String insertSql, StatementBinder<T> binder,
+                             BiConsumer<T, Integer> idSetter, Consumer<List<T>> afterCommit) {
+        this.name = name;
+        this.operation = operation;
+        this.insertSql = insertSql;
+        this.binder = binder;
+        this.idSetter = idSetter;
+        this.afterCommit = afterCommit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    String getInsertSql() {
+        return insertSql;
+    }
+
+    StatementBinder<T> getBinder() {
+        return binder;
+    }
+
+    BiConsumer<T, Integer> getIdSetter() {
+        return idSetter;
+    }
+
+    Consumer<List<T>> getAfterCommit() {
+        return afterCommit;
+    }
+}
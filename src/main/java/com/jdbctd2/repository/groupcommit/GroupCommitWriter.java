@@ -0,0 +1,343 @@
+package com.jdbctd2.repository.groupcommit;
+
+import com.jdbctd2.config.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces inserts submitted by many threads into one batched transaction. Callers put their
+ * row on a bounded queue and get a future; a single committer thread drains the queue, inserts
+ * each kind of row with one JDBC batch, commits, and only then completes the futures, so a
+ * completed future means the row is committed. One commit, and one WAL flush, is shared by
+ * every row of the group.
+ * <p>
+ * When a group fails, its rows are retried one transaction each, so a single bad row (a
+ * missing parent, say) fails alone instead of taking its neighbours down with it.
+ * <p>
+ * Futures are completed on the common pool: dependent stages never hold up the committer.
+ */
+public class GroupCommitWriter implements AutoCloseable {
+    private static final long IDLE_POLL_MILLIS = 50;
+    private static final String MIXED_GROUP_OPERATION = "groupCommit";
+
+    private final DBConnection dbConnection;
+    private final ConnectionSupplier connections;
+    private final int maxBatchRows;
+    private final long maxDelayNanos;
+    private final long enqueueTimeoutNanos;
+    private final BlockingQueue<PendingWrite<?>> queue;
+    private final Thread committer;
+    private volatile boolean closed;
+
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder committedRows = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+    private final LongAdder rejectedRows = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public GroupCommitWriter(DBConnection dbConnection, GroupCommitConfig config) {
+        this(dbConnection, operation -> dbConnection.getDBConnection(), config);
+    }
+
+    /**
+     * @param connections borrows the connection of each group, for the operation of its rows'
+     *                    target, or {@code "groupCommit"} when the group mixes targets
+     */
+    public GroupCommitWriter(DBConnection dbConnection, ConnectionSupplier connections, GroupCommitConfig config) {
+        this.dbConnection = dbConnection;
+        this.connections = connections;
+        this.maxBatchRows = config.getMaxBatchRows();
+        this.maxDelayNanos = config.getMaxDelay().toNanos();
+        this.enqueueTimeoutNanos = config.getEnqueueTimeout().toNanos();
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.committer = new Thread(this::run, "group-commit-writer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Queues the row for the next group. Blocks while the queue is full, up to the enqueue
+     * timeout, after which the future fails with a {@link RejectedExecutionException}.
+     */
+    public <T> CompletableFuture<T> submit(GroupCommitTarget<T> target, T row) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("Group commit writer is closed"));
+            return future;
+        }
+
+        PendingWrite<T> pending = new PendingWrite<>(target, row, future);
+        try {
+            if (!queue.offer(pending, enqueueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejectedRows.increment();
+                future.completeExceptionally(new RejectedExecutionException("Group commit queue is full"));
+                return future;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return future;
+        }
+        // Lost the race with close(): the committer may already be gone
+        if (closed && queue.remove(pending)) {
+            future.completeExceptionally(new IllegalStateException("Group commit writer is closed"));
+        }
+        return future;
+    }
+
+    public int getQueuedRows() {
+        return queue.size();
+    }
+
+    public long getCommitCount() {
+        return commits.sum();
+    }
+
+    public long getCommittedRows() {
+        return committedRows.sum();
+    }
+
+    public long getFailedRows() {
+        return failedRows.sum();
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows.sum();
+    }
+
+    /**
+     * Groups that failed and were retried row by row
+     */
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    public double getAverageRowsPerCommit() {
+        long commitCount = commits.sum();
+        return commitCount == 0 ? 0 : (double) committedRows.sum() / commitCount;
+    }
+
+    /**
+     * Stops accepting rows and commits everything already queued before returning
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingWrite<?> stranded;
+        while ((stranded = queue.poll()) != null) {
+            stranded.future.completeExceptionally(new IllegalStateException("Group commit writer is closed"));
+        }
+    }
+
+    // ============= Committer Methods =============
+
+    private void run() {
+        List<PendingWrite<?>> group = new ArrayList<>(maxBatchRows);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                collect(group);
+            } catch (InterruptedException e) {
+                // Nobody interrupts the committer on purpose; keep draining
+                Thread.interrupted();
+            }
+            if (!group.isEmpty()) {
+                commitGroup(group);
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Waits for a first row, then gathers more until the group is full or its delay is up
+     */
+    private void collect(List<PendingWrite<?>> group) throws InterruptedException {
+        PendingWrite<?> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        group.add(first);
+        long deadline = System.nanoTime() + maxDelayNanos;
+        queue.drainTo(group, maxBatchRows - group.size());
+        while (group.size() < maxBatchRows) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingWrite<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+            queue.drainTo(group, maxBatchRows - group.size());
+        }
+    }
+
+    private void commitGroup(List<PendingWrite<?>> group) {
+        try {
+            insert(group);
+        } catch (SQLException | RuntimeException e) {
+            if (group.size() == 1) {
+                fail(group.get(0), e);
+                return;
+            }
+            fallbacks.increment();
+            for (PendingWrite<?> pending : group) {
+                try {
+                    insert(List.of(pending));
+                } catch (SQLException | RuntimeException rowError) {
+                    fail(pending, rowError);
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts the group in one transaction; ids are set and futures completed only after the commit
+     */
+    private void insert(List<PendingWrite<?>> group) throws SQLException {
+        Map<GroupCommitTarget<?>, List<PendingWrite<?>>> byTarget = new LinkedHashMap<>();
+        for (PendingWrite<?> pending : group) {
+            byTarget.computeIfAbsent(pending.target, target -> new ArrayList<>()).add(pending);
+        }
+
+        Connection con = null;
+        List<Integer> generatedIds = new ArrayList<>(group.size());
+        List<PendingWrite<?>> inserted = new ArrayList<>(group.size());
+        try {
+            con = connections.get(byTarget.size() == 1
+                    ? byTarget.keySet().iterator().next().getOperation() : MIXED_GROUP_OPERATION);
+            con.setAutoCommit(false);
+            for (Map.Entry<GroupCommitTarget<?>, List<PendingWrite<?>>> entry : byTarget.entrySet()) {
+                insertBatch(con, entry.getKey(), entry.getValue(), generatedIds);
+                inserted.addAll(entry.getValue());
+            }
+            con.commit();
+        } catch (SQLException | RuntimeException e) {
+            rollbackQuietly(con);
+            throw e;
+        } finally {
+            restoreAutoCommit(con);
+            dbConnection.attemptCloseDBConnection(con);
+        }
+
+        commits.increment();
+        committedRows.add(inserted.size());
+        for (int i = 0; i < inserted.size(); i++) {
+            inserted.get(i).assignId(generatedIds.get(i));
+        }
+        for (Map.Entry<GroupCommitTarget<?>, List<PendingWrite<?>>> entry : byTarget.entrySet()) {
+            runAfterCommit(entry.getKey(), entry.getValue());
+        }
+        for (PendingWrite<?> pending : inserted) {
+            pending.complete();
+        }
+    }
+
+    private void insertBatch(Connection con, GroupCommitTarget<?> target, List<PendingWrite<?>> rows,
+                             List<Integer> generatedIds) throws SQLException {
+        PreparedStatement stmt = null;
+        ResultSet generatedKeys = null;
+        try {
+            stmt = con.prepareStatement(target.getInsertSql(), Statement.RETURN_GENERATED_KEYS);
+            for (PendingWrite<?> pending : rows) {
+                pending.bind(stmt);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            generatedKeys = stmt.getGeneratedKeys();
+            for (int i = 0; i < rows.size(); i++) {
+                generatedIds.add(generatedKeys.next() ? (int) generatedKeys.getLong(1) : null);
+            }
+        } finally {
+            dbConnection.attemptCloseDBConnection(generatedKeys, stmt, null);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void runAfterCommit(GroupCommitTarget<T> target, List<PendingWrite<?>> rows) {
+        if (target.getAfterCommit() == null) {
+            return;
+        }
+        List<T> committed = new ArrayList<>(rows.size());
+        for (PendingWrite<?> pending : rows) {
+            committed.add((T) pending.row);
+        }
+        try {
+            target.getAfterCommit().accept(committed);
+        } catch (RuntimeException e) {
+            System.err.println("Warning: After-commit hook for " + target.getName() + " failed: " + e.getMessage());
+        }
+    }
+
+    private void fail(PendingWrite<?> pending, Exception e) {
+        failedRows.increment();
+        pending.future.completeExceptionally(
+                new RuntimeException("Failed to save " + pending.target.getName() + ": " + e.getMessage(), e));
+    }
+
+    private void rollbackQuietly(Connection con) {
+        try {
+            if (con != null && !con.isClosed()) {
+                con.rollback();
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: Rollback failed: " + e.getMessage());
+        }
+    }
+
+    private void restoreAutoCommit(Connection con) {
+        try {
+            if (con != null && !con.isClosed()) {
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: AutoCommit restore failed: " + e.getMessage());
+        }
+    }
+
+    private static class PendingWrite<T> {
+        private final GroupCommitTarget<T> target;
+        private final T row;
+        private final CompletableFuture<T> future;
+
+        PendingWrite(GroupCommitTarget<T> target, T row, CompletableFuture<T> future) {
+            this.target = target;
+            this.row = row;
+            this.future = future;
+        }
+
+        void bind(PreparedStatement stmt) throws SQLException {
+            target.getBinder().bind(stmt, row);
+        }
+
+        void assignId(Integer id) {
+            if (id != null) {
+                target.getIdSetter().accept(row, id);
+            }
+        }
+
+        void complete() {
+            future.completeAsync(() -> row);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.jdbctd2.repository.groupcommit;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface StatementBinder<T> {
+    void bind(PreparedStatement stmt, T value) throws SQLException;
+}
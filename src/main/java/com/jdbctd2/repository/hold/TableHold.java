@@ -0,0 +1,64 @@
+package com.jdbctd2.repository.hold;
+
+import java.time.LocalDateTime;
+
+/**
+ * Short-lived claim on a table for the interval {@code (from, to)}, identified by its token.
+ * Nobody else can hold the table for an overlapping interval until the hold is confirmed,
+ * released or expired.
+ */
+public class TableHold {
+    private final String token;
+    private final Integer tableId;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final long expiresAtNanos;
+    // Guarded by the registry stripe owning the table
+    boolean confirming;
+
+    TableHold(String token, Integer tableId, LocalDateTime from, LocalDateTime to, long expiresAtNanos) {
+        this.token = token;
+        this.tableId = tableId;
+        this.from = from;
+        this.to = to;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public Integer getTableId() {
+        return tableId;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public boolean isExpired() {
+        return isExpiredAt(System.nanoTime());
+    }
+
+    boolean isExpiredAt(long nowNanos) {
+        return nowNanos - expiresAtNanos >= 0;
+    }
+
+    boolean overlaps(LocalDateTime otherFrom, LocalDateTime otherTo) {
+        return from.isBefore(otherTo) && otherFrom.isBefore(to);
+    }
+
+    @Override
+    public String toString() {
+        return "TableHold{" +
+                "token='" + token + '\'' +
+                ", tableId=" + tableId +
+                ", from=" + from +
+                ", to=" + to +
+                '}';
+    }
+}
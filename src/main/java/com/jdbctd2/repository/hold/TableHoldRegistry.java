@@ -0,0 +1,278 @@
+package com.jdbctd2.repository.hold;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory table holds, lock-striped by table id: hosts competing for the same table settle
+ * it on one stripe lock in microseconds, and hosts booking different tables rarely share one.
+ * Expired holds stop counting as soon as their deadline passes; a background sweep also drops
+ * them from memory.
+ * <p>
+ * A hold being confirmed keeps blocking the table even past its deadline, until
+ * {@link #complete(TableHold, boolean)} is called.
+ */
+public final class TableHoldRegistry implements AutoCloseable {
+    public static final int DEFAULT_STRIPES = 64;
+    public static final Duration DEFAULT_SWEEP_INTERVAL = Duration.ofSeconds(1);
+
+    private final Stripe[] stripes;
+    private final Map<String, TableHold> holdsByToken = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper;
+
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    public TableHoldRegistry() {
+        this(DEFAULT_STRIPES, DEFAULT_SWEEP_INTERVAL);
+    }
+
+    /**
+     * @param stripeCount   rounded up to a power of two
+     * @param sweepInterval how often expired holds are dropped from memory
+     */
+    public TableHoldRegistry(int stripeCount, Duration sweepInterval) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be at least 1");
+        }
+        if (sweepInterval.isNegative() || sweepInterval.isZero()) {
+            throw new IllegalArgumentException("Sweep interval must be positive");
+        }
+        int size = Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new Stripe[Math.max(size, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "table-hold-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodNanos = sweepInterval.toNanos();
+        sweeper.scheduleWithFixedDelay(this::purgeExpired, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Holds the table for {@code (from, to)} during {@code ttl}, or returns null when a live
+     * hold on the same table overlaps the interval
+     */
+    public TableHold tryHold(Integer tableId, LocalDateTime from, LocalDateTime to, Duration ttl) {
+        if (tableId == null) {
+            throw new IllegalArgumentException("Table ID cannot be null");
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Interval start must be before its end");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Hold TTL must be positive");
+        }
+
+        Stripe stripe = stripeFor(tableId);
+        long now = System.nanoTime();
+        stripe.lock.lock();
+        try {
+            List<TableHold> holds = stripe.holdsByTable.computeIfAbsent(tableId, id -> new ArrayList<>(2));
+            purgeExpired(holds, now);
+            for (TableHold hold : holds) {
+                if (hold.overlaps(from, to)) {
+                    contended.increment();
+                    return null;
+                }
+            }
+            TableHold hold = new TableHold(UUID.randomUUID().toString(), tableId, from, to, now + ttl.toNanos());
+            holds.add(hold);
+            holdsByToken.put(hold.getToken(), hold);
+            granted.increment();
+            return hold;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the hold as being confirmed so it can neither expire nor be claimed twice. The
+     * caller must then call {@link #complete(TableHold, boolean)}.
+     */
+    public TableHold claim(String token) {
+        TableHold hold = token == null ? null : holdsByToken.get(token);
+        if (hold == null) {
+            throw new IllegalStateException("Hold " + token + " does not exist or has expired");
+        }
+
+        Stripe stripe = stripeFor(hold.getTableId());
+        stripe.lock.lock();
+        try {
+            if (hold.confirming) {
+                throw new IllegalStateException("Hold " + token + " is already being confirmed");
+            }
+            if (hold.isExpiredAt(System.nanoTime())) {
+                removeLocked(stripe, hold);
+                expired.increment();
+                throw new IllegalStateException("Hold " + token + " does not exist or has expired");
+            }
+            if (holdsByToken.get(token) != hold) {
+                throw new IllegalStateException("Hold " + token + " does not exist or has expired");
+            }
+            hold.confirming = true;
+            return hold;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops a claimed hold once its booking has been committed or has failed
+     */
+    public void complete(TableHold hold, boolean booked) {
+        Stripe stripe = stripeFor(hold.getTableId());
+        stripe.lock.lock();
+        try {
+            removeLocked(stripe, hold);
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (booked) {
+            confirmed.increment();
+        } else {
+            released.increment();
+        }
+    }
+
+    /**
+     * Gives the table back before the hold expires. Returns false when the hold is unknown,
+     * expired or being confirmed.
+     */
+    public boolean release(String token) {
+        TableHold hold = token == null ? null : holdsByToken.get(token);
+        if (hold == null) {
+            return false;
+        }
+
+        Stripe stripe = stripeFor(hold.getTableId());
+        stripe.lock.lock();
+        try {
+            if (hold.confirming || holdsByToken.get(token) != hold) {
+                return false;
+            }
+            removeLocked(stripe, hold);
+        } finally {
+            stripe.lock.unlock();
+        }
+        released.increment();
+        return true;
+    }
+
+    public TableHold getHold(String token) {
+        TableHold hold = token == null ? null : holdsByToken.get(token);
+        return hold == null || (!hold.confirming && hold.isExpired()) ? null : hold;
+    }
+
+    /**
+     * Drops every expired hold that is not being confirmed and returns how many were dropped
+     */
+    public int purgeExpired() {
+        int purged = 0;
+        long now = System.nanoTime();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                Iterator<List<TableHold>> tables = stripe.holdsByTable.values().iterator();
+                while (tables.hasNext()) {
+                    List<TableHold> holds = tables.next();
+                    purged += purgeExpired(holds, now);
+                    if (holds.isEmpty()) {
+                        tables.remove();
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return purged;
+    }
+
+    public int getActiveHolds() {
+        return holdsByToken.size();
+    }
+
+    public long getGrantedCount() {
+        return granted.sum();
+    }
+
+    /**
+     * Hold requests refused because the table was already held
+     */
+    public long getContendedCount() {
+        return contended.sum();
+    }
+
+    public long getConfirmedCount() {
+        return confirmed.sum();
+    }
+
+    public long getReleasedCount() {
+        return released.sum();
+    }
+
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    // ============= Helper Methods =============
+
+    private Stripe stripeFor(Integer tableId) {
+        int hash = tableId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private int purgeExpired(List<TableHold> holds, long now) {
+        int purged = 0;
+        Iterator<TableHold> iterator = holds.iterator();
+        while (iterator.hasNext()) {
+            TableHold hold = iterator.next();
+            if (!hold.confirming && hold.isExpiredAt(now)) {
+                iterator.remove();
+                holdsByToken.remove(hold.getToken(), hold);
+                expired.increment();
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    private void removeLocked(Stripe stripe, TableHold hold) {
+        List<TableHold> holds = stripe.holdsByTable.get(hold.getTableId());
+        if (holds != null) {
+            holds.remove(hold);
+            if (holds.isEmpty()) {
+                stripe.holdsByTable.remove(hold.getTableId());
+            }
+        }
+        holdsByToken.remove(hold.getToken(), hold);
+    }
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Integer, List<TableHold>> holdsByTable = new HashMap<>();
+    }
+}
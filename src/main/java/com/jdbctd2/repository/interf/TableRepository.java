@@ -10,4 +10,15 @@ public interface TableRepository {
     Table saveTable(Table table);
     List<Table> findAvailableTablesAtDateTime(LocalDateTime dateTime);
     boolean isTableAvailableAtDateTime(Integer tableId, LocalDateTime dateTime);
+
+    /**
+     * Tables free for the whole interval {@code (from, to)} that seat at least {@code partySize},
+     * smallest fit first
+     */
+    List<Table> findAvailableTables(LocalDateTime from, LocalDateTime to, int partySize);
+
+    /**
+     * Total capacity of the tables free for the whole interval {@code (from, to)}
+     */
+    int countAvailableSeats(LocalDateTime from, LocalDateTime to);
 }
@@ -0,0 +1,337 @@
+package com.jdbctd2.repository.memory;
+
+import com.jdbctd2.config.DBConnection;
+import com.jdbctd2.mapping.RowMapper;
+import com.jdbctd2.model.Order;
+import com.jdbctd2.model.Table;
+import com.jdbctd2.model.TableRowMapper;
+import com.jdbctd2.repository.interf.TableRepository;
+import com.jdbctd2.repository.occupancy.TableOccupancyIndex;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/**
+ * {@link TableRepository} holding {@code restaurant_table} and table occupancy in memory, with
+ * the same answers as {@code DataRetriever} but no query per call. Returned tables are shared
+ * and must be treated as read-only.
+ * <p>
+ * Two modes:
+ * <ul>
+ *     <li>{@link #standalone()}: no database at all, ids start at 1</li>
+ *     <li>{@link #persistent(DBConnection, Path)}: loaded from PostgreSQL on start; every write
+ *     is appended to a durable journal before it is acknowledged and then applied to the
+ *     database in the background. The repository must be the only writer of
+ *     {@code restaurant_table} and {@code "order"} bookings while it runs.</li>
+ * </ul>
+ */
+public class InMemoryTableRepository implements TableRepository, AutoCloseable {
+    private static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(200);
+    private static final int DEFAULT_FLUSH_BATCH_SIZE = 500;
+
+    private final TableOccupancyIndex index = new TableOccupancyIndex();
+    private final Map<Integer, Table> tablesByNumber = new ConcurrentHashMap<>();
+    private final Map<Integer, Object> bookingLocks = new ConcurrentHashMap<>();
+    private final AtomicInteger lastTableId = new AtomicInteger();
+    private final AtomicInteger lastOrderId = new AtomicInteger();
+    private final WriteBehindJournal journal;
+    private final WriteBehindQueue writeBehind;
+
+    private InMemoryTableRepository(WriteBehindJournal journal, WriteBehindQueue writeBehind) {
+        this.journal = journal;
+        this.writeBehind = writeBehind;
+    }
+
+    public static InMemoryTableRepository standalone() {
+        InMemoryTableRepository repository = new InMemoryTableRepository(null, null);
+        repository.index.markLoaded();
+        return repository;
+    }
+
+    public static InMemoryTableRepository persistent(DBConnection dbConnection, Path journalDirectory) {
+        return persistent(dbConnection, journalDirectory, DEFAULT_FLUSH_INTERVAL, DEFAULT_FLUSH_BATCH_SIZE, true);
+    }
+
+    /**
+     * Loads the tables and bookings from PostgreSQL, replays the journal entries the database
+     * has not seen yet, then starts the background flusher.
+     *
+     * @param syncWrites force every journal append to disk before acknowledging the write
+     */
+    public static InMemoryTableRepository persistent(DBConnection dbConnection, Path journalDirectory,
+                                                     Duration flushInterval, int flushBatchSize, boolean syncWrites) {
+        WriteBehindJournal journal = WriteBehindJournal.open(journalDirectory, syncWrites);
+        WriteBehindQueue writeBehind = new WriteBehindQueue(dbConnection, journal, flushInterval, flushBatchSize);
+        InMemoryTableRepository repository = new InMemoryTableRepository(journal, writeBehind);
+        try {
+            List<JournalEntry> pending = journal.readPending();
+            repository.load(dbConnection);
+            // The database may already hold some of them; the flush skips those
+            for (JournalEntry entry : pending) {
+                repository.replay(entry);
+                writeBehind.enqueue(entry);
+            }
+            repository.index.markLoaded();
+            return repository;
+        } catch (RuntimeException e) {
+            repository.close();
+            throw e;
+        }
+    }
+
+    // ============= TableRepository Methods =============
+
+    @Override
+    public Table findTableById(Integer id) {
+        return index.getTable(id);
+    }
+
+    @Override
+    public List<Table> findAllTables() {
+        return new ArrayList<>(index.getTables());
+    }
+
+    @Override
+    public synchronized Table saveTable(Table table) {
+        if (table.getNumber() == null || table.getCapacity() == null) {
+            throw new RuntimeException("Failed to save table: number and capacity are required");
+        }
+        if (tablesByNumber.containsKey(table.getNumber())) {
+            throw new RuntimeException("Failed to save table: table number " + table.getNumber() + " already exists");
+        }
+
+        Table stored = new Table(lastTableId.incrementAndGet(), table.getNumber(), table.getCapacity());
+        journal(sequence -> JournalEntry.table(sequence, stored));
+        putTable(stored);
+        table.setId(stored.getId());
+        return table;
+    }
+
+    @Override
+    public List<Table> findAvailableTablesAtDateTime(LocalDateTime dateTime) {
+        return index.findAvailableTablesAtDateTime(dateTime);
+    }
+
+    @Override
+    public boolean isTableAvailableAtDateTime(Integer tableId, LocalDateTime dateTime) {
+        return index.isTableAvailableAtDateTime(tableId, dateTime);
+    }
+
+    @Override
+    public List<Table> findAvailableTables(LocalDateTime from, LocalDateTime to, int partySize) {
+        validateInterval(from, to);
+        if (partySize < 1) {
+            throw new IllegalArgumentException("Party size must be at least 1");
+        }
+
+        List<Table> tables = new ArrayList<>();
+        for (Table table : index.getTables()) {
+            if (table.getCapacity() >= partySize && index.isTableFreeBetween(table.getId(), from, to)) {
+                tables.add(table);
+            }
+        }
+        tables.sort(Comparator.comparing(Table::getCapacity).thenComparing(Table::getNumber));
+        return tables;
+    }
+
+    @Override
+    public int countAvailableSeats(LocalDateTime from, LocalDateTime to) {
+        validateInterval(from, to);
+
+        int seats = 0;
+        for (Table table : index.getTables()) {
+            if (index.isTableFreeBetween(table.getId(), from, to)) {
+                seats += table.getCapacity();
+            }
+        }
+        return seats;
+    }
+
+    // ============= Booking Methods =============
+
+    /**
+     * Books the order's table with the rule of {@code DataRetriever.saveOrder}: the booking is
+     * refused when its installation falls strictly inside an existing booking of that table,
+     * and the error lists the tables free at that time
+     */
+    public Order saveOrder(Order orderToSave) {
+        try {
+            return book(orderToSave);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to save order: " + e.getMessage(), e);
+        }
+    }
+
+    private Order book(Order orderToSave) {
+        if (orderToSave.getTableId() == null) {
+            throw new IllegalArgumentException("Table ID cannot be null");
+        }
+        if (orderToSave.getInstallationDatetime() == null) {
+            throw new IllegalArgumentException("Installation datetime cannot be null");
+        }
+        Integer tableId = orderToSave.getTableId();
+        if (index.getTable(tableId) == null) {
+            throw new RuntimeException("Table " + tableId + " does not exist");
+        }
+
+        synchronized (bookingLocks.computeIfAbsent(tableId, id -> new Object())) {
+            LocalDateTime installation = orderToSave.getInstallationDatetime();
+            if (!index.isTableAvailableAtDateTime(tableId, installation)) {
+                throw new RuntimeException(
+                        buildTableUnavailableMessage(tableId, index.findAvailableTablesAtDateTime(installation)));
+            }
+
+            Order stored = new Order(orderToSave.getReference(), tableId, installation);
+            stored.setId(lastOrderId.incrementAndGet());
+            stored.setCreationDatetime(orderToSave.getCreationDatetime() != null
+                    ? orderToSave.getCreationDatetime() : Instant.now());
+            stored.setDepartureDatetime(orderToSave.getDepartureDatetime());
+            journal(sequence -> JournalEntry.order(sequence, stored));
+            index.addOccupancy(tableId, installation, stored.getDepartureDatetime());
+            orderToSave.setId(stored.getId());
+            return orderToSave;
+        }
+    }
+
+    // ============= Write-Behind Methods =============
+
+    public boolean isPersistent() {
+        return writeBehind != null;
+    }
+
+    /**
+     * Writes acknowledged but not yet committed in PostgreSQL
+     */
+    public int getPendingWrites() {
+        return writeBehind != null ? writeBehind.getPendingCount() : 0;
+    }
+
+    public long getFlushedWrites() {
+        return writeBehind != null ? writeBehind.getFlushedWrites() : 0;
+    }
+
+    public long getFailedFlushes() {
+        return writeBehind != null ? writeBehind.getFailedFlushes() : 0;
+    }
+
+    /**
+     * Blocks until every acknowledged write is committed in PostgreSQL
+     */
+    public void flush() {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (writeBehind != null) {
+            writeBehind.close();
+            journal.close();
+        }
+    }
+
+    // ============= Helper Methods =============
+
+    /**
+     * Appends the write to the journal before it becomes visible; a failing append fails the
+     * save and leaves the in-memory state untouched. The entry is queued under the journal lock:
+     * queued out of order, a later entry could be flushed and checkpointed first, and the
+     * truncation that follows would drop the earlier one before it reached the database.
+     */
+    private void journal(LongFunction<JournalEntry> entryFactory) {
+        if (journal == null) {
+            return;
+        }
+        journal.append(entryFactory, writeBehind::enqueue);
+    }
+
+    private void putTable(Table table) {
+        index.putTable(table);
+        tablesByNumber.put(table.getNumber(), table);
+        lastTableId.accumulateAndGet(table.getId(), Math::max);
+    }
+
+    private void replay(JournalEntry entry) {
+        if (entry.getType() == JournalEntry.Type.TABLE) {
+            putTable(entry.getTable());
+        } else {
+            Order order = entry.getOrder();
+            index.addOccupancy(order.getTableId(), order.getInstallationDatetime(), order.getDepartureDatetime());
+            lastOrderId.accumulateAndGet(order.getId(), Math::max);
+        }
+    }
+
+    private void load(DBConnection dbConnection) {
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            con = dbConnection.getDBConnection();
+            stmt = con.prepareStatement("SELECT " + TableRowMapper.COLUMNS + " FROM restaurant_table");
+            rs = stmt.executeQuery();
+            RowMapper.Bound<Table> mapper = TableRowMapper.INSTANCE.bind(rs);
+            while (rs.next()) {
+                putTable(mapper.map(rs));
+            }
+            dbConnection.attemptCloseDBConnection(rs, stmt, null);
+
+            stmt = con.prepareStatement("SELECT id, id_table, installation_datetime, departure_datetime FROM \"order\"");
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                lastOrderId.accumulateAndGet(rs.getInt("id"), Math::max);
+                int tableId = rs.getInt("id_table");
+                if (!rs.wasNull() && rs.getTimestamp("installation_datetime") != null
+                        && rs.getTimestamp("departure_datetime") != null) {
+                    index.addOccupancy(tableId, rs.getTimestamp("installation_datetime").toLocalDateTime(),
+                            rs.getTimestamp("departure_datetime").toLocalDateTime());
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load in-memory table repository: " + e.getMessage(), e);
+        } finally {
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
+        }
+    }
+
+    private void validateInterval(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Interval bounds cannot be null");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Interval start must be before its end");
+        }
+    }
+
+    private String buildTableUnavailableMessage(Integer tableId, List<Table> availableTables) {
+        StringBuilder errorMessage = new StringBuilder();
+        errorMessage.append("Table ").append(tableId)
+                .append(" is not available at this time.");
+
+        if (availableTables.isEmpty()) {
+            errorMessage.append(" No tables are currently available.");
+        } else {
+            errorMessage.append(" Available tables: ");
+            for (int i = 0; i < availableTables.size(); i++) {
+                if (i > 0) errorMessage.append(", ");
+                errorMessage.append(availableTables.get(i).getNumber())
+                        .append(" (capacity: ").append(availableTables.get(i).getCapacity()).append(")");
+            }
+        }
+        return errorMessage.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package com.jdbctd2.repository.memory;
+
+import com.jdbctd2.model.Order;
+import com.jdbctd2.model.Table;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * One write waiting to reach PostgreSQL, stored in the journal as a single tab-separated line.
+ * Text is escaped the way {@code COPY} does it and {@code \N} stands for null.
+ */
+class JournalEntry {
+    enum Type {
+        TABLE, ORDER
+    }
+
+    private static final String NULL = "\\N";
+
+    private final long sequence;
+    private final Type type;
+    private final Table table;
+    private final Order order;
+
+    private JournalEntry(long sequence, Type type, Table table, Order order) {
+        this.sequence = sequence;
+        this.type = type;
+        this.table = table;
+        this.order = order;
+    }
+
+    static JournalEntry table(long sequence, Table table) {
+        return new JournalEntry(sequence, Type.TABLE, table, null);
+    }
+
+    static JournalEntry order(long sequence, Order order) {
+        return new JournalEntry(sequence, Type.ORDER, null, order);
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    Table getTable() {
+        return table;
+    }
+
+    Order getOrder() {
+        return order;
+    }
+
+    String toLine() {
+        StringBuilder line = new StringBuilder();
+        line.append(sequence).append('\t').append(type);
+        if (type == Type.TABLE) {
+            append(line, table.getId());
+            append(line, table.getNumber());
+            append(line, table.getCapacity());
+        } else {
+            append(line, order.getId());
+            append(line, order.getReference());
+            append(line, order.getCreationDatetime());
+            append(line, order.getTableId());
+            append(line, order.getInstallationDatetime());
+            append(line, order.getDepartureDatetime());
+        }
+        return line.toString();
+    }
+
+    static JournalEntry parse(String line) {
+        String[] fields = line.split("\t", -1);
+        long sequence = Long.parseLong(fields[0]);
+        Type type = Type.valueOf(fields[1]);
+        if (type == Type.TABLE) {
+            return table(sequence, new Table(integer(fields[2]), integer(fields[3]), integer(fields[4])));
+        }
+        Order order = new Order(text(fields[3]), integer(fields[5]), dateTime(fields[6]));
+        order.setId(integer(fields[2]));
+        String creation = text(fields[4]);
+        order.setCreationDatetime(creation != null ? Instant.parse(creation) : null);
+        order.setDepartureDatetime(dateTime(fields[7]));
+        return order(sequence, order);
+    }
+
+    // ============= Encoding Helpers =============
+
+    private static void append(StringBuilder line, Object value) {
+        line.append('\t');
+        if (value == null) {
+            line.append(NULL);
+            return;
+        }
+        for (char c : value.toString().toCharArray()) {
+            switch (c) {
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                default:
+                    line.append(c);
+                    break;
+            }
+        }
+    }
+
+    private static String text(String field) {
+        if (field.equals(NULL)) {
+            return null;
+        }
+        StringBuilder value = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\\' && i + 1 < field.length()) {
+                value.append(unescape(field.charAt(++i)));
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+
+    private static char unescape(char escaped) {
+        switch (escaped) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            default:
+                return escaped;
+        }
+    }
+
+    private static Integer integer(String field) {
+        String value = text(field);
+        return value != null ? Integer.valueOf(value) : null;
+    }
+
+    private static LocalDateTime dateTime(String field) {
+        String value = text(field);
+        return value != null ? LocalDateTime.parse(value) : null;
+    }
+}
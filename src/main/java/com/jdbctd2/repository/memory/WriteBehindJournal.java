@@ -0,0 +1,189 @@
+package com.jdbctd2.repository.memory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Append-only file of the writes not yet applied to PostgreSQL, next to a checkpoint file
+ * holding the sequence number of the last write known to be committed there. A write is
+ * acknowledged only once its line is in the journal (and forced to disk when
+ * {@code syncWrites} is on), so a crash loses nothing that a caller saw succeed; on the next
+ * start the entries past the checkpoint are replayed. The journal is truncated whenever the
+ * checkpoint catches up with it.
+ * <p>
+ * A line without its trailing newline was cut short by a crash before being acknowledged; it
+ * is cut off on open, so the next append starts on a line of its own. Any other unreadable
+ * line means the journal is corrupt and fails the read rather than losing a write.
+ */
+class WriteBehindJournal implements AutoCloseable {
+    private static final String JOURNAL_FILE = "tables.journal";
+    private static final String CHECKPOINT_FILE = "tables.checkpoint";
+
+    private final Path journalPath;
+    private final Path checkpointPath;
+    private final boolean syncWrites;
+    private final FileChannel channel;
+    private long lastSequence;
+    private long checkpoint;
+
+    private WriteBehindJournal(Path directory, boolean syncWrites) throws IOException {
+        Files.createDirectories(directory);
+        this.journalPath = directory.resolve(JOURNAL_FILE);
+        this.checkpointPath = directory.resolve(CHECKPOINT_FILE);
+        this.syncWrites = syncWrites;
+        this.checkpoint = Files.exists(checkpointPath)
+                ? Long.parseLong(Files.readString(checkpointPath, StandardCharsets.UTF_8).trim()) : 0;
+        this.lastSequence = checkpoint;
+        dropUnfinishedLine(journalPath);
+        this.channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    static WriteBehindJournal open(Path directory, boolean syncWrites) {
+        try {
+            return new WriteBehindJournal(directory, syncWrites);
+        } catch (IOException | NumberFormatException e) {
+            throw new RuntimeException("Failed to open write-behind journal: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Entries written after the checkpoint, oldest first
+     */
+    synchronized List<JournalEntry> readPending() {
+        List<JournalEntry> pending = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JournalEntry entry;
+                try {
+                    entry = JournalEntry.parse(line);
+                } catch (RuntimeException e) {
+                    throw new RuntimeException("Failed to read write-behind journal: unreadable line "
+                            + lineNumber + ": " + e.getMessage(), e);
+                }
+                lastSequence = Math.max(lastSequence, entry.getSequence());
+                if (entry.getSequence() > checkpoint) {
+                    pending.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read write-behind journal: " + e.getMessage(), e);
+        }
+        return pending;
+    }
+
+    /**
+     * @param entryFactory builds the entry for the next sequence number
+     * @param onAppended   receives the entry once written, still under the journal lock, so
+     *                     entries reach it in sequence order
+     */
+    synchronized JournalEntry append(LongFunction<JournalEntry> entryFactory, Consumer<JournalEntry> onAppended) {
+        JournalEntry entry = entryFactory.apply(lastSequence + 1);
+        ByteBuffer line = ByteBuffer.wrap((entry.toLine() + "\n").getBytes(StandardCharsets.UTF_8));
+        long start = -1;
+        try {
+            start = channel.size();
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            if (syncWrites) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            discardFrom(start);
+            throw new RuntimeException("Failed to append to write-behind journal: " + e.getMessage(), e);
+        }
+        lastSequence = entry.getSequence();
+        onAppended.accept(entry);
+        return entry;
+    }
+
+    /**
+     * Records that every entry up to {@code sequence} is committed in PostgreSQL
+     */
+    synchronized void checkpoint(long sequence) {
+        if (sequence <= checkpoint) {
+            return;
+        }
+        try {
+            Path temporary = checkpointPath.resolveSibling(CHECKPOINT_FILE + ".tmp");
+            Files.writeString(temporary, Long.toString(sequence), StandardCharsets.UTF_8);
+            Files.move(temporary, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            checkpoint = sequence;
+            if (checkpoint == lastSequence) {
+                channel.truncate(0);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write write-behind checkpoint: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing write-behind journal: " + e.getMessage());
+        }
+    }
+
+    // ============= Helper Methods =============
+
+    /**
+     * Removes what a failed append managed to write, so the next one starts on a line of its own
+     */
+    private void discardFrom(long start) {
+        if (start < 0) {
+            return;
+        }
+        try {
+            channel.truncate(start);
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to discard partial journal line: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Truncates the journal after its last newline, removing a line whose append never completed
+     */
+    private static void dropUnfinishedLine(Path journalPath) throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        try (FileChannel file = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = file.size();
+            long end = size;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            while (end > 0) {
+                last.clear();
+                file.read(last, end - 1);
+                if (last.get(0) == '\n') {
+                    break;
+                }
+                end--;
+            }
+            if (end < size) {
+                System.err.println("Warning: Dropping unfinished journal line of " + (size - end) + " bytes");
+                file.truncate(end);
+                file.force(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.jdbctd2.repository.memory;
+
+import com.jdbctd2.config.DBConnection;
+import com.jdbctd2.model.Order;
+import com.jdbctd2.model.Table;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Applies journaled writes to PostgreSQL in the background, in journal order, one transaction
+ * per batch. Rows are inserted with the ids the in-memory repository assigned and
+ * {@code ON CONFLICT (id) DO NOTHING}, so replaying a batch that was committed just before a
+ * crash is harmless. A failed batch stays at the head of the queue and is retried on the next
+ * run; the serial sequences are moved past the inserted ids so later inserts made through
+ * {@code DataRetriever} do not collide with them.
+ */
+class WriteBehindQueue implements AutoCloseable {
+    private static final String INSERT_TABLE_SQL = "INSERT INTO restaurant_table (id, number, capacity) VALUES (?, ?, ?) " +
+            "ON CONFLICT (id) DO NOTHING";
+    private static final String INSERT_ORDER_SQL = "INSERT INTO \"order\" (id, reference, creation_datetime, id_table, " +
+            "installation_datetime, departure_datetime) VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
+    private static final String SYNC_TABLE_SEQUENCE_SQL = "SELECT setval(pg_get_serial_sequence('restaurant_table', 'id'), " +
+            "(SELECT max(id) FROM restaurant_table))";
+    private static final String SYNC_ORDER_SEQUENCE_SQL = "SELECT setval(pg_get_serial_sequence('\"order\"', 'id'), " +
+            "(SELECT max(id) FROM \"order\"))";
+
+    private final DBConnection dbConnection;
+    private final WriteBehindJournal journal;
+    private final int batchSize;
+    private final Queue<JournalEntry> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flusher;
+    private final AtomicLong flushedWrites = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    // Not a monitor: it is held across the inserts and would pin a virtual thread's carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    WriteBehindQueue(DBConnection dbConnection, WriteBehindJournal journal, Duration flushInterval, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Write-behind batch size must be at least 1");
+        }
+        this.dbConnection = dbConnection;
+        this.journal = journal;
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "table-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushInBackground, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues an entry that is already in the journal
+     */
+    void enqueue(JournalEntry entry) {
+        pending.add(entry);
+    }
+
+    int getPendingCount() {
+        return pending.size();
+    }
+
+    long getFlushedWrites() {
+        return flushedWrites.get();
+    }
+
+    long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    /**
+     * Applies every queued entry before returning
+     */
+    void flush() {
+        flushLock.lock();
+        try {
+            while (!pending.isEmpty()) {
+                flushBatch();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Write-behind flush failed, " + pending.size()
+                    + " writes kept for retry: " + e.getMessage());
+        }
+    }
+
+    private void flushBatch() {
+        // Single consumer: the head of the queue cannot change under us, only grow at the tail
+        List<JournalEntry> batch = new ArrayList<>(batchSize);
+        for (JournalEntry entry : pending) {
+            if (batch.size() == batchSize) {
+                break;
+            }
+            batch.add(entry);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            apply(batch);
+        } catch (RuntimeException e) {
+            failedFlushes.incrementAndGet();
+            throw e;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            pending.poll();
+        }
+        flushedWrites.addAndGet(batch.size());
+        journal.checkpoint(batch.get(batch.size() - 1).getSequence());
+    }
+
+    private void apply(List<JournalEntry> batch) {
+        Connection con = null;
+        PreparedStatement tableStmt = null;
+        PreparedStatement orderStmt = null;
+        try {
+            con = dbConnection.getDBConnection();
+            con.setAutoCommit(false);
+            tableStmt = con.prepareStatement(INSERT_TABLE_SQL);
+            orderStmt = con.prepareStatement(INSERT_ORDER_SQL);
+
+            int tables = 0;
+            int orders = 0;
+            for (JournalEntry entry : batch) {
+                if (entry.getType() == JournalEntry.Type.TABLE) {
+                    bindTable(tableStmt, entry.getTable());
+                    tableStmt.addBatch();
+                    tables++;
+                } else {
+                    bindOrder(orderStmt, entry.getOrder());
+                    orderStmt.addBatch();
+                    orders++;
+                }
+            }
+            // Tables first: an order in the batch may reference a table saved in the same batch
+            if (tables > 0) {
+                tableStmt.executeBatch();
+                syncSequence(con, SYNC_TABLE_SEQUENCE_SQL);
+            }
+            if (orders > 0) {
+                orderStmt.executeBatch();
+                syncSequence(con, SYNC_ORDER_SEQUENCE_SQL);
+            }
+
+            con.commit();
+        } catch (SQLException e) {
+            rollbackQuietly(con);
+            throw new RuntimeException("Failed to apply write-behind batch: " + e.getMessage(), e);
+        } finally {
+            dbConnection.attemptCloseDBConnection(tableStmt);
+            dbConnection.attemptCloseDBConnection(orderStmt);
+            restoreAutoCommit(con);
+            dbConnection.attemptCloseDBConnection(con);
+        }
+    }
+
+    private void bindTable(PreparedStatement stmt, Table table) throws SQLException {
+        stmt.setInt(1, table.getId());
+        stmt.setInt(2, table.getNumber());
+        stmt.setInt(3, table.getCapacity());
+    }
+
+    private void bindOrder(PreparedStatement stmt, Order order) throws SQLException {
+        stmt.setInt(1, order.getId());
+        stmt.setString(2, order.getReference());
+        stmt.setTimestamp(3, Timestamp.from(order.getCreationDatetime()));
+        stmt.setInt(4, order.getTableId());
+        stmt.setTimestamp(5, Timestamp.valueOf(order.getInstallationDatetime()));
+        if (order.getDepartureDatetime() != null) {
+            stmt.setTimestamp(6, Timestamp.valueOf(order.getDepartureDatetime()));
+        } else {
+            stmt.setNull(6, Types.TIMESTAMP);
+        }
+    }
+
+    private void syncSequence(Connection con, String sql) throws SQLException {
+        Statement stmt = null;
+        try {
+            stmt = con.createStatement();
+            stmt.execute(sql);
+        } finally {
+            dbConnection.attemptCloseDBConnection(stmt);
+        }
+    }
+
+    private void rollbackQuietly(Connection con) {
+        try {
+            if (con != null && !con.isClosed()) {
+                con.rollback();
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: Rollback failed: " + e.getMessage());
+        }
+    }
+
+    private void restoreAutoCommit(Connection con) {
+        try {
+            if (con != null && !con.isClosed()) {
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: AutoCommit restore failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the background flusher and makes a last attempt at the queued writes; whatever
+     * fails stays in the journal for the next start
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushInBackground();
+    }
+}
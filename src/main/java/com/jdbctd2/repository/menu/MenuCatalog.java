@@ -0,0 +1,101 @@
+package com.jdbctd2.repository.menu;
+
+import com.jdbctd2.model.Dish;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the current {@link MenuSnapshot} through a single volatile reference. Readers never
+ * block and always see one consistent menu; rebuilds run on a background thread and replace
+ * the snapshot in one write. A rebuild that finds the menu changed bumps the version.
+ */
+public final class MenuCatalog implements AutoCloseable {
+    private final Supplier<List<Dish>> availableDishesLoader;
+    private final ExecutorService rebuilder;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    // Not a monitor: it is held across the load and would pin a virtual thread's carrier
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile MenuSnapshot snapshot;
+
+    /**
+     * Builds the first snapshot before returning.
+     *
+     * @param availableDishesLoader loads the available dishes sorted by name
+     */
+    public MenuCatalog(Supplier<List<Dish>> availableDishesLoader) {
+        this.availableDishesLoader = availableDishesLoader;
+        this.rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "menu-catalog-rebuilder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuildNow();
+    }
+
+    public MenuSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    public boolean hasChangedSince(long version) {
+        return snapshot.getVersion() != version;
+    }
+
+    /**
+     * Unmodifiable list of the snapshot's own dishes; treat them as read-only
+     */
+    public List<Dish> getDishesByCategory(String category) {
+        return snapshot.getDishesByCategory(category);
+    }
+
+    /**
+     * Schedules a rebuild off the caller's thread. Requests arriving while one is already
+     * queued are folded into it.
+     */
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                // Cleared before loading so that changes made during the load queue another rebuild
+                rebuildPending.set(false);
+                try {
+                    rebuildNow();
+                } catch (RuntimeException e) {
+                    System.err.println("Warning: Menu rebuild failed, keeping version "
+                            + snapshot.getVersion() + ": " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Loads and publishes under one lock, so a slow load can never overwrite a newer menu.
+     * Keeps the current snapshot, and its version, when nothing changed.
+     */
+    public MenuSnapshot rebuildNow() {
+        rebuildLock.lock();
+        try {
+            List<Dish> dishes = availableDishesLoader.get();
+            if (snapshot != null && snapshot.hasSameDishes(dishes)) {
+                return snapshot;
+            }
+            long nextVersion = snapshot == null ? 1 : snapshot.getVersion() + 1;
+            snapshot = new MenuSnapshot(nextVersion, dishes);
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        rebuilder.shutdownNow();
+    }
+}
@@ -0,0 +1,92 @@
+package com.jdbctd2.repository.menu;
+
+import com.jdbctd2.model.Dish;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable view of the available dishes, grouped by category and sorted by name. The
+ * {@link Dish} instances are shared with every reader and must be treated as read-only.
+ */
+public class MenuSnapshot {
+    private final long version;
+    private final Instant builtAt;
+    private final List<Dish> availableDishes;
+    private final Map<String, List<Dish>> dishesByCategory;
+
+    /**
+     * @param availableDishes available dishes already sorted by name
+     */
+    public MenuSnapshot(long version, List<Dish> availableDishes) {
+        this.version = version;
+        this.builtAt = Instant.now();
+        this.availableDishes = List.copyOf(availableDishes);
+
+        Map<String, List<Dish>> grouped = new LinkedHashMap<>();
+        for (Dish dish : availableDishes) {
+            if (dish.getCategory() != null) {
+                grouped.computeIfAbsent(dish.getCategory(), category -> new ArrayList<>()).add(dish);
+            }
+        }
+        grouped.replaceAll((category, dishes) -> List.copyOf(dishes));
+        this.dishesByCategory = Collections.unmodifiableMap(grouped);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public Set<String> getCategories() {
+        return dishesByCategory.keySet();
+    }
+
+    public List<Dish> getDishesByCategory(String category) {
+        return dishesByCategory.getOrDefault(category, List.of());
+    }
+
+    /**
+     * True when {@code dishes} hold the same values, in the same order, as the ones this
+     * snapshot was built from
+     */
+    boolean hasSameDishes(List<Dish> dishes) {
+        if (dishes.size() != availableDishes.size()) {
+            return false;
+        }
+        for (int i = 0; i < dishes.size(); i++) {
+            if (!sameDish(availableDishes.get(i), dishes.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameDish(Dish a, Dish b) {
+        return Objects.equals(a.getId(), b.getId())
+                && Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getPrice(), b.getPrice())
+                && Objects.equals(a.getCategory(), b.getCategory())
+                && Objects.equals(a.getIsAvailable(), b.getIsAvailable())
+                && Objects.equals(a.getCreatedAt(), b.getCreatedAt());
+    }
+
+    @Override
+    public String toString() {
+        return "MenuSnapshot{" +
+                "version=" + version +
+                ", builtAt=" + builtAt +
+                ", categories=" + dishesByCategory.keySet() +
+                '}';
+    }
+}
@@ -0,0 +1,159 @@
+package com.jdbctd2.repository.occupancy;
+
+import com.jdbctd2.model.Table;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process index of table occupancy, answering the {@code TableRepository} availability
+ * questions without a query. Each table keeps its occupied periods as a sorted set of disjoint
+ * open intervals, so a lookup is a single {@code lowerEntry} in O(log n).
+ * <p>
+ * Intervals follow the SQL predicate used by {@code DataRetriever}: an order occupies its table
+ * strictly between {@code installation_datetime} and {@code departure_datetime}, and orders
+ * without a departure, or departing no later than they are installed, never block a table.
+ * <p>
+ * The index only sees orders saved through this process; another writer on the same database
+ * requires a {@link #clear()} and reload.
+ */
+public class TableOccupancyIndex {
+    private final Map<Integer, Table> tablesById = new ConcurrentHashMap<>();
+    private final Map<Integer, TableTimeline> timelines = new ConcurrentHashMap<>();
+    private volatile List<Table> tablesByNumber = List.of();
+    private volatile boolean loaded;
+    private final AtomicLong consistencyMismatches = new AtomicLong();
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void markLoaded() {
+        this.loaded = true;
+    }
+
+    public void clear() {
+        loaded = false;
+        tablesById.clear();
+        timelines.clear();
+        tablesByNumber = List.of();
+    }
+
+    public synchronized void putTable(Table table) {
+        tablesById.put(table.getId(), table);
+        List<Table> sorted = new ArrayList<>(tablesById.values());
+        sorted.sort(Comparator.comparing(Table::getNumber));
+        tablesByNumber = List.copyOf(sorted);
+    }
+
+    public Table getTable(Integer tableId) {
+        return tablesById.get(tableId);
+    }
+
+    /**
+     * Tables known to the index, sorted by number
+     */
+    public List<Table> getTables() {
+        return tablesByNumber;
+    }
+
+    public void addOccupancy(Integer tableId, LocalDateTime installation, LocalDateTime departure) {
+        if (tableId == null || installation == null || departure == null || !installation.isBefore(departure)) {
+            return;
+        }
+        timelines.computeIfAbsent(tableId, id -> new TableTimeline()).add(installation, departure);
+    }
+
+    public boolean isTableAvailableAtDateTime(Integer tableId, LocalDateTime dateTime) {
+        TableTimeline timeline = timelines.get(tableId);
+        return timeline == null || timeline.isFreeAt(dateTime);
+    }
+
+    /**
+     * True when no order overlaps the open interval {@code (from, to)}
+     */
+    public boolean isTableFreeBetween(Integer tableId, LocalDateTime from, LocalDateTime to) {
+        TableTimeline timeline = timelines.get(tableId);
+        return timeline == null || timeline.isFreeBetween(from, to);
+    }
+
+    public List<Table> findAvailableTablesAtDateTime(LocalDateTime dateTime) {
+        List<Table> available = new ArrayList<>();
+        for (Table table : tablesByNumber) {
+            if (isTableAvailableAtDateTime(table.getId(), dateTime)) {
+                available.add(table);
+            }
+        }
+        return available;
+    }
+
+    public long recordConsistencyMismatch() {
+        return consistencyMismatches.incrementAndGet();
+    }
+
+    public long getConsistencyMismatches() {
+        return consistencyMismatches.get();
+    }
+
+    /**
+     * Occupied periods of one table, merged so that stored intervals never overlap
+     */
+    private static class TableTimeline {
+        private final TreeMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void add(LocalDateTime start, LocalDateTime end) {
+            lock.writeLock().lock();
+            try {
+                Map.Entry<LocalDateTime, LocalDateTime> floor = intervals.floorEntry(start);
+                if (floor != null && floor.getValue().isAfter(start)) {
+                    start = floor.getKey();
+                    if (floor.getValue().isAfter(end)) {
+                        end = floor.getValue();
+                    }
+                    intervals.remove(floor.getKey());
+                }
+
+                Map.Entry<LocalDateTime, LocalDateTime> next = intervals.ceilingEntry(start);
+                while (next != null && next.getKey().isBefore(end)) {
+                    if (next.getValue().isAfter(end)) {
+                        end = next.getValue();
+                    }
+                    intervals.remove(next.getKey());
+                    next = intervals.ceilingEntry(start);
+                }
+
+                intervals.put(start, end);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean isFreeAt(LocalDateTime dateTime) {
+            lock.readLock().lock();
+            try {
+                Map.Entry<LocalDateTime, LocalDateTime> lower = intervals.lowerEntry(dateTime);
+                return lower == null || !lower.getValue().isAfter(dateTime);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        boolean isFreeBetween(LocalDateTime from, LocalDateTime to) {
+            lock.readLock().lock();
+            try {
+                Map.Entry<LocalDateTime, LocalDateTime> lower = intervals.lowerEntry(to);
+                return lower == null || !lower.getValue().isAfter(from);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
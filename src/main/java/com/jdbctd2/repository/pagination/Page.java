@@ -0,0 +1,37 @@
+package com.jdbctd2.repository.pagination;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is an opaque token to pass back
+ * for the following page, or null on the last page.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = List.copyOf(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "items=" + items.size() +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,56 @@
+package com.jdbctd2.repository.pagination;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encodes the sort key of the last row of a page into an opaque, URL-safe continuation token.
+ * The token carries the name of the listing it belongs to so that a customer token cannot be
+ * replayed against the staff listing.
+ */
+public final class PageToken {
+    private static final int VERSION = 1;
+
+    private PageToken() {
+    }
+
+    public static String encode(String listing, List<String> keyValues) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeUTF(listing);
+            out.writeByte(keyValues.size());
+            for (String value : keyValues) {
+                out.writeUTF(value);
+            }
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode page token", e);
+        }
+    }
+
+    public static List<String> decode(String listing, String token, int keySize) {
+        try {
+            byte[] raw = Base64.getUrlDecoder().decode(token);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+            if (in.readByte() != VERSION || !listing.equals(in.readUTF()) || in.readByte() != keySize) {
+                throw new IllegalArgumentException("Page token does not belong to " + listing);
+            }
+            List<String> keyValues = new ArrayList<>(keySize);
+            for (int i = 0; i < keySize; i++) {
+                keyValues.add(in.readUTF());
+            }
+            return keyValues;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token: " + e.getMessage(), e);
+        }
+    }
+}
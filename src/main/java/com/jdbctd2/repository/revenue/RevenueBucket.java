@@ -0,0 +1,53 @@
+package com.jdbctd2.repository.revenue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Revenue of one period, optionally restricted to one payment method
+ */
+public class RevenueBucket {
+    private final LocalDateTime periodStart;
+    private final String paymentMethod;
+    private final BigDecimal amountTotal;
+    private final long paymentCount;
+
+    public RevenueBucket(LocalDateTime periodStart, String paymentMethod, BigDecimal amountTotal, long paymentCount) {
+        this.periodStart = periodStart;
+        this.paymentMethod = paymentMethod;
+        this.amountTotal = amountTotal;
+        this.paymentCount = paymentCount;
+    }
+
+    /**
+     * Start of the hour or day; {@code null} for a total over the whole requested range
+     */
+    public LocalDateTime getPeriodStart() {
+        return periodStart;
+    }
+
+    /**
+     * {@code null} when the bucket covers every method
+     */
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public BigDecimal getAmountTotal() {
+        return amountTotal;
+    }
+
+    public long getPaymentCount() {
+        return paymentCount;
+    }
+
+    @Override
+    public String toString() {
+        return "RevenueBucket{" +
+                "periodStart=" + periodStart +
+                ", paymentMethod='" + paymentMethod + '\'' +
+                ", amountTotal=" + amountTotal +
+                ", paymentCount=" + paymentCount +
+                '}';
+    }
+}
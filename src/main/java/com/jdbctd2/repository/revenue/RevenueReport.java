@@ -0,0 +1,110 @@
+package com.jdbctd2.repository.revenue;
+
+import com.jdbctd2.config.DBConnection;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Revenue range queries answered from {@code payment_rollup_hourly} instead of scanning
+ * {@code payment}. Ranges are half-open, {@code [from, to)}, and resolve to whole hours: a bound
+ * inside an hour includes or excludes that hour as a whole.
+ * <p>
+ * Only payments already rolled up are counted, see {@link RevenueRollup}.
+ */
+public class RevenueReport {
+    public static final String DEFAULT_STATUS = "completed";
+
+    private final DBConnection dbConnection;
+    private final String status;
+
+    public RevenueReport(DBConnection dbConnection) {
+        this(dbConnection, DEFAULT_STATUS);
+    }
+
+    /**
+     * @param status payment status counted as revenue
+     */
+    public RevenueReport(DBConnection dbConnection, String status) {
+        this.dbConnection = dbConnection;
+        this.status = status;
+    }
+
+    public List<RevenueBucket> getHourlyRevenue(LocalDateTime from, LocalDateTime to) {
+        return query("bucket_hour", false, from, to);
+    }
+
+    public List<RevenueBucket> getDailyRevenue(LocalDateTime from, LocalDateTime to) {
+        return query("date_trunc('day', bucket_hour)", false, from, to);
+    }
+
+    public List<RevenueBucket> getDailyRevenueByMethod(LocalDateTime from, LocalDateTime to) {
+        return query("date_trunc('day', bucket_hour)", true, from, to);
+    }
+
+    /**
+     * One bucket per payment method over the whole range
+     */
+    public List<RevenueBucket> getRevenueByMethod(LocalDateTime from, LocalDateTime to) {
+        return query(null, true, from, to);
+    }
+
+    public RevenueBucket getTotalRevenue(LocalDateTime from, LocalDateTime to) {
+        List<RevenueBucket> total = query(null, false, from, to);
+        return total.isEmpty() ? new RevenueBucket(null, null, BigDecimal.ZERO, 0) : total.get(0);
+    }
+
+    // ============= Helper Methods =============
+
+    private List<RevenueBucket> query(String period, boolean byMethod, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Range start must be before its end");
+        }
+
+        List<String> groupBy = new ArrayList<>();
+        if (period != null) {
+            groupBy.add("period_start");
+        }
+        if (byMethod) {
+            groupBy.add("payment_method");
+        }
+        String sql = "SELECT " + (period != null ? period : "NULL::timestamp") + " AS period_start, " +
+                (byMethod ? "payment_method" : "NULL::varchar AS payment_method") + ", " +
+                "SUM(amount_total) AS amount_total, SUM(payment_count) AS payment_count " +
+                "FROM payment_rollup_hourly " +
+                "WHERE status = ? and bucket_hour >= date_trunc('hour', ?::timestamp) and bucket_hour < ? " +
+                (groupBy.isEmpty() ? "HAVING COUNT(*) > 0" :
+                        "GROUP BY " + String.join(", ", groupBy) + " ORDER BY " + String.join(", ", groupBy));
+
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            con = dbConnection.getDBConnection();
+            stmt = con.prepareStatement(sql);
+            stmt.setString(1, status);
+            stmt.setTimestamp(2, Timestamp.valueOf(from));
+            stmt.setTimestamp(3, Timestamp.valueOf(to));
+            rs = stmt.executeQuery();
+
+            List<RevenueBucket> buckets = new ArrayList<>();
+            while (rs.next()) {
+                buckets.add(new RevenueBucket(rs.getObject("period_start", LocalDateTime.class),
+                        rs.getString("payment_method"), rs.getBigDecimal("amount_total"), rs.getLong("payment_count")));
+            }
+            return buckets;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to query revenue: " + e.getMessage(), e);
+        } finally {
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
+        }
+    }
+}
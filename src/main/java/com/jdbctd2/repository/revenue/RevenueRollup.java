@@ -0,0 +1,282 @@
+package com.jdbctd2.repository.revenue;
+
+import com.jdbctd2.config.DBConnection;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains {@code payment_rollup_hourly}: amount and count of payments per hour, payment method
+ * and status. Days and per-method totals are summed from the hourly rows by {@link RevenueReport}.
+ * <p>
+ * Each payment carries a {@code rolled_up} flag that is set in the same statement that adds it to
+ * the aggregates, so a payment is counted exactly once whichever path gets to it first: the
+ * retriever right after {@code savePayment} commits, or the catch-up job for payments written by
+ * other means (bulk imports, other clients) or whose immediate roll-up failed. Rows are claimed
+ * with {@code SKIP LOCKED}, so both paths can run at the same time.
+ * <p>
+ * Payments change after being rolled up too: a bulk import upserts over existing ids and
+ * deleting an order cascades to its payments. A trigger on {@code payment} (see
+ * {@code sql/revenue_rollups.sql}) takes the old row back out of its bucket, and an updated
+ * payment goes back to pending so the catch-up adds its new values.
+ */
+public class RevenueRollup implements AutoCloseable {
+    public static final int DEFAULT_CATCH_UP_BATCH_SIZE = 10_000;
+
+    private static final String BUCKET_COLUMNS = "date_trunc('hour', coalesce(payment_date, '-infinity'::timestamp)) AS bucket_hour, " +
+            "coalesce(payment_method, 'unknown') AS payment_method, coalesce(status, 'unknown') AS status";
+    private static final String ROLL_UP_SQL_TEMPLATE = "WITH pending AS (" +
+            "SELECT id FROM payment WHERE NOT rolled_up%s ORDER BY id%s FOR UPDATE SKIP LOCKED" +
+            "), marked AS (" +
+            "UPDATE payment p SET rolled_up = true FROM pending WHERE p.id = pending.id " +
+            "RETURNING p.payment_date, p.payment_method, p.status, p.amount" +
+            "), delta AS (" +
+            "SELECT " + BUCKET_COLUMNS + ", SUM(amount) AS amount_total, COUNT(*) AS payment_count " +
+            "FROM marked GROUP BY 1, 2, 3" +
+            "), upserted AS (" +
+            "INSERT INTO payment_rollup_hourly (bucket_hour, payment_method, status, amount_total, payment_count) " +
+            "SELECT bucket_hour, payment_method, status, amount_total, payment_count FROM delta ORDER BY 1, 2, 3 " +
+            "ON CONFLICT (bucket_hour, payment_method, status) DO UPDATE SET " +
+            "amount_total = payment_rollup_hourly.amount_total + EXCLUDED.amount_total, " +
+            "payment_count = payment_rollup_hourly.payment_count + EXCLUDED.payment_count" +
+            ") " +
+            "SELECT COALESCE(SUM(payment_count), 0) FROM delta";
+    private static final String ROLL_UP_BY_ID_SQL = String.format(ROLL_UP_SQL_TEMPLATE, " and id = ANY(?)", "");
+    private static final String ROLL_UP_PENDING_SQL = String.format(ROLL_UP_SQL_TEMPLATE, "", " LIMIT ?");
+    private static final String RECOMPUTE_SQL = "SELECT " + BUCKET_COLUMNS + ", SUM(amount) AS amount_total, " +
+            "COUNT(*) AS payment_count FROM payment WHERE rolled_up GROUP BY 1, 2, 3";
+
+    private final DBConnection dbConnection;
+    private int catchUpBatchSize = DEFAULT_CATCH_UP_BATCH_SIZE;
+    private ScheduledExecutorService catchUpScheduler;
+
+    public RevenueRollup(DBConnection dbConnection) {
+        this.dbConnection = dbConnection;
+    }
+
+    public int getCatchUpBatchSize() {
+        return catchUpBatchSize;
+    }
+
+    /**
+     * Payments claimed per catch-up transaction
+     */
+    public void setCatchUpBatchSize(int catchUpBatchSize) {
+        if (catchUpBatchSize < 1) {
+            throw new IllegalArgumentException("Catch-up batch size must be at least 1");
+        }
+        this.catchUpBatchSize = catchUpBatchSize;
+    }
+
+    /**
+     * Adds the given payments to the aggregates unless they already are. Returns how many were added.
+     */
+    public long rollUp(Collection<Integer> paymentIds) {
+        if (paymentIds.isEmpty()) {
+            return 0;
+        }
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        Array idArray = null;
+
+        try {
+            con = dbConnection.getDBConnection();
+            idArray = con.createArrayOf("integer", paymentIds.toArray());
+            stmt = con.prepareStatement(ROLL_UP_BY_ID_SQL);
+            stmt.setArray(1, idArray);
+            rs = stmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to roll up payments: " + e.getMessage(), e);
+        } finally {
+            freeQuietly(idArray);
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
+        }
+    }
+
+    /**
+     * Rolls up every pending payment, {@link #setCatchUpBatchSize(int) catchUpBatchSize} per
+     * transaction. Returns how many were added.
+     */
+    public long catchUp() {
+        Connection con = null;
+        PreparedStatement stmt = null;
+
+        try {
+            con = dbConnection.getDBConnection();
+            stmt = con.prepareStatement(ROLL_UP_PENDING_SQL);
+            long total = 0;
+            while (true) {
+                stmt.setInt(1, catchUpBatchSize);
+                long rolledUp;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rolledUp = rs.next() ? rs.getLong(1) : 0;
+                }
+                total += rolledUp;
+                if (rolledUp < catchUpBatchSize) {
+                    return total;
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to catch up payment roll-up: " + e.getMessage(), e);
+        } finally {
+            dbConnection.attemptCloseDBConnection(stmt, con);
+        }
+    }
+
+    /**
+     * Runs {@link #catchUp()} in the background every {@code period}
+     */
+    public synchronized void startCatchUp(Duration period) {
+        if (catchUpScheduler != null) {
+            throw new IllegalStateException("Catch-up job already started");
+        }
+        catchUpScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revenue-rollup-catch-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        catchUpScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                catchUp();
+            } catch (RuntimeException e) {
+                System.err.println("Warning: Revenue roll-up catch-up failed: " + e.getMessage());
+            }
+        }, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Compares the aggregates with a recompute from {@code payment}, in one snapshot. Pending
+     * payments are excluded from both sides.
+     */
+    public RollupVerification verify() {
+        String sql = "WITH expected AS (" + RECOMPUTE_SQL + ") " +
+                "SELECT coalesce(e.bucket_hour, a.bucket_hour) AS bucket_hour, " +
+                "coalesce(e.payment_method, a.payment_method) AS payment_method, coalesce(e.status, a.status) AS status, " +
+                "e.amount_total AS expected_amount, e.payment_count AS expected_count, " +
+                "a.amount_total AS actual_amount, a.payment_count AS actual_count, " +
+                "(SELECT COUNT(*) FROM payment WHERE NOT rolled_up) AS pending " +
+                "FROM expected e FULL JOIN payment_rollup_hourly a ON a.bucket_hour = e.bucket_hour " +
+                "and a.payment_method = e.payment_method and a.status = e.status";
+
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            con = dbConnection.getDBConnection();
+            stmt = con.prepareStatement(sql);
+            rs = stmt.executeQuery();
+
+            long bucketsChecked = 0;
+            long pending = 0;
+            List<String> mismatches = new ArrayList<>();
+            while (rs.next()) {
+                bucketsChecked++;
+                pending = rs.getLong("pending");
+                BigDecimal expectedAmount = rs.getBigDecimal("expected_amount");
+                BigDecimal actualAmount = rs.getBigDecimal("actual_amount");
+                long expectedCount = rs.getLong("expected_count");
+                long actualCount = rs.getLong("actual_count");
+                // equals, not compareTo: the scale has to match as well
+                if (!Objects.equals(expectedAmount, actualAmount) || expectedCount != actualCount) {
+                    mismatches.add(rs.getObject("bucket_hour", LocalDateTime.class) + " "
+                            + rs.getString("payment_method") + "/" + rs.getString("status")
+                            + ": expected " + expectedAmount + " (" + expectedCount + " payments)"
+                            + ", rolled up " + actualAmount + " (" + actualCount + " payments)");
+                }
+            }
+            return new RollupVerification(bucketsChecked, pending, mismatches);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to verify revenue roll-up: " + e.getMessage(), e);
+        } finally {
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
+        }
+    }
+
+    /**
+     * Throws the aggregates away and recomputes them from every payment. Incremental roll-ups wait
+     * for it; payments committed meanwhile stay pending for the next catch-up.
+     */
+    public void rebuild() {
+        Connection con = null;
+        try {
+            con = dbConnection.getDBConnection();
+            con.setAutoCommit(false);
+            con.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+
+            try (Statement stmt = con.createStatement()) {
+                // Taken before the snapshot so that in-flight roll-ups have committed
+                stmt.execute("LOCK TABLE payment_rollup_hourly IN EXCLUSIVE MODE");
+                stmt.executeUpdate("DELETE FROM payment_rollup_hourly");
+                stmt.executeUpdate("UPDATE payment SET rolled_up = true WHERE NOT rolled_up");
+                stmt.executeUpdate("INSERT INTO payment_rollup_hourly (bucket_hour, payment_method, status, " +
+                        "amount_total, payment_count) " + RECOMPUTE_SQL);
+            }
+
+            con.commit();
+        } catch (SQLException | RuntimeException e) {
+            rollbackQuietly(con);
+            throw new RuntimeException("Failed to rebuild revenue roll-up: " + e.getMessage(), e);
+        } finally {
+            restoreTransactionDefaults(con);
+            dbConnection.attemptCloseDBConnection(con);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (catchUpScheduler != null) {
+            catchUpScheduler.shutdownNow();
+            catchUpScheduler = null;
+        }
+    }
+
+    // ============= Helper Methods =============
+
+    private void freeQuietly(Array array) {
+        try {
+            if (array != null) {
+                array.free();
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not free array: " + e.getMessage());
+        }
+    }
+
+    private void rollbackQuietly(Connection con) {
+        try {
+            if (con != null && !con.isClosed()) {
+                con.rollback();
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: Rollback failed: " + e.getMessage());
+        }
+    }
+
+    private void restoreTransactionDefaults(Connection con) {
+        try {
+            if (con != null && !con.isClosed()) {
+                con.setAutoCommit(true);
+                con.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: AutoCommit restore failed: " + e.getMessage());
+        }
+    }
+}
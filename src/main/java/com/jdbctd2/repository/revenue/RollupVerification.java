@@ -0,0 +1,49 @@
+package com.jdbctd2.repository.revenue;
+
+import java.util.List;
+
+/**
+ * Result of comparing {@code payment_rollup_hourly} with a full recompute over {@code payment}
+ */
+public class RollupVerification {
+    private final long bucketsChecked;
+    private final long pendingPayments;
+    private final List<String> mismatches;
+
+    public RollupVerification(long bucketsChecked, long pendingPayments, List<String> mismatches) {
+        this.bucketsChecked = bucketsChecked;
+        this.pendingPayments = pendingPayments;
+        this.mismatches = List.copyOf(mismatches);
+    }
+
+    public long getBucketsChecked() {
+        return bucketsChecked;
+    }
+
+    /**
+     * Payments not rolled up yet; they are left out of both sides of the comparison
+     */
+    public long getPendingPayments() {
+        return pendingPayments;
+    }
+
+    /**
+     * One line per bucket whose rolled-up total or count differs from the recompute
+     */
+    public List<String> getMismatches() {
+        return mismatches;
+    }
+
+    public boolean isConsistent() {
+        return mismatches.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "RollupVerification{" +
+                "bucketsChecked=" + bucketsChecked +
+                ", pendingPayments=" + pendingPayments +
+                ", mismatches=" + mismatches.size() +
+                '}';
+    }
+}
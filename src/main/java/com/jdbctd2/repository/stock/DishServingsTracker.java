@@ -0,0 +1,147 @@
+package com.jdbctd2.repository.stock;
+
+import com.jdbctd2.config.DBConnection;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps, per dish, how many portions the current ingredient stock still allows: the minimum over
+ * the recipe of {@code floor(quantity_in_stock / quantity)}. After a stock or recipe change only
+ * the dishes that use the changed ingredients are recomputed.
+ * <p>
+ * The same statement flips {@code dish.is_available} to false when a dish reaches zero servings,
+ * and back to true once it is restocked, but only for dishes switched off that way so a dish
+ * withdrawn by hand stays withdrawn. Which is which is kept in {@code dish.auto_unavailable},
+ * written by the same statement, so it survives restarts. Dishes without a tracked ingredient
+ * have no figure.
+ */
+public class DishServingsTracker {
+    private static final String REFRESH_SQL_TEMPLATE = "WITH affected AS (" +
+            "SELECT d.id FROM dish d WHERE %s" +
+            "), servings AS (" +
+            "SELECT di.id_dish, GREATEST(0, MIN(FLOOR(i.quantity_in_stock / di.quantity)))::integer AS servings " +
+            "FROM dish_ingredient di JOIN ingredient i ON i.id = di.id_ingredient " +
+            "WHERE di.id_dish IN (SELECT id FROM affected) and i.quantity_in_stock IS NOT NULL and di.quantity > 0 " +
+            "GROUP BY di.id_dish" +
+            "), flipped AS (" +
+            "UPDATE dish d SET is_available = s.servings > 0, auto_unavailable = s.servings = 0 FROM servings s " +
+            "WHERE d.id = s.id_dish and ((s.servings = 0 and d.is_available IS NOT FALSE) " +
+            "or (s.servings > 0 and d.is_available = false and d.auto_unavailable)) " +
+            "RETURNING d.id, d.is_available" +
+            ") " +
+            "SELECT a.id, s.servings, f.is_available AS flipped_to " +
+            "FROM affected a LEFT JOIN servings s ON s.id_dish = a.id LEFT JOIN flipped f ON f.id = a.id";
+    private static final String REFRESH_ALL_SQL = String.format(REFRESH_SQL_TEMPLATE, "true");
+    private static final String REFRESH_BY_DISH_SQL = String.format(REFRESH_SQL_TEMPLATE, "d.id = ANY(?)");
+    private static final String REFRESH_BY_INGREDIENT_SQL = String.format(REFRESH_SQL_TEMPLATE,
+            "d.id IN (SELECT id_dish FROM dish_ingredient WHERE id_ingredient = ANY(?))");
+
+    private final DBConnection dbConnection;
+    private final Map<Integer, Integer> servings = new ConcurrentHashMap<>();
+    // Not a monitor: it is held across a query and would pin a virtual thread's carrier
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    public DishServingsTracker(DBConnection dbConnection) {
+        this.dbConnection = dbConnection;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Portions of the dish the stock still allows, or {@code null} when none of its
+     * ingredients is tracked
+     */
+    public Integer getServings(Integer dishId) {
+        return servings.get(dishId);
+    }
+
+    public Map<Integer, Integer> getAllServings() {
+        return new HashMap<>(servings);
+    }
+
+    /**
+     * Computes every dish. Returns the ids of the dishes whose availability was flipped.
+     */
+    public Set<Integer> loadAll() {
+        Set<Integer> flipped = refresh(REFRESH_ALL_SQL, null);
+        loaded = true;
+        return flipped;
+    }
+
+    public Set<Integer> refreshForIngredients(Collection<Integer> ingredientIds) {
+        return ingredientIds.isEmpty() ? Set.of() : refresh(REFRESH_BY_INGREDIENT_SQL, ingredientIds);
+    }
+
+    public Set<Integer> refreshForDishes(Collection<Integer> dishIds) {
+        return dishIds.isEmpty() ? Set.of() : refresh(REFRESH_BY_DISH_SQL, dishIds);
+    }
+
+    // ============= Helper Methods =============
+
+    /**
+     * Serialized so that the refresh reading the database last is also the one writing last
+     */
+    private Set<Integer> refresh(String sql, Collection<Integer> filterIds) {
+        refreshLock.lock();
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        Array filterArray = null;
+
+        try {
+            con = dbConnection.getDBConnection();
+            stmt = con.prepareStatement(sql);
+            if (filterIds != null) {
+                filterArray = con.createArrayOf("integer", filterIds.toArray());
+                stmt.setArray(1, filterArray);
+            }
+            rs = stmt.executeQuery();
+
+            Set<Integer> flipped = new LinkedHashSet<>();
+            while (rs.next()) {
+                int dishId = rs.getInt("id");
+                int dishServings = rs.getInt("servings");
+                if (rs.wasNull()) {
+                    servings.remove(dishId);
+                } else {
+                    servings.put(dishId, dishServings);
+                }
+
+                if (rs.getObject("flipped_to") != null) {
+                    flipped.add(dishId);
+                }
+            }
+            return flipped;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to refresh dish servings: " + e.getMessage(), e);
+        } finally {
+            freeQuietly(filterArray);
+            dbConnection.attemptCloseDBConnection(rs, stmt, con);
+            refreshLock.unlock();
+        }
+    }
+
+    private void freeQuietly(Array array) {
+        try {
+            if (array != null) {
+                array.free();
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not free array: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.jdbctd2.repository.stock;
+
+import java.math.BigDecimal;
+
+/**
+ * How much of one ingredient a batch of order items used
+ */
+public class IngredientConsumption {
+    private final int ingredientId;
+    private final BigDecimal consumed;
+    private final BigDecimal stockBefore;
+    private final BigDecimal stockAfter;
+
+    public IngredientConsumption(int ingredientId, BigDecimal consumed, BigDecimal stockBefore, BigDecimal stockAfter) {
+        this.ingredientId = ingredientId;
+        this.consumed = consumed;
+        this.stockBefore = stockBefore;
+        this.stockAfter = stockAfter;
+    }
+
+    public int getIngredientId() {
+        return ingredientId;
+    }
+
+    public BigDecimal getConsumed() {
+        return consumed;
+    }
+
+    /**
+     * Stock when the row was locked; {@code null} for an ingredient whose stock is not tracked
+     */
+    public BigDecimal getStockBefore() {
+        return stockBefore;
+    }
+
+    /**
+     * Stock after the decrement; {@code null} when nothing was applied or the stock is not tracked
+     */
+    public BigDecimal getStockAfter() {
+        return stockAfter;
+    }
+
+    public boolean isTracked() {
+        return stockBefore != null;
+    }
+
+    public boolean isShort() {
+        return stockBefore != null && stockBefore.compareTo(consumed) < 0;
+    }
+
+    @Override
+    public String toString() {
+        return "IngredientConsumption{" +
+                "ingredientId=" + ingredientId +
+                ", consumed=" + consumed +
+                ", stockBefore=" + stockBefore +
+                ", stockAfter=" + stockAfter +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+package com.jdbctd2.repository.stock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of converting a batch of order items into ingredient consumption
+ */
+public class StockConsumption {
+    private final StockPolicy policy;
+    private final List<IngredientConsumption> ingredients;
+    private final boolean applied;
+
+    public StockConsumption(StockPolicy policy, List<IngredientConsumption> ingredients, boolean applied) {
+        this.policy = policy;
+        this.ingredients = List.copyOf(ingredients);
+        this.applied = applied;
+    }
+
+    public StockPolicy getPolicy() {
+        return policy;
+    }
+
+    public List<IngredientConsumption> getIngredients() {
+        return ingredients;
+    }
+
+    /**
+     * False when a {@link StockPolicy#REJECT} batch was refused
+     */
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public List<IngredientConsumption> getShortages() {
+        List<IngredientConsumption> shortages = new ArrayList<>();
+        for (IngredientConsumption ingredient : ingredients) {
+            if (ingredient.isShort()) {
+                shortages.add(ingredient);
+            }
+        }
+        return shortages;
+    }
+
+    public boolean hasShortages() {
+        for (IngredientConsumption ingredient : ingredients) {
+            if (ingredient.isShort()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ids of the ingredients whose stock was decremented
+     */
+    public List<Integer> getChangedIngredientIds() {
+        List<Integer> ids = new ArrayList<>();
+        if (applied) {
+            for (IngredientConsumption ingredient : ingredients) {
+                if (ingredient.isTracked()) {
+                    ids.add(ingredient.getIngredientId());
+                }
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public String toString() {
+        return "StockConsumption{" +
+                "policy=" + policy +
+                ", applied=" + applied +
+                ", ingredients=" + ingredients +
+                '}';
+    }
+}
@@ -0,0 +1,194 @@
+package com.jdbctd2.repository.stock;
+
+import com.jdbctd2.config.DBConnection;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Turns saved order items into ingredient consumption through the {@code dish_ingredient}
+ * recipes and takes it out of {@code ingredient.quantity_in_stock}.
+ * <p>
+ * A batch is applied by one statement: the quantities are summed per ingredient, the affected
+ * ingredient rows are locked in id order (so concurrent batches cannot deadlock and other
+ * ingredients stay writable) and decremented with a single {@code UPDATE ... FROM}. The shortage
+ * check reads the locked rows, so two orders racing for the last portions cannot both pass it.
+ * Ingredients with a {@code NULL} stock are not tracked and are never decremented.
+ * <p>
+ * The same statement sets {@code order_item.stock_consumed} on the items it consumes and skips
+ * items already flagged, so consuming an item twice (a retry, or an explicit call after
+ * {@code saveOrderAggregate}) takes nothing the second time. A rolled-back batch leaves its
+ * items unflagged.
+ */
+public class StockEngine {
+    private static final String CONSUME_SQL_TEMPLATE = "WITH claimed AS (" +
+            "UPDATE order_item oi SET stock_consumed = true " +
+            "WHERE %s = ANY(?) and NOT oi.stock_consumed " +
+            "RETURNING oi.id_dish, oi.quantity" +
+            "), consumption AS (" +
+            "SELECT di.id_ingredient, SUM(di.quantity * c.quantity) AS amount " +
+            "FROM claimed c JOIN dish_ingredient di ON di.id_dish = c.id_dish " +
+            "GROUP BY di.id_ingredient" +
+            "), locked AS (" +
+            "SELECT i.id, i.quantity_in_stock FROM ingredient i " +
+            "WHERE i.id IN (SELECT id_ingredient FROM consumption) and i.quantity_in_stock IS NOT NULL " +
+            "ORDER BY i.id FOR UPDATE" +
+            "), shortage AS (" +
+            "SELECT 1 FROM locked l JOIN consumption c ON c.id_ingredient = l.id WHERE l.quantity_in_stock < c.amount" +
+            "), updated AS (" +
+            "UPDATE ingredient i SET quantity_in_stock = i.quantity_in_stock - c.amount " +
+            "FROM locked l JOIN consumption c ON c.id_ingredient = l.id " +
+            "WHERE i.id = l.id and (?::boolean or NOT EXISTS (SELECT 1 FROM shortage)) " +
+            "RETURNING i.id, i.quantity_in_stock" +
+            ") " +
+            "SELECT c.id_ingredient, c.amount, l.quantity_in_stock AS stock_before, " +
+            "u.quantity_in_stock AS stock_after, u.id IS NOT NULL AS applied " +
+            "FROM consumption c LEFT JOIN locked l ON l.id = c.id_ingredient " +
+            "LEFT JOIN updated u ON u.id = c.id_ingredient ORDER BY c.id_ingredient";
+    private static final String CONSUME_BY_ITEM_SQL = String.format(CONSUME_SQL_TEMPLATE, "oi.id");
+    private static final String CONSUME_BY_ORDER_SQL = String.format(CONSUME_SQL_TEMPLATE, "oi.id_order");
+
+    private final DBConnection dbConnection;
+    private final StockPolicy policy;
+
+    public StockEngine(StockPolicy policy) {
+        this(new DBConnection(), policy);
+    }
+
+    public StockEngine(DBConnection dbConnection, StockPolicy policy) {
+        this.dbConnection = dbConnection;
+        this.policy = policy;
+    }
+
+    public StockPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Consumes the stock used by the given order items in its own transaction
+     */
+    public StockConsumption consumeOrderItems(Collection<Integer> orderItemIds) {
+        return inTransaction(con -> consumeOrderItems(con, orderItemIds));
+    }
+
+    /**
+     * Consumes the stock used by every item of the given orders in its own transaction
+     */
+    public StockConsumption consumeOrders(Collection<Integer> orderIds) {
+        return inTransaction(con -> consumeOrders(con, orderIds));
+    }
+
+    /**
+     * Same as {@link #consumeOrderItems(Collection)} inside the caller's transaction. Under
+     * {@link StockPolicy#REJECT} a shortage throws and the caller is expected to roll back.
+     */
+    public StockConsumption consumeOrderItems(Connection con, Collection<Integer> orderItemIds) throws SQLException {
+        return consume(con, CONSUME_BY_ITEM_SQL, orderItemIds);
+    }
+
+    public StockConsumption consumeOrders(Connection con, Collection<Integer> orderIds) throws SQLException {
+        return consume(con, CONSUME_BY_ORDER_SQL, orderIds);
+    }
+
+    // ============= Helper Methods =============
+
+    private StockConsumption consume(Connection con, String sql, Collection<Integer> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return new StockConsumption(policy, List.of(), true);
+        }
+
+        List<IngredientConsumption> ingredients = new ArrayList<>();
+        boolean applied = true;
+        Array idArray = con.createArrayOf("integer", ids.toArray());
+        try (PreparedStatement stmt = con.prepareStatement(sql)) {
+            stmt.setArray(1, idArray);
+            stmt.setBoolean(2, policy == StockPolicy.FLAG);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    IngredientConsumption ingredient = new IngredientConsumption(rs.getInt("id_ingredient"),
+                            rs.getBigDecimal("amount"), rs.getBigDecimal("stock_before"), rs.getBigDecimal("stock_after"));
+                    if (ingredient.isTracked() && !rs.getBoolean("applied")) {
+                        applied = false;
+                    }
+                    ingredients.add(ingredient);
+                }
+            }
+        } finally {
+            idArray.free();
+        }
+
+        StockConsumption consumption = new StockConsumption(policy, ingredients, applied);
+        if (!applied) {
+            throw new RuntimeException(buildShortageMessage(consumption));
+        }
+        if (consumption.hasShortages()) {
+            System.err.println("Warning: " + buildShortageMessage(consumption));
+        }
+        return consumption;
+    }
+
+    private String buildShortageMessage(StockConsumption consumption) {
+        StringBuilder message = new StringBuilder("Insufficient stock for ingredient(s): ");
+        List<IngredientConsumption> shortages = consumption.getShortages();
+        for (int i = 0; i < shortages.size(); i++) {
+            IngredientConsumption shortage = shortages.get(i);
+            if (i > 0) {
+                message.append(", ");
+            }
+            message.append(shortage.getIngredientId())
+                    .append(" (needed: ").append(shortage.getConsumed())
+                    .append(", in stock: ").append(shortage.getStockBefore()).append(")");
+        }
+        return message.toString();
+    }
+
+    private StockConsumption inTransaction(SqlWork work) {
+        Connection con = null;
+        try {
+            con = dbConnection.getDBConnection();
+            con.setAutoCommit(false);
+
+            StockConsumption consumption = work.run(con);
+
+            con.commit();
+            return consumption;
+        } catch (SQLException | RuntimeException e) {
+            rollbackQuietly(con);
+            throw new RuntimeException("Failed to consume stock: " + e.getMessage(), e);
+        } finally {
+            restoreAutoCommit(con);
+            dbConnection.attemptCloseDBConnection(con);
+        }
+    }
+
+    private void rollbackQuietly(Connection con) {
+        try {
+            if (con != null && !con.isClosed()) {
+                con.rollback();
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: Rollback failed: " + e.getMessage());
+        }
+    }
+
+    private void restoreAutoCommit(Connection con) {
+        try {
+            if (con != null && !con.isClosed()) {
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: AutoCommit restore failed: " + e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+        StockConsumption run(Connection con) throws SQLException;
+    }
+}
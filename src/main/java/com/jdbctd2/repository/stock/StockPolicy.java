@@ -0,0 +1,15 @@
+package com.jdbctd2.repository.stock;
+
+/**
+ * What the {@link StockEngine} does when a batch needs more of an ingredient than is in stock
+ */
+public enum StockPolicy {
+    /**
+     * Nothing is decremented and the consumption fails, so the caller's transaction rolls back
+     */
+    REJECT,
+    /**
+     * The stock is decremented anyway, possibly below zero, and the shortage is reported
+     */
+    FLAG
+}
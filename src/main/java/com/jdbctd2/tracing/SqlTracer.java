@@ -0,0 +1,137 @@
+package com.jdbctd2.tracing;
+
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Records every statement run on the connections it wraps into a ring buffer of recent
+ * executions, and those slower than a threshold into a second ring kept as the slow-query log.
+ * Install it with {@code DBConnection.setTracer}; while it is disabled connections are handed
+ * out unwrapped, so tracing that is off costs one volatile read per borrow.
+ */
+public final class SqlTracer {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int DEFAULT_SLOW_CAPACITY = 128;
+    private static final Duration DEFAULT_SLOW_THRESHOLD = Duration.ofMillis(200);
+
+    private final TraceRingBuffer recent;
+    private final TraceRingBuffer slowQueries;
+    private volatile boolean enabled = true;
+    private volatile long slowThresholdNanos;
+    private volatile boolean logSlowQueries = true;
+
+    public SqlTracer() {
+        this(DEFAULT_CAPACITY, DEFAULT_SLOW_CAPACITY, DEFAULT_SLOW_THRESHOLD);
+    }
+
+    public SqlTracer(int capacity, int slowCapacity, Duration slowThreshold) {
+        this.recent = new TraceRingBuffer(capacity);
+        this.slowQueries = new TraceRingBuffer(slowCapacity);
+        setSlowThreshold(slowThreshold);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Connections borrowed from now on are traced
+     */
+    public void enable() {
+        this.enabled = true;
+    }
+
+    /**
+     * Connections borrowed from now on are not traced; those already out keep tracing until
+     * they are closed
+     */
+    public void disable() {
+        this.enabled = false;
+    }
+
+    public Duration getSlowThreshold() {
+        return Duration.ofNanos(slowThresholdNanos);
+    }
+
+    public void setSlowThreshold(Duration slowThreshold) {
+        if (slowThreshold.isNegative()) {
+            throw new IllegalArgumentException("Slow query threshold cannot be negative");
+        }
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    /**
+     * Whether slow queries are also written to {@code System.err} as they happen
+     */
+    public void setLogSlowQueries(boolean logSlowQueries) {
+        this.logSlowQueries = logSlowQueries;
+    }
+
+    public Connection trace(Connection connection) {
+        return TracingJdbc.wrap(connection, this);
+    }
+
+    // ============= Query Methods =============
+
+    /**
+     * Most recent executions, oldest first
+     */
+    public List<TraceEntry> getRecent() {
+        return recent.snapshot();
+    }
+
+    /**
+     * Retained slow executions, oldest first
+     */
+    public List<TraceEntry> getSlowQueries() {
+        return slowQueries.snapshot();
+    }
+
+    public long getTracedCount() {
+        return recent.getAddedCount();
+    }
+
+    public long getSlowQueryCount() {
+        return slowQueries.getAddedCount();
+    }
+
+    public void dumpRecent(PrintStream out) {
+        dump(out, "Recent statements (" + recent.getAddedCount() + " traced)", recent.snapshot());
+    }
+
+    public void dumpSlowQueries(PrintStream out) {
+        dump(out, "Slow queries over " + getSlowThreshold().toMillis() + " ms ("
+                + slowQueries.getAddedCount() + " total)", slowQueries.snapshot());
+    }
+
+    public void clear() {
+        recent.clear();
+        slowQueries.clear();
+    }
+
+    // ============= Recording Methods =============
+
+    void record(Instant startedAt, String sql, List<String> parameters, int batchSize, long durationNanos,
+                long rows, String caller, String sqlState) {
+        String threadName = Thread.currentThread().getName();
+        TraceEntry entry = recent.add(sequence -> new TraceEntry(sequence, startedAt, sql, parameters, batchSize,
+                durationNanos, rows, caller, threadName, sqlState));
+        if (durationNanos >= slowThresholdNanos) {
+            TraceEntry slow = slowQueries.add(sequence -> new TraceEntry(sequence, startedAt, sql, parameters,
+                    batchSize, durationNanos, rows, caller, threadName, sqlState));
+            if (logSlowQueries) {
+                System.err.println("Warning: Slow query: " + slow);
+            }
+        }
+    }
+
+    private void dump(PrintStream out, String title, List<TraceEntry> entries) {
+        out.println(title + ":");
+        for (TraceEntry entry : entries) {
+            out.println("  " + entry);
+        }
+    }
+}
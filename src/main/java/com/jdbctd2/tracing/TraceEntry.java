@@ -0,0 +1,119 @@
+package com.jdbctd2.tracing;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One traced statement execution
+ */
+public class TraceEntry {
+    private final long sequence;
+    private final Instant startedAt;
+    private final String sql;
+    private final List<String> parameters;
+    private final int batchSize;
+    private final long durationNanos;
+    private final long rows;
+    private final String caller;
+    private final String threadName;
+    private final String sqlState;
+
+    public TraceEntry(long sequence, Instant startedAt, String sql, List<String> parameters, int batchSize,
+                      long durationNanos, long rows, String caller, String threadName, String sqlState) {
+        this.sequence = sequence;
+        this.startedAt = startedAt;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.batchSize = batchSize;
+        this.durationNanos = durationNanos;
+        this.rows = rows;
+        this.caller = caller;
+        this.threadName = threadName;
+        this.sqlState = sqlState;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Rendered bind values by position, {@code null} for positions never bound. For a batch,
+     * the values of its first row.
+     */
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Rows in the batch, 0 when the statement was not batched
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * From the execute call until the result was consumed: for a query this includes fetching
+     * and reading every row, up to the result set being closed
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Rows read from the result set or update count; -1 when unknown
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * First application frame that ran the statement, as {@code Class.method:line}
+     */
+    public String getCaller() {
+        return caller;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * SQL state of the error raised by the execution, null when it succeeded
+     */
+    public String getSqlState() {
+        return sqlState;
+    }
+
+    public boolean isFailed() {
+        return sqlState != null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(startedAt)
+                .append(' ').append(String.format("%.3f ms", durationNanos / 1_000_000.0))
+                .append(" rows=").append(rows);
+        if (batchSize > 0) {
+            text.append(" batch=").append(batchSize);
+        }
+        if (sqlState != null) {
+            text.append(" error=").append(sqlState);
+        }
+        text.append(' ').append(caller)
+                .append(" [").append(threadName).append("] ")
+                .append(sql);
+        if (!parameters.isEmpty()) {
+            text.append(" -- params=").append(parameters);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.jdbctd2.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+/**
+ * Fixed-size ring keeping the most recent {@link TraceEntry}s. Writers claim a sequence number
+ * with one atomic increment and publish into the slot it maps to, overwriting the entry one lap
+ * behind; nobody ever waits. Readers skip slots that have been overwritten or are still being
+ * written, so a snapshot taken under load may miss a few entries but never shows a torn one.
+ */
+public class TraceRingBuffer {
+    private final AtomicReferenceArray<TraceEntry> slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public TraceRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be at least 1");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(Math.max(1, size));
+        this.mask = slots.length() - 1;
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * @param entryFactory builds the entry for the claimed sequence number
+     */
+    public TraceEntry add(LongFunction<TraceEntry> entryFactory) {
+        long sequence = nextSequence.getAndIncrement();
+        TraceEntry entry = entryFactory.apply(sequence);
+        slots.set((int) (sequence & mask), entry);
+        return entry;
+    }
+
+    /**
+     * Total number of entries ever added, including overwritten ones
+     */
+    public long getAddedCount() {
+        return nextSequence.get();
+    }
+
+    /**
+     * The retained entries, oldest first
+     */
+    public List<TraceEntry> snapshot() {
+        long end = nextSequence.get();
+        long start = Math.max(0, end - slots.length());
+        List<TraceEntry> entries = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            TraceEntry entry = slots.get((int) (sequence & mask));
+            if (entry != null && entry.getSequence() == sequence) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.jdbctd2.tracing;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Proxies around a traced connection, its statements and their result sets. Bind values are
+ * captured from the {@code set*} calls; a query is recorded once its result set is closed so
+ * that the entry carries the row count.
+ */
+final class TracingJdbc {
+    private static final int MAX_VALUE_LENGTH = 100;
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private TracingJdbc() {
+    }
+
+    static Connection wrap(Connection connection, SqlTracer tracer) {
+        return proxy(Connection.class, new ConnectionHandler(connection, tracer));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object delegate(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args, Object target) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Traced[" + target + "]";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The first frame outside the JDK, the JDBC proxies and the pool, climbed to the outermost
+     * consecutive frame of the same class so that private helpers report their public caller
+     */
+    private static String findCaller() {
+        return STACK_WALKER.walk(frames -> {
+            StackWalker.StackFrame caller = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                if (caller == null) {
+                    if (!isInfrastructure(frame.getClassName())) {
+                        caller = frame;
+                    }
+                } else if (frame.getClassName().equals(caller.getClassName())) {
+                    caller = frame;
+                } else {
+                    break;
+                }
+            }
+            if (caller == null) {
+                return "unknown";
+            }
+            String className = caller.getClassName();
+            return className.substring(className.lastIndexOf('.') + 1) + "." + caller.getMethodName()
+                    + ":" + caller.getLineNumber();
+        });
+    }
+
+    private static boolean isInfrastructure(String className) {
+        return className.startsWith("java.") || className.startsWith("jdk.") || className.startsWith("sun.")
+                || className.startsWith("com.sun.") || className.contains("$Proxy")
+                || className.startsWith("com.jdbctd2.tracing.") || className.startsWith("com.jdbctd2.metrics.")
+                || className.startsWith("com.jdbctd2.config.");
+    }
+
+    private static String render(Method method, Object[] args) {
+        if (method.getName().equals("setNull")) {
+            return "NULL";
+        }
+        Object value = args[1];
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof String text) {
+            return "'" + truncate(text) + "'";
+        }
+        if (value instanceof InputStream || value instanceof Reader) {
+            return "<stream>";
+        }
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        if (value instanceof Array array) {
+            try {
+                Object elements = array.getArray();
+                return truncate(elements instanceof Object[] objects ? Arrays.toString(objects) : String.valueOf(elements));
+            } catch (SQLException e) {
+                return "<array>";
+            }
+        }
+        return truncate(String.valueOf(value));
+    }
+
+    private static String truncate(String text) {
+        return text.length() <= MAX_VALUE_LENGTH ? text : text.substring(0, MAX_VALUE_LENGTH) + "...";
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private final SqlTracer tracer;
+
+        ConnectionHandler(Connection connection, SqlTracer tracer) {
+            this.connection = connection;
+            this.tracer = tracer;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args, connection);
+            if (identity != null) {
+                return identity;
+            }
+            switch (method.getName()) {
+                case "createStatement":
+                case "prepareStatement":
+                case "prepareCall":
+                    Statement statement = (Statement) delegate(connection, method, args);
+                    String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                    return proxy(method.getReturnType(),
+                            new StatementHandler(statement, tracer, (Connection) proxy, sql, findCaller()));
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    return delegate(connection, method, args);
+                default:
+                    return delegate(connection, method, args);
+            }
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private static final String[] NO_PARAMETERS = new String[0];
+
+        private final Statement statement;
+        private final SqlTracer tracer;
+        private final Connection connection;
+        private final String preparedSql;
+        private final String caller;
+        private String[] parameters = NO_PARAMETERS;
+        private List<String> firstBatchRow;
+        private int batchSize;
+        private ResultSetHandler openResultSet;
+
+        StatementHandler(Statement statement, SqlTracer tracer, Connection connection, String preparedSql,
+                         String caller) {
+            this.statement = statement;
+            this.tracer = tracer;
+            this.connection = connection;
+            this.preparedSql = preparedSql;
+            this.caller = caller;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args, statement);
+            if (identity != null) {
+                return identity;
+            }
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, render(method, args));
+                return delegate(statement, method, args);
+            }
+            switch (name) {
+                case "clearParameters":
+                    parameters = NO_PARAMETERS;
+                    return delegate(statement, method, args);
+                case "addBatch":
+                    if (batchSize++ == 0) {
+                        firstBatchRow = currentParameters();
+                    }
+                    return delegate(statement, method, args);
+                case "clearBatch":
+                    batchSize = 0;
+                    firstBatchRow = null;
+                    return delegate(statement, method, args);
+                case "executeQuery":
+                    return executeQuery(proxy, method, args);
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                    return executeUpdate(method, args);
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return executeBatch(method, args);
+                case "execute":
+                    return execute(method, args);
+                case "getConnection":
+                    return connection;
+                case "close":
+                    // Closing the statement closes its result set without going through our proxy
+                    finishResultSet();
+                    return delegate(statement, method, args);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    return delegate(statement, method, args);
+                default:
+                    return delegate(statement, method, args);
+            }
+        }
+
+        private Object executeQuery(Object proxy, Method method, Object[] args) throws Throwable {
+            finishResultSet();
+            Execution execution = start(args);
+            ResultSet resultSet;
+            try {
+                resultSet = (ResultSet) delegate(statement, method, args);
+            } catch (SQLException e) {
+                execution.finish(0, e);
+                throw e;
+            }
+            openResultSet = new ResultSetHandler(resultSet, execution, (Statement) proxy);
+            return proxy(ResultSet.class, openResultSet);
+        }
+
+        private Object executeUpdate(Method method, Object[] args) throws Throwable {
+            finishResultSet();
+            Execution execution = start(args);
+            try {
+                Object count = delegate(statement, method, args);
+                execution.finish(((Number) count).longValue(), null);
+                return count;
+            } catch (SQLException e) {
+                execution.finish(0, e);
+                throw e;
+            }
+        }
+
+        private Object executeBatch(Method method, Object[] args) throws Throwable {
+            finishResultSet();
+            Execution execution = new Execution(preparedSql, firstBatchRow != null ? firstBatchRow : List.of(), batchSize);
+            // The driver empties the batch whether it succeeds or not
+            batchSize = 0;
+            firstBatchRow = null;
+            try {
+                Object counts = delegate(statement, method, args);
+                execution.finish(sumCounts(counts), null);
+                return counts;
+            } catch (SQLException e) {
+                execution.finish(0, e);
+                throw e;
+            }
+        }
+
+        /**
+         * When {@code execute} returns a result set the rows are not counted
+         */
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finishResultSet();
+            Execution execution = start(args);
+            try {
+                boolean hasResultSet = (Boolean) delegate(statement, method, args);
+                execution.finish(hasResultSet ? -1 : statement.getLargeUpdateCount(), null);
+                return hasResultSet;
+            } catch (SQLException e) {
+                execution.finish(0, e);
+                throw e;
+            }
+        }
+
+        private Execution start(Object[] args) {
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            return new Execution(sql, currentParameters(), 0);
+        }
+
+        private void bind(int index, String value) {
+            if (index < 1) {
+                return;
+            }
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+        }
+
+        private List<String> currentParameters() {
+            int length = parameters.length;
+            while (length > 0 && parameters[length - 1] == null) {
+                length--;
+            }
+            return Arrays.asList(Arrays.copyOf(parameters, length));
+        }
+
+        private long sumCounts(Object counts) {
+            long total = 0;
+            if (counts instanceof int[] intCounts) {
+                for (int count : intCounts) {
+                    total += Math.max(0, count);
+                }
+            } else if (counts instanceof long[] longCounts) {
+                for (long count : longCounts) {
+                    total += Math.max(0, count);
+                }
+            }
+            return total;
+        }
+
+        private void finishResultSet() {
+            if (openResultSet != null) {
+                openResultSet.finish();
+                openResultSet = null;
+            }
+        }
+
+        private class Execution {
+            private final Instant startedAt = Instant.now();
+            private final long startNanos = System.nanoTime();
+            private final String sql;
+            private final List<String> boundParameters;
+            private final int executionBatchSize;
+
+            Execution(String sql, List<String> boundParameters, int executionBatchSize) {
+                this.sql = sql;
+                this.boundParameters = boundParameters;
+                this.executionBatchSize = executionBatchSize;
+            }
+
+            void finish(long rows, SQLException error) {
+                tracer.record(startedAt, sql, boundParameters, executionBatchSize, System.nanoTime() - startNanos,
+                        rows, caller, error != null ? String.valueOf(error.getSQLState()) : null);
+            }
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final StatementHandler.Execution execution;
+        private final Statement statement;
+        private long rows;
+        private boolean finished;
+
+        ResultSetHandler(ResultSet resultSet, StatementHandler.Execution execution, Statement statement) {
+            this.resultSet = resultSet;
+            this.execution = execution;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args, resultSet);
+            if (identity != null) {
+                return identity;
+            }
+            switch (method.getName()) {
+                case "next":
+                    Boolean hasRow = (Boolean) delegate(resultSet, method, args);
+                    if (hasRow) {
+                        rows++;
+                    }
+                    return hasRow;
+                case "getStatement":
+                    return statement;
+                case "close":
+                    try {
+                        return delegate(resultSet, method, args);
+                    } finally {
+                        finish();
+                    }
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    return delegate(resultSet, method, args);
+                default:
+                    return delegate(resultSet, method, args);
+            }
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                execution.finish(rows, null);
+            }
+        }
+    }
+}
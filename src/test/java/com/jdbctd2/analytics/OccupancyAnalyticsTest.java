@@ -0,0 +1,113 @@
+package com.jdbctd2.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Drives the sweep directly with orders sorted by installation time, as the cursor returns them
+ */
+class OccupancyAnalyticsTest {
+    private static final double DELTA = 1e-9;
+    private static final List<ServicePeriod> SERVICES = List.of(
+            new ServicePeriod("lunch", LocalTime.of(11, 0), LocalTime.of(14, 0)),
+            new ServicePeriod("dinner", LocalTime.of(19, 0), LocalTime.of(22, 0)));
+
+    private final List<OccupancyBucket> buckets = new ArrayList<>();
+
+    @Test
+    void creditsBucketsAndMergesOverlappingOrders() {
+        OccupancyAnalytics.Sweep sweep = sweep(at(10, 0), at(14, 0), true);
+        sweep.accept(1, at(9, 30), at(10, 30), 2);
+        sweep.accept(1, at(10, 15), at(11, 15), 4);
+        sweep.accept(2, at(11, 0), null, 3);
+        sweep.accept(99, at(11, 30), at(12, 0), 2);
+        sweep.accept(2, at(12, 30), at(13, 0), 2);
+        sweep.accept(1, at(13, 30), at(15, 0), 3);
+        OccupancyReport report = sweep.finish();
+
+        assertEquals(8, buckets.size());
+        assertBucket(0, 1, at(10, 0), 1.0, 1.0);
+        assertBucket(1, 2, at(10, 0), 0.0, 0.0);
+        assertBucket(2, 1, at(11, 0), 0.25, 0.25);
+        assertBucket(3, 2, at(11, 0), 0.0, 0.0);
+        assertBucket(4, 1, at(12, 0), 0.0, 0.0);
+        assertBucket(5, 2, at(12, 0), 0.5, 0.5);
+        assertBucket(6, 1, at(13, 0), 0.5, 0.375);
+        assertBucket(7, 2, at(13, 0), 0.0, 0.0);
+
+        assertEquals(5, report.getOrdersScanned());
+        assertEquals(1, report.getOpenOrders());
+
+        TableTurnover first = report.getTables().get(0);
+        assertEquals(2, first.getOrderCount());
+        assertEquals(Duration.ofMinutes(75), first.getAverageSeatingDuration());
+        assertEquals(105.0 / 240, first.getOccupancyRatio(), DELTA);
+        assertEquals(390.0 / 960, first.getSeatUtilization(), DELTA);
+        assertEquals(1.0, first.getTurnsPerService().get("lunch"), DELTA);
+        assertEquals(0.0, first.getTurnsPerService().get("dinner"), DELTA);
+
+        TableTurnover second = report.getTables().get(1);
+        assertEquals(2, second.getOrderCount());
+        assertEquals(Duration.ofMinutes(30), second.getAverageSeatingDuration());
+        assertEquals(30.0 / 240, second.getOccupancyRatio(), DELTA);
+        assertEquals(2.0, second.getTurnsPerService().get("lunch"), DELTA);
+    }
+
+    @Test
+    void lastBucketIsShorterWhenTheRangeIsNotAMultiple() {
+        OccupancyAnalytics.Sweep sweep = sweep(at(10, 0), at(12, 30), false);
+        sweep.accept(1, at(12, 0), at(13, 0), null);
+        OccupancyReport report = sweep.finish();
+
+        assertEquals(6, buckets.size());
+        OccupancyBucket last = buckets.get(4);
+        assertEquals(at(12, 0), last.getBucketStart());
+        assertEquals(at(12, 30), last.getBucketEnd());
+        assertEquals(1.0, last.getOccupancyRatio(), DELTA);
+        assertNull(last.getSeatUtilization());
+        assertEquals(30.0 / 150, report.getTables().get(0).getOccupancyRatio(), DELTA);
+        assertNull(report.getTables().get(0).getSeatUtilization());
+    }
+
+    @Test
+    void emitsEveryBucketEvenWithoutOrders() {
+        OccupancyReport report = sweep(at(10, 0), at(14, 0), true).finish();
+
+        assertEquals(8, buckets.size());
+        for (OccupancyBucket bucket : buckets) {
+            assertEquals(0.0, bucket.getOccupancyRatio(), DELTA);
+        }
+        assertEquals(0, report.getOrdersScanned());
+        assertEquals(Duration.ZERO, report.getTables().get(0).getAverageSeatingDuration());
+    }
+
+    // ============= Helper Methods =============
+
+    private OccupancyAnalytics.Sweep sweep(LocalDateTime from, LocalDateTime to, boolean partySizeAvailable) {
+        List<OccupancyAnalytics.TableState> tables = List.of(
+                new OccupancyAnalytics.TableState(1, 1, 4),
+                new OccupancyAnalytics.TableState(2, 2, 2));
+        return new OccupancyAnalytics.Sweep(from, to, Duration.ofHours(1), SERVICES, tables, partySizeAvailable,
+                buckets::add);
+    }
+
+    private void assertBucket(int index, int tableId, LocalDateTime start, double occupancy, double seats) {
+        OccupancyBucket bucket = buckets.get(index);
+        assertEquals(tableId, bucket.getTableId(), "table of bucket " + index);
+        assertEquals(start, bucket.getBucketStart(), "start of bucket " + index);
+        assertEquals(occupancy, bucket.getOccupancyRatio(), DELTA, "occupancy of bucket " + index);
+        assertEquals(seats, bucket.getSeatUtilization(), DELTA, "seat utilization of bucket " + index);
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return LocalDateTime.of(2100, 1, 4, hour, minute);
+    }
+}
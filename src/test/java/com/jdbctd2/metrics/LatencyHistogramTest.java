@@ -0,0 +1,66 @@
+package com.jdbctd2.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+    @Test
+    void smallValuesGetOneBucketEach() {
+        for (int value = 0; value < 32; value++) {
+            assertEquals(value, LatencyHistogram.indexOf(value));
+            assertEquals(value, LatencyHistogram.upperBound(value));
+        }
+        assertEquals(32, LatencyHistogram.indexOf(32));
+        assertEquals(33, LatencyHistogram.indexOf(33));
+        assertEquals(64, LatencyHistogram.indexOf(64));
+        assertEquals(64, LatencyHistogram.indexOf(65));
+        assertEquals(65, LatencyHistogram.indexOf(66));
+    }
+
+    @Test
+    void bucketsAreContiguousAndBoundedByTheirUpperBound() {
+        for (int index = 1; index < LatencyHistogram.BUCKETS; index++) {
+            long lowest = LatencyHistogram.upperBound(index - 1) + 1;
+            long highest = LatencyHistogram.upperBound(index);
+            assertTrue(highest >= lowest, "bucket " + index + " is empty");
+            assertEquals(index, LatencyHistogram.indexOf(lowest), "lowest value of bucket " + index);
+            assertEquals(index, LatencyHistogram.indexOf(highest), "highest value of bucket " + index);
+        }
+    }
+
+    @Test
+    void upperBoundIsWithinThreePercentOfAnyValueInTheBucket() {
+        for (int index = 32; index < LatencyHistogram.BUCKETS; index++) {
+            long lowest = LatencyHistogram.upperBound(index - 1) + 1;
+            long highest = LatencyHistogram.upperBound(index);
+            assertTrue((highest - lowest) <= lowest / 32, "bucket " + index + " is too wide");
+        }
+    }
+
+    @Test
+    void valuesPastTheRangeShareTheLastBucket() {
+        int last = LatencyHistogram.BUCKETS - 1;
+        assertEquals((1L << 41) - 1, LatencyHistogram.upperBound(last));
+        assertEquals(last, LatencyHistogram.indexOf(1L << 41));
+        assertEquals(last, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void percentilesAreCappedByTheExactMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+        histogram.record(-5);
+
+        HistogramSnapshot snapshot = histogram.snapshotAndReset();
+        assertEquals(1001, snapshot.getCount());
+        assertEquals(1_000_000, snapshot.getMaxNanos());
+        assertEquals(1_000_000, snapshot.getValueAtPercentile(100));
+        long p50 = snapshot.getP50Nanos();
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 33 / 32, "p50 was " + p50);
+        assertEquals(0, histogram.snapshot().getCount());
+    }
+}
@@ -0,0 +1,183 @@
+package com.jdbctd2.repository.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LruEntityCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void loadsOnceThenHits() {
+        LruEntityCache<Integer, String> cache = new LruEntityCache<>("test", 10, Duration.ZERO);
+
+        assertEquals("v1", cache.get(1, this::load));
+        assertEquals("v1", cache.get(1, this::load));
+
+        CacheStats stats = cache.getStats();
+        assertEquals(1, loads.get());
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        LruEntityCache<Integer, String> cache = new LruEntityCache<>("test", 2, Duration.ZERO);
+        cache.get(1, this::load);
+        cache.get(2, this::load);
+        cache.get(1, this::load);
+        cache.get(3, this::load);
+
+        assertEquals(1, cache.getStats().getEvictions());
+        cache.get(1, this::load);
+        assertEquals(3, loads.get());
+        cache.get(2, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void reloadsExpiredEntries() throws InterruptedException {
+        LruEntityCache<Integer, String> cache = new LruEntityCache<>("test", 10, Duration.ofMillis(1));
+        cache.get(1, this::load);
+        Thread.sleep(5);
+        cache.get(1, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStats().getExpirations());
+    }
+
+    @Test
+    void doesNotCacheMissingEntities() {
+        LruEntityCache<Integer, String> cache = new LruEntityCache<>("test", 10, Duration.ZERO);
+
+        assertNull(cache.get(1, key -> null));
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void invalidateDropsTheEntry() {
+        LruEntityCache<Integer, String> cache = new LruEntityCache<>("test", 10, Duration.ZERO);
+        cache.get(1, this::load);
+        cache.invalidate(1);
+        cache.get(1, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        LruEntityCache<Integer, String> cache = new LruEntityCache<>("test", 10, Duration.ZERO);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cache.get(1, key -> {
+                loading.countDown();
+                await(release);
+                return load(key);
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(() -> cache.get(1, this::load));
+            waitUntil(() -> cache.getStats().getCoalescedLoads() == 1);
+            release.countDown();
+
+            assertEquals("v1", first.get(5, TimeUnit.SECONDS));
+            assertEquals("v1", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedLoadReachesWaitersAndIsNotCached() throws Exception {
+        LruEntityCache<Integer, String> cache = new LruEntityCache<>("test", 10, Duration.ZERO);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cache.get(1, key -> {
+                loading.countDown();
+                await(release);
+                throw new IllegalStateException("database down");
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(() -> {
+                try {
+                    return cache.get(1, this::load);
+                } catch (IllegalStateException e) {
+                    return e.getMessage();
+                }
+            });
+            waitUntil(() -> cache.getStats().getCoalescedLoads() == 1);
+            release.countDown();
+
+            assertEquals("database down", second.get(5, TimeUnit.SECONDS));
+            assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, cache.getStats().getLoadFailures());
+            assertEquals("v1", cache.get(1, this::load));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void invalidationDuringALoadKeepsTheStaleValueOut() throws Exception {
+        LruEntityCache<Integer, String> cache = new LruEntityCache<>("test", 10, Duration.ZERO);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = executor.submit(() -> cache.get(1, key -> {
+                loading.countDown();
+                await(release);
+                return "stale";
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            cache.invalidate(1);
+            release.countDown();
+
+            assertEquals("stale", stale.get(5, TimeUnit.SECONDS));
+            assertEquals(0, cache.getStats().getSize());
+            assertEquals("v1", cache.get(1, this::load));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // ============= Helper Methods =============
+
+    private String load(Integer key) {
+        loads.incrementAndGet();
+        return "v" + key;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached");
+            Thread.sleep(1);
+        }
+    }
+}
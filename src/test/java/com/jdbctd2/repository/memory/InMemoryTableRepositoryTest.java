@@ -0,0 +1,52 @@
+package com.jdbctd2.repository.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Runs the scenario suite against a standalone repository, which needs no database. The
+ * expected transcript is the one {@code DataRetriever} produces, kept next to this class.
+ */
+class InMemoryTableRepositoryTest {
+    private static final String TRANSCRIPT = "table-repository-scenarios.txt";
+
+    @Test
+    void standaloneMatchesTheDatabaseTranscript() throws IOException {
+        List<String> actual;
+        try (InMemoryTableRepository standalone = InMemoryTableRepository.standalone()) {
+            actual = new TableRepositoryScenarios(standalone, standalone::saveOrder, 100,
+                    TableRepositoryScenarios.dayFor(100)).runAll();
+        }
+        List<String> differences = TableRepositoryScenarios.compare("expected", expectedTranscript(),
+                "standalone", actual);
+        assertEquals(List.of(), differences);
+    }
+
+    @Test
+    void transcriptDoesNotDependOnTableNumbersOrDay() {
+        List<String> first;
+        List<String> second;
+        try (InMemoryTableRepository standalone = InMemoryTableRepository.standalone()) {
+            first = new TableRepositoryScenarios(standalone, standalone::saveOrder, 100,
+                    LocalDate.of(2100, 1, 4)).runAll();
+            second = new TableRepositoryScenarios(standalone, standalone::saveOrder,
+                    TableRepositoryScenarios.nextTableNumberBase(standalone), LocalDate.of(2100, 3, 1)).runAll();
+        }
+        assertEquals(List.of(), TableRepositoryScenarios.compare("first run", first, "second run", second));
+    }
+
+    private List<String> expectedTranscript() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(TRANSCRIPT)) {
+            assertNotNull(in, TRANSCRIPT + " is missing");
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+}
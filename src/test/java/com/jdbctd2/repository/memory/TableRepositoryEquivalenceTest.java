@@ -0,0 +1,56 @@
+package com.jdbctd2.repository.memory;
+
+import com.jdbctd2.config.DBConnection;
+import com.jdbctd2.repository.DataRetriever;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the scenario suite against {@link DataRetriever} on the default database, a standalone
+ * {@link InMemoryTableRepository} and a persistent one, then checks that the database behind
+ * the persistent repository answers like it once flushed. Needs a scratch database, since the
+ * runs leave their tables and orders behind: enable with {@code -Djdbctd2.db=true}.
+ */
+@EnabledIfSystemProperty(named = "jdbctd2.db", matches = "true")
+class TableRepositoryEquivalenceTest {
+    private final DBConnection dbConnection = new DBConnection();
+    private final DataRetriever dataRetriever = new DataRetriever(dbConnection);
+
+    @Test
+    void standaloneAnswersLikeDataRetriever() {
+        int base = TableRepositoryScenarios.nextTableNumberBase(dataRetriever);
+        List<String> expected = new TableRepositoryScenarios(dataRetriever, dataRetriever::saveOrder,
+                base, TableRepositoryScenarios.dayFor(base)).runAll();
+
+        try (InMemoryTableRepository standalone = InMemoryTableRepository.standalone()) {
+            List<String> actual = new TableRepositoryScenarios(standalone, standalone::saveOrder,
+                    base, TableRepositoryScenarios.dayFor(base)).runAll();
+            assertEquals(List.of(), TableRepositoryScenarios.compare("DataRetriever", expected, "standalone", actual));
+        }
+    }
+
+    @Test
+    void persistentAnswersLikeDataRetrieverAndFlushesToIt(@TempDir Path journalDirectory) {
+        int base = TableRepositoryScenarios.nextTableNumberBase(dataRetriever);
+        List<String> expected = new TableRepositoryScenarios(dataRetriever, dataRetriever::saveOrder,
+                base, TableRepositoryScenarios.dayFor(base)).runAll();
+
+        try (InMemoryTableRepository persistent = InMemoryTableRepository.persistent(dbConnection, journalDirectory)) {
+            int persistentBase = Math.max(TableRepositoryScenarios.nextTableNumberBase(persistent), base + 100);
+            TableRepositoryScenarios scenarios = new TableRepositoryScenarios(persistent, persistent::saveOrder,
+                    persistentBase, TableRepositoryScenarios.dayFor(persistentBase));
+            List<String> actual = scenarios.runAll();
+            assertEquals(List.of(), TableRepositoryScenarios.compare("DataRetriever", expected, "persistent", actual));
+
+            persistent.flush();
+            assertEquals(List.of(), TableRepositoryScenarios.compare("persistent", scenarios.runReads(persistent),
+                    "flushed database", scenarios.runReads(dataRetriever)));
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.jdbctd2.repository.memory;
+
+import com.jdbctd2.model.Order;
+import com.jdbctd2.model.Table;
+import com.jdbctd2.repository.interf.TableRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Scenario suite that can run against any {@link TableRepository}. Every step writes what it
+ * observed into a transcript, and two implementations are equivalent when their transcripts
+ * are equal.
+ * <p>
+ * Tables are reported by label ({@code T1}..{@code T4}) rather than id or number, and
+ * results are restricted to the tables the run created, so a run against a database that
+ * already holds data is still comparable. Runs need distinct {@code tableNumberBase} values
+ * on the same database; {@link #nextTableNumberBase(TableRepository)} picks one past the highest
+ * number in use.
+ */
+class TableRepositoryScenarios {
+    private static final int[] CAPACITIES = {2, 4, 4, 8};
+
+    private final TableRepository repository;
+    private final Function<Order, Order> booker;
+    private final int tableNumberBase;
+    private final LocalDate day;
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+
+    /**
+     * @param booker books an order on the same store as {@code repository}, e.g. {@code saveOrder}
+     * @param day a day no other run books tables on
+     */
+    public TableRepositoryScenarios(TableRepository repository, Function<Order, Order> booker,
+                                    int tableNumberBase, LocalDate day) {
+        this.repository = repository;
+        this.booker = booker;
+        this.tableNumberBase = tableNumberBase;
+        this.day = day;
+    }
+
+    /**
+     * Creates the tables and bookings, then runs the read scenarios
+     */
+    public List<String> runAll() {
+        List<String> transcript = new ArrayList<>();
+        saveTables(transcript);
+        bookOrders(transcript);
+        transcript.addAll(runReads(repository));
+        validation(transcript);
+        return transcript;
+    }
+
+    /**
+     * Runs the read scenarios over the tables created by {@link #runAll()}, on any store that
+     * holds them with the same ids, e.g. the database behind a flushed write-behind repository
+     */
+    public List<String> runReads(TableRepository target) {
+        List<String> transcript = new ArrayList<>();
+        lookups(target, transcript);
+        pointAvailability(target, transcript);
+        intervalAvailability(target, transcript);
+        return transcript;
+    }
+
+    /**
+     * Line-by-line differences between two transcripts, empty when they are equal
+     */
+    public static List<String> compare(String leftName, List<String> left, String rightName, List<String> right) {
+        List<String> differences = new ArrayList<>();
+        for (int i = 0; i < Math.max(left.size(), right.size()); i++) {
+            String leftLine = i < left.size() ? left.get(i) : "<missing>";
+            String rightLine = i < right.size() ? right.get(i) : "<missing>";
+            if (!leftLine.equals(rightLine)) {
+                differences.add("#" + i + " " + leftName + ": " + leftLine + " | " + rightName + ": " + rightLine);
+            }
+        }
+        return differences;
+    }
+
+    // ============= Write Scenarios =============
+
+    private void saveTables(List<String> transcript) {
+        for (int i = 0; i < CAPACITIES.length; i++) {
+            String label = "T" + (i + 1);
+            Table table = new Table(null, tableNumberBase + i + 1, CAPACITIES[i]);
+            step(transcript, "saveTable " + label, () -> {
+                repository.saveTable(table);
+                tables.put(label, table);
+                return table.getId() != null ? "id assigned" : "no id";
+            }, false);
+        }
+        step(transcript, "saveTable duplicate number",
+                () -> describe(repository.saveTable(new Table(null, tableNumberBase + 1, 6))), false);
+    }
+
+    private void bookOrders(List<String> transcript) {
+        book(transcript, "T2 18:00-20:00", "T2", at(18, 0), at(20, 0));
+        book(transcript, "T2 20:00-22:00 starts at a departure", "T2", at(20, 0), at(22, 0));
+        book(transcript, "T2 19:00 inside a booking", "T2", at(19, 0), at(21, 0));
+        book(transcript, "T1 18:00 without departure", "T1", at(18, 0), null);
+        book(transcript, "T1 18:30 after an open-ended booking", "T1", at(18, 30), at(19, 30));
+        book(transcript, "T3 12:00-14:00", "T3", at(12, 0), at(14, 0));
+        book(transcript, "T3 11:00-13:00 starts before a booking", "T3", at(11, 0), at(13, 0));
+        book(transcript, "T3 12:00 same start", "T3", at(12, 0), at(13, 0));
+        step(transcript, "book unknown table", () -> {
+            Order order = new Order("SCN-unknown", Integer.MAX_VALUE, at(12, 0));
+            order.setDepartureDatetime(at(13, 0));
+            booker.apply(order);
+            return "booked";
+        }, false);
+        step(transcript, "book without table", () -> {
+            booker.apply(new Order("SCN-no-table", null, at(12, 0)));
+            return "booked";
+        }, true);
+        step(transcript, "book without installation", () -> {
+            booker.apply(new Order("SCN-no-installation", tables.get("T4").getId(), null));
+            return "booked";
+        }, true);
+    }
+
+    private void book(List<String> transcript, String step, String label, LocalDateTime installation,
+                      LocalDateTime departure) {
+        step(transcript, "book " + step, () -> {
+            Order order = new Order("SCN-" + tableNumberBase + "-" + step, tables.get(label).getId(), installation);
+            order.setDepartureDatetime(departure);
+            try {
+                booker.apply(order);
+                return order.getId() != null ? "booked" : "booked without id";
+            } catch (RuntimeException e) {
+                // The listed alternatives include tables outside this run, so only the verdict is compared
+                return e.getMessage() != null && e.getMessage().contains("is not available at this time")
+                        ? "refused: table not available" : "refused";
+            }
+        }, false);
+    }
+
+    // ============= Read Scenarios =============
+
+    private void lookups(TableRepository target, List<String> transcript) {
+        for (Map.Entry<String, Table> entry : tables.entrySet()) {
+            step(transcript, "findTableById " + entry.getKey(),
+                    () -> describe(target.findTableById(entry.getValue().getId())), false);
+        }
+        step(transcript, "findTableById unknown", () -> String.valueOf(target.findTableById(Integer.MAX_VALUE)), false);
+        step(transcript, "findAllTables", () -> labels(target.findAllTables()), false);
+    }
+
+    private void pointAvailability(TableRepository target, List<String> transcript) {
+        LocalDateTime[] instants = {at(17, 59), at(18, 0), at(19, 0), at(20, 0), at(21, 59), at(22, 0), at(12, 30)};
+        for (String label : tables.keySet()) {
+            for (LocalDateTime instant : instants) {
+                step(transcript, "isTableAvailableAtDateTime " + label + " " + instant.toLocalTime(),
+                        () -> String.valueOf(target.isTableAvailableAtDateTime(tables.get(label).getId(), instant)),
+                        false);
+            }
+        }
+        for (LocalDateTime instant : instants) {
+            step(transcript, "findAvailableTablesAtDateTime " + instant.toLocalTime(),
+                    () -> labels(target.findAvailableTablesAtDateTime(instant)), false);
+        }
+    }
+
+    private void intervalAvailability(TableRepository target, List<String> transcript) {
+        LocalDateTime freeFrom = day.minusDays(1).atTime(12, 0);
+        LocalDateTime freeTo = day.minusDays(1).atTime(14, 0);
+        int[][] windows = {{17, 0, 18, 0}, {17, 0, 18, 30}, {19, 0, 19, 30}, {20, 0, 22, 0}, {22, 0, 23, 0},
+                {11, 30, 12, 30}, {10, 0, 23, 0}};
+        for (int[] window : windows) {
+            LocalDateTime from = at(window[0], window[1]);
+            LocalDateTime to = at(window[2], window[3]);
+            String range = from.toLocalTime() + "-" + to.toLocalTime();
+            for (int partySize : new int[]{1, 3, 5}) {
+                step(transcript, "findAvailableTables " + range + " party " + partySize,
+                        () -> labels(target.findAvailableTables(from, to, partySize)), false);
+            }
+            // Relative to a window nobody books, so tables outside this run cancel out
+            step(transcript, "countAvailableSeats " + range,
+                    () -> String.valueOf(target.countAvailableSeats(from, to) - target.countAvailableSeats(freeFrom, freeTo)),
+                    false);
+        }
+    }
+
+    private void validation(List<String> transcript) {
+        step(transcript, "findAvailableTables reversed interval",
+                () -> labels(repository.findAvailableTables(at(20, 0), at(18, 0), 2)), true);
+        step(transcript, "findAvailableTables empty interval",
+                () -> labels(repository.findAvailableTables(at(18, 0), at(18, 0), 2)), true);
+        step(transcript, "findAvailableTables party 0",
+                () -> labels(repository.findAvailableTables(at(18, 0), at(20, 0), 0)), true);
+        step(transcript, "countAvailableSeats null bound",
+                () -> String.valueOf(repository.countAvailableSeats(null, at(20, 0))), true);
+    }
+
+    // ============= Helper Methods =============
+
+    /**
+     * @param withMessage whether the exception message is part of the contract; messages coming
+     *                    from the database differ between implementations
+     */
+    private void step(List<String> transcript, String step, Supplier<String> action, boolean withMessage) {
+        String outcome;
+        try {
+            outcome = action.get();
+        } catch (RuntimeException e) {
+            outcome = withMessage ? e.getClass().getSimpleName() + ": " + e.getMessage() : "error";
+        }
+        transcript.add(step + " -> " + outcome);
+    }
+
+    private LocalDateTime at(int hour, int minute) {
+        return day.atTime(LocalTime.of(hour, minute));
+    }
+
+    private String describe(Table table) {
+        if (table == null) {
+            return "null";
+        }
+        return labelOf(table) + " capacity=" + table.getCapacity();
+    }
+
+    private String labels(List<Table> found) {
+        List<String> labels = new ArrayList<>();
+        for (Table table : found) {
+            String label = labelOf(table);
+            if (label != null) {
+                labels.add(label);
+            }
+        }
+        return labels.toString();
+    }
+
+    private String labelOf(Table table) {
+        for (Map.Entry<String, Table> entry : tables.entrySet()) {
+            if (entry.getValue().getId().equals(table.getId())) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    // ============= Run Helpers =============
+
+    /**
+     * A number base past the highest table number in use, so runs on the same database do not collide
+     */
+    static int nextTableNumberBase(TableRepository repository) {
+        int highest = 0;
+        for (Table table : repository.findAllTables()) {
+            highest = Math.max(highest, table.getNumber());
+        }
+        return (highest / 100 + 1) * 100;
+    }
+
+    /**
+     * A day no other run with a different base books tables on
+     */
+    static LocalDate dayFor(int tableNumberBase) {
+        return LocalDate.of(2100, 1, 1).plusDays(tableNumberBase / 100 * 3L);
+    }
+}
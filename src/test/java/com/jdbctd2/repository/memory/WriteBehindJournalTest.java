@@ -0,0 +1,160 @@
+package com.jdbctd2.repository.memory;
+
+import com.jdbctd2.model.Order;
+import com.jdbctd2.model.Table;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void orderRoundTripsThroughEscapedLine() {
+        Order order = new Order("a\\b\tc\nd\re", 7, LocalDateTime.of(2100, 1, 4, 18, 0));
+        order.setId(42);
+        order.setCreationDatetime(Instant.parse("2100-01-01T10:15:30Z"));
+
+        String line = JournalEntry.order(3, order).toLine();
+        assertEquals(1, line.lines().count());
+        assertEquals(8, line.split("\t", -1).length);
+
+        JournalEntry parsed = JournalEntry.parse(line);
+        assertEquals(3, parsed.getSequence());
+        assertEquals(JournalEntry.Type.ORDER, parsed.getType());
+        assertEquals(42, parsed.getOrder().getId());
+        assertEquals("a\\b\tc\nd\re", parsed.getOrder().getReference());
+        assertEquals(Instant.parse("2100-01-01T10:15:30Z"), parsed.getOrder().getCreationDatetime());
+        assertEquals(7, parsed.getOrder().getTableId());
+        assertEquals(LocalDateTime.of(2100, 1, 4, 18, 0), parsed.getOrder().getInstallationDatetime());
+        assertNull(parsed.getOrder().getDepartureDatetime());
+    }
+
+    @Test
+    void nullsRoundTripAsBackslashN() {
+        Order order = new Order(null, null, null);
+        String line = JournalEntry.order(1, order).toLine();
+        assertTrue(line.endsWith("\t\\N\t\\N"));
+
+        Order parsed = JournalEntry.parse(line).getOrder();
+        assertNull(parsed.getId());
+        assertNull(parsed.getReference());
+        assertNull(parsed.getCreationDatetime());
+        assertNull(parsed.getTableId());
+
+        Table table = JournalEntry.parse(JournalEntry.table(2, new Table(null, 5, 4)).toLine()).getTable();
+        assertNull(table.getId());
+        assertEquals(5, table.getNumber());
+        assertEquals(4, table.getCapacity());
+    }
+
+    @Test
+    void pendingEntriesSurviveReopenUntilCheckpointed() {
+        try (WriteBehindJournal journal = WriteBehindJournal.open(directory, false)) {
+            for (int i = 1; i <= 3; i++) {
+                int number = i;
+                journal.append(sequence -> JournalEntry.table(sequence, new Table(number, number, 2)), entry -> { });
+            }
+            journal.checkpoint(1);
+        }
+
+        try (WriteBehindJournal journal = WriteBehindJournal.open(directory, false)) {
+            List<JournalEntry> pending = journal.readPending();
+            assertEquals(List.of(2L, 3L), sequences(pending));
+
+            JournalEntry next = journal.append(sequence -> JournalEntry.table(sequence, new Table(4, 4, 2)), entry -> { });
+            assertEquals(4, next.getSequence());
+        }
+    }
+
+    @Test
+    void checkpointCatchingUpTruncatesTheJournal() throws IOException {
+        try (WriteBehindJournal journal = WriteBehindJournal.open(directory, true)) {
+            journal.append(sequence -> JournalEntry.table(sequence, new Table(1, 1, 2)), entry -> { });
+            journal.append(sequence -> JournalEntry.table(sequence, new Table(2, 2, 2)), entry -> { });
+            journal.checkpoint(1);
+            assertTrue(Files.size(directory.resolve("tables.journal")) > 0);
+
+            journal.checkpoint(2);
+            assertEquals(0, Files.size(directory.resolve("tables.journal")));
+            assertEquals(List.of(), journal.readPending());
+
+            JournalEntry next = journal.append(sequence -> JournalEntry.table(sequence, new Table(3, 3, 2)), entry -> { });
+            assertEquals(3, next.getSequence());
+        }
+    }
+
+    @Test
+    void lineCutShortByACrashIsDroppedAndLaterAppendsSurvive() throws IOException {
+        try (WriteBehindJournal journal = WriteBehindJournal.open(directory, false)) {
+            journal.append(sequence -> JournalEntry.table(sequence, new Table(1, 1, 2)), entry -> { });
+        }
+        Files.writeString(directory.resolve("tables.journal"), "2\tTABLE\t2", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        try (WriteBehindJournal journal = WriteBehindJournal.open(directory, false)) {
+            assertEquals(List.of(1L), sequences(journal.readPending()));
+            journal.append(sequence -> JournalEntry.table(sequence, new Table(2, 2, 4)), entry -> { });
+        }
+
+        try (WriteBehindJournal journal = WriteBehindJournal.open(directory, false)) {
+            List<JournalEntry> pending = journal.readPending();
+            assertEquals(List.of(1L, 2L), sequences(pending));
+            assertEquals(4, pending.get(1).getTable().getCapacity());
+        }
+    }
+
+    @Test
+    void corruptLineInTheMiddleFailsTheRead() throws IOException {
+        try (WriteBehindJournal journal = WriteBehindJournal.open(directory, false)) {
+            journal.append(sequence -> JournalEntry.table(sequence, new Table(1, 1, 2)), entry -> { });
+        }
+        Files.writeString(directory.resolve("tables.journal"), "2\tTABLE\tx\n", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        try (WriteBehindJournal journal = WriteBehindJournal.open(directory, false)) {
+            journal.append(sequence -> JournalEntry.table(sequence, new Table(3, 3, 2)), entry -> { });
+            assertThrows(RuntimeException.class, journal::readPending);
+        }
+    }
+
+    @Test
+    void appendedEntriesReachTheCallbackInSequenceOrder() throws InterruptedException {
+        List<Long> received = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (WriteBehindJournal journal = WriteBehindJournal.open(directory, false)) {
+            for (int i = 0; i < 500; i++) {
+                executor.execute(() -> journal.append(sequence -> JournalEntry.table(sequence, new Table(null, 1, 2)),
+                        entry -> received.add(entry.getSequence())));
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        assertEquals(500, received.size());
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i + 1, received.get(i));
+        }
+    }
+
+    private static List<Long> sequences(List<JournalEntry> entries) {
+        return entries.stream().map(JournalEntry::getSequence).toList();
+    }
+}
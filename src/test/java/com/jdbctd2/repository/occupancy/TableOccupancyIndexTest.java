@@ -0,0 +1,94 @@
+package com.jdbctd2.repository.occupancy;
+
+import com.jdbctd2.model.Table;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TableOccupancyIndexTest {
+    private final TableOccupancyIndex index = new TableOccupancyIndex();
+
+    @Test
+    void occupiesStrictlyBetweenInstallationAndDeparture() {
+        index.addOccupancy(1, at(18, 0), at(20, 0));
+
+        assertTrue(index.isTableAvailableAtDateTime(1, at(17, 59)));
+        assertTrue(index.isTableAvailableAtDateTime(1, at(18, 0)));
+        assertFalse(index.isTableAvailableAtDateTime(1, at(18, 1)));
+        assertFalse(index.isTableAvailableAtDateTime(1, at(19, 59)));
+        assertTrue(index.isTableAvailableAtDateTime(1, at(20, 0)));
+        assertTrue(index.isTableAvailableAtDateTime(2, at(19, 0)));
+    }
+
+    @Test
+    void intervalsTouchingABookingAreFree() {
+        index.addOccupancy(1, at(18, 0), at(20, 0));
+
+        assertTrue(index.isTableFreeBetween(1, at(17, 0), at(18, 0)));
+        assertTrue(index.isTableFreeBetween(1, at(20, 0), at(22, 0)));
+        assertFalse(index.isTableFreeBetween(1, at(17, 0), at(18, 1)));
+        assertFalse(index.isTableFreeBetween(1, at(19, 0), at(19, 30)));
+        assertFalse(index.isTableFreeBetween(1, at(10, 0), at(23, 0)));
+    }
+
+    @Test
+    void openEndedAndDegenerateBookingsNeverBlock() {
+        index.addOccupancy(1, at(18, 0), null);
+        index.addOccupancy(1, at(19, 0), at(19, 0));
+        index.addOccupancy(1, at(21, 0), at(20, 0));
+        index.addOccupancy(null, at(18, 0), at(20, 0));
+
+        assertTrue(index.isTableAvailableAtDateTime(1, at(19, 0)));
+        assertTrue(index.isTableAvailableAtDateTime(1, at(20, 30)));
+        assertTrue(index.isTableFreeBetween(1, at(10, 0), at(23, 0)));
+    }
+
+    @Test
+    void overlappingBookingsAreMerged() {
+        index.addOccupancy(1, at(12, 0), at(14, 0));
+        index.addOccupancy(1, at(16, 0), at(17, 0));
+        index.addOccupancy(1, at(13, 0), at(16, 30));
+        index.addOccupancy(1, at(11, 0), at(12, 30));
+
+        assertTrue(index.isTableFreeBetween(1, at(10, 0), at(11, 0)));
+        assertFalse(index.isTableAvailableAtDateTime(1, at(11, 30)));
+        assertFalse(index.isTableAvailableAtDateTime(1, at(15, 0)));
+        assertFalse(index.isTableAvailableAtDateTime(1, at(16, 45)));
+        assertTrue(index.isTableAvailableAtDateTime(1, at(17, 0)));
+        assertTrue(index.isTableFreeBetween(1, at(17, 0), at(18, 0)));
+    }
+
+    @Test
+    void availableTablesAreSortedByNumber() {
+        index.putTable(new Table(10, 3, 4));
+        index.putTable(new Table(11, 1, 2));
+        index.putTable(new Table(12, 2, 8));
+        index.addOccupancy(12, at(18, 0), at(20, 0));
+
+        assertEquals(List.of(1, 2, 3), index.getTables().stream().map(Table::getNumber).toList());
+        assertEquals(List.of(1, 3), index.findAvailableTablesAtDateTime(at(19, 0)).stream()
+                .map(Table::getNumber).toList());
+    }
+
+    @Test
+    void clearForgetsTablesAndBookings() {
+        index.putTable(new Table(10, 1, 4));
+        index.addOccupancy(10, at(18, 0), at(20, 0));
+        index.markLoaded();
+
+        index.clear();
+
+        assertFalse(index.isLoaded());
+        assertEquals(List.of(), index.getTables());
+        assertTrue(index.isTableAvailableAtDateTime(10, at(19, 0)));
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return LocalDateTime.of(2100, 1, 4, hour, minute);
+    }
+}
@@ -0,0 +1,56 @@
+package com.jdbctd2.repository.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageTokenTest {
+    @Test
+    void roundTripsKeyValues() {
+        List<String> key = List.of("Dupont", "42");
+        String token = PageToken.encode("customers", key);
+
+        assertEquals(key, PageToken.decode("customers", token, 2));
+    }
+
+    @Test
+    void roundTripsNonAsciiAndEmptyValues() {
+        List<String> key = List.of("Crème brûlée", "", "a/b+c=d");
+        assertEquals(key, PageToken.decode("dishes", PageToken.encode("dishes", key), 3));
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = PageToken.encode("payments", List.of("ÿþýü", "?&=/+"));
+        assertFalse(token.contains("+") || token.contains("/") || token.contains("="), token);
+    }
+
+    @Test
+    void rejectsATokenFromAnotherListing() {
+        String token = PageToken.encode("customers", List.of("Dupont", "42"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> PageToken.decode("staff", token, 2));
+        assertEquals("Invalid page token: Page token does not belong to staff", e.getMessage());
+    }
+
+    @Test
+    void rejectsAKeyOfTheWrongSize() {
+        String token = PageToken.encode("customers", List.of("42"));
+        assertThrows(IllegalArgumentException.class, () -> PageToken.decode("customers", token, 2));
+    }
+
+    @Test
+    void rejectsGarbageAndTruncatedTokens() {
+        String token = PageToken.encode("customers", List.of("Dupont", "42"));
+
+        assertThrows(IllegalArgumentException.class, () -> PageToken.decode("customers", "not a token!", 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> PageToken.decode("customers", token.substring(0, token.length() - 4), 2));
+        assertThrows(IllegalArgumentException.class, () -> PageToken.decode("customers", "", 2));
+    }
+}
@@ -0,0 +1,85 @@
+package com.jdbctd2.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceRingBufferTest {
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(1, new TraceRingBuffer(1).getCapacity());
+        assertEquals(2, new TraceRingBuffer(2).getCapacity());
+        assertEquals(4, new TraceRingBuffer(3).getCapacity());
+        assertEquals(256, new TraceRingBuffer(200).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new TraceRingBuffer(0));
+    }
+
+    @Test
+    void keepsEntriesInOrderUntilFull() {
+        TraceRingBuffer ring = new TraceRingBuffer(4);
+        add(ring, 3);
+
+        assertEquals(List.of(0L, 1L, 2L), sequences(ring));
+        assertEquals(3, ring.getAddedCount());
+    }
+
+    @Test
+    void overwritesTheOldestEntriesOnceFull() {
+        TraceRingBuffer ring = new TraceRingBuffer(4);
+        add(ring, 10);
+
+        assertEquals(List.of(6L, 7L, 8L, 9L), sequences(ring));
+        assertEquals(10, ring.getAddedCount());
+    }
+
+    @Test
+    void clearEmptiesTheSnapshotButKeepsCounting() {
+        TraceRingBuffer ring = new TraceRingBuffer(4);
+        add(ring, 5);
+        ring.clear();
+
+        assertEquals(List.of(), ring.snapshot());
+        add(ring, 1);
+        assertEquals(List.of(5L), sequences(ring));
+    }
+
+    @Test
+    void concurrentWritersNeverLeaveAStaleEntryInTheSnapshot() throws InterruptedException {
+        TraceRingBuffer ring = new TraceRingBuffer(64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> add(ring, 10_000));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(80_000, ring.getAddedCount());
+        List<Long> retained = sequences(ring);
+        assertTrue(retained.size() <= 64);
+        for (int i = 0; i < retained.size(); i++) {
+            assertTrue(retained.get(i) >= 80_000 - 64, "stale entry " + retained.get(i));
+            if (i > 0) {
+                assertTrue(retained.get(i) > retained.get(i - 1));
+            }
+        }
+    }
+
+    private static void add(TraceRingBuffer ring, int count) {
+        for (int i = 0; i < count; i++) {
+            ring.add(sequence -> new TraceEntry(sequence, Instant.EPOCH, "select 1", List.of(), 0, 0, 1,
+                    "TraceRingBufferTest", Thread.currentThread().getName(), null));
+        }
+    }
+
+    private static List<Long> sequences(TraceRingBuffer ring) {
+        return ring.snapshot().stream().map(TraceEntry::getSequence).toList();
+    }
+}